@@ -122,4 +122,15 @@ public final class JsonArray extends ArrayList<@NotNull JsonElement> implements
 	public @Nullable BigDecimal getAsBigDecimal(int index) {
 		return Jsonify.toBigDecimal(get(index));
 	}
+
+
+	@Override
+	public boolean equals(@Nullable Object object) {
+		return JsonStructures.equals(this, object);
+	}
+
+	@Override
+	public int hashCode() {
+		return JsonStructures.hashCode(this);
+	}
 }
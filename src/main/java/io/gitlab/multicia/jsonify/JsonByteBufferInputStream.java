@@ -0,0 +1,49 @@
+/*
+ * This file is part of jsonify.
+ *
+ * jsonify is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * jsonify is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with jsonify. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.gitlab.multicia.jsonify;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * An input stream reading from a byte buffer.
+ */
+final class JsonByteBufferInputStream extends InputStream {
+	private final @NotNull ByteBuffer buffer;
+
+	JsonByteBufferInputStream(@NotNull ByteBuffer buffer) {
+		this.buffer = buffer;
+	}
+
+	@Override
+	public int read() {
+		return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+	}
+
+	@Override
+	public int read(byte @NotNull [] bytes, int offset, int length) {
+		if (length == 0) return 0;
+		final int remaining = buffer.remaining();
+		if (remaining == 0) return -1;
+		final int count = Math.min(length, remaining);
+		buffer.get(bytes, offset, count);
+		return count;
+	}
+}
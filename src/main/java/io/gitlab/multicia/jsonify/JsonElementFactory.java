@@ -0,0 +1,94 @@
+/*
+ * This file is part of jsonify.
+ *
+ * jsonify is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * jsonify is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with jsonify. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package io.gitlab.multicia.jsonify;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * The default {@link JsonTreeFactory}, which builds {@link JsonElement}s.
+ */
+public final class JsonElementFactory implements JsonTreeFactory<JsonElement, JsonArray, JsonObject> {
+	public static final @NotNull JsonElementFactory INSTANCE = new JsonElementFactory();
+
+	private JsonElementFactory() {
+	}
+
+	@Override
+	public @NotNull JsonArray beginArray() {
+		return new JsonArray();
+	}
+
+	@Override
+	public void addValue(@NotNull JsonArray array, JsonElement value) {
+		array.add(value);
+	}
+
+	@Override
+	public @NotNull JsonElement endArray(@NotNull JsonArray array) {
+		return array;
+	}
+
+	@Override
+	public @NotNull JsonObject beginObject() {
+		return new JsonObject();
+	}
+
+	@Override
+	public void putValue(@NotNull JsonObject object, @NotNull String name, JsonElement value) {
+		object.put(name, value);
+	}
+
+	@Override
+	public @NotNull JsonElement endObject(@NotNull JsonObject object) {
+		return object;
+	}
+
+	@Override
+	public @NotNull JsonElement valueBoolean(boolean value) {
+		return JsonKeyword.of(value);
+	}
+
+	@Override
+	public @NotNull JsonElement valueNumber(long value) {
+		return new JsonNumber(value);
+	}
+
+	@Override
+	public @NotNull JsonElement valueNumber(@NotNull BigInteger value) {
+		return new JsonNumber(value);
+	}
+
+	@Override
+	public @NotNull JsonElement valueNumber(@NotNull BigDecimal value) {
+		return new JsonNumber(value);
+	}
+
+	@Override
+	public @NotNull JsonElement valueString(@NotNull String value) {
+		return new JsonString(value);
+	}
+
+	@Override
+	public @NotNull JsonElement valueNull() {
+		return JsonKeyword.NULL;
+	}
+}
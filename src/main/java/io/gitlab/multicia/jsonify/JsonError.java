@@ -0,0 +1,68 @@
+/*
+ * This file is part of jsonify.
+ *
+ * jsonify is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * jsonify is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with jsonify. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.gitlab.multicia.jsonify;
+
+/**
+ * The error code of a {@link JsonIOException} or a failed {@link JsonResult}.
+ */
+public enum JsonError {
+	/**
+	 * The input ends in the middle of a document.
+	 */
+	UNEXPECTED_END,
+	/**
+	 * The input contains a character which is not allowed at its position.
+	 */
+	UNEXPECTED_CHARACTER,
+	/**
+	 * The input contains an invalid number.
+	 */
+	INVALID_NUMBER,
+	/**
+	 * The input contains an invalid character or an invalid escape sequence in a string.
+	 */
+	INVALID_STRING,
+	/**
+	 * The input is not correctly encoded, such as an unpaired surrogate or a malformed UTF-8 sequence.
+	 */
+	INVALID_ENCODING,
+	/**
+	 * The reader or the writer is used in a wrong state, such as after an error.
+	 */
+	INVALID_STATE,
+	/**
+	 * The element to write is not a valid JSON structure, such as a recursive structure.
+	 */
+	INVALID_STRUCTURE,
+	/**
+	 * The input exceeds a limit of {@link JsonLimits}.
+	 */
+	LIMIT_EXCEEDED,
+	/**
+	 * Reading is cancelled because the timeout of {@link JsonLimits} is exceeded or the thread is interrupted.
+	 */
+	CANCELLED,
+	/**
+	 * The underlying reader or writer throws an {@link java.io.IOException}.
+	 */
+	IO_ERROR,
+	/**
+	 * The error is not specified.
+	 */
+	UNKNOWN
+}
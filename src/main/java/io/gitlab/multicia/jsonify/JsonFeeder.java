@@ -0,0 +1,296 @@
+/*
+ * This file is part of jsonify.
+ *
+ * jsonify is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * jsonify is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with jsonify. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.gitlab.multicia.jsonify;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+/**
+ * Non-blocking JSON reader whose UTF-8 encoded input is fed in chunks, such as the buffers received from a
+ * non-blocking channel. The chunks can be split anywhere, even inside a token or inside an UTF-8 sequence.
+ * <p>
+ * {@link #nextToken()} returns {@link JsonTokens#NEED_MORE_INPUT} if the fed input ends in the middle of the next
+ * token. In that case, more input should be fed using {@link #feed(ByteBuffer)}, or the end of input should be marked
+ * using {@link #endOfInput()}, before calling it again. The feeder uses the same state machine and structure stack as
+ * {@link JsonReader}. Names, strings and numbers are decoded incrementally: when they are incomplete, the decoded part
+ * is kept and the decoding continues where it stopped when more input is fed, so that each character is decoded once
+ * and the consumed input is not kept. Other incomplete tokens, which are short, are read again from their beginning.
+ * Note that a token is still returned as a whole, so the decoded value of a name, a string or a number must fit in
+ * memory until the token is complete.
+ */
+public final class JsonFeeder implements Closeable {
+	/**
+	 * The size of the decoding buffer.
+	 */
+	private static final int BUFFER_SIZE = 8192;
+
+	private final @NotNull JsonReader reader;
+	private final @NotNull CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder();
+	private final @NotNull CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+
+	/**
+	 * The incomplete UTF-8 sequence at the end of the last chunk.
+	 */
+	private final @NotNull ByteBuffer carry = ByteBuffer.allocate(4);
+
+	private boolean ended;
+	private boolean closed;
+
+	/**
+	 * The structure index of the outermost structure whose end is skipped lazily by the next call of
+	 * {@link #nextToken()}, or {@link Integer#MAX_VALUE} if there is none.
+	 */
+	private int endIndex = Integer.MAX_VALUE;
+
+	/**
+	 * The last token returned by {@link #nextToken()}.
+	 */
+	private @Nullable JsonToken lastToken;
+
+	/**
+	 * The structures being parsed by {@link #parseStructure()}.
+	 */
+	private final @NotNull ArrayList<JsonElement> structures = new ArrayList<>();
+
+	/**
+	 * The name of the next member of the object being parsed by {@link #parseStructure()}.
+	 */
+	private @Nullable String name;
+
+	/**
+	 * Creates a json feeder.
+	 */
+	public JsonFeeder() {
+		this(false);
+	}
+
+	/**
+	 * Creates a json feeder, which accepts multiple documents if {@code multipleDocuments} is {@code true}.
+	 */
+	public JsonFeeder(boolean multipleDocuments) {
+		this.reader = new JsonReader(multipleDocuments);
+	}
+
+	//========================================
+
+	/**
+	 * Feed the next chunk of input. All remaining bytes of the buffer are consumed.
+	 *
+	 * @throws IllegalStateException Throws if the end of input is already marked.
+	 * @throws IOException           Throws if the input is not valid UTF-8.
+	 */
+	public void feed(@NotNull ByteBuffer input) throws IOException {
+		ensureOpen();
+		if (ended) throw new IllegalStateException("Input already ended!");
+		if (carry.position() > 0) {
+			// complete the incomplete sequence at the end of the last chunk
+			while (input.hasRemaining()) {
+				carry.put(input.get());
+				carry.flip();
+				decode(carry, false);
+				carry.compact();
+				if (carry.position() == 0) break;
+			}
+		}
+		decode(input, false);
+		// keep the incomplete sequence at the end of this chunk
+		carry.put(input);
+	}
+
+	/**
+	 * Feed the next chunk of input as characters, such as a text which is already decoded. Chunks of characters and
+	 * chunks of bytes can be mixed, as long as a chunk of bytes does not end in the middle of an UTF-8 sequence.
+	 *
+	 * @throws IllegalStateException Throws if the end of input is already marked, or if the last chunk of bytes ends
+	 *                               with an incomplete UTF-8 sequence.
+	 * @throws IOException           Throws if the feeder is closed.
+	 */
+	public void feed(@NotNull CharSequence input) throws IOException {
+		ensureOpen();
+		if (ended) throw new IllegalStateException("Input already ended!");
+		if (carry.position() > 0) throw new IllegalStateException("Incomplete UTF-8 sequence in the last chunk!");
+		final int length = input.length();
+		for (int start = 0; start < length; start += BUFFER_SIZE) {
+			chars.append(input, start, Math.min(start + BUFFER_SIZE, length));
+			flushChars();
+		}
+	}
+
+	/**
+	 * Mark the end of input.
+	 *
+	 * @throws IllegalStateException Throws if the end of input is already marked.
+	 * @throws IOException           Throws if the input ends with an incomplete UTF-8 sequence.
+	 */
+	public void endOfInput() throws IOException {
+		ensureOpen();
+		if (ended) throw new IllegalStateException("Input already ended!");
+		this.ended = true;
+		carry.flip();
+		decode(carry, true);
+		decoder.flush(chars);
+		flushChars();
+		reader.feedEnd();
+	}
+
+	/**
+	 * Decode the input and feed the characters to the reader.
+	 */
+	private void decode(@NotNull ByteBuffer input, boolean endOfInput) throws IOException {
+		while (true) {
+			final CoderResult result = decoder.decode(input, chars, endOfInput);
+			if (result.isError()) {
+				close();
+				result.throwException();
+			}
+			flushChars();
+			if (result.isUnderflow()) return;
+		}
+	}
+
+	private void flushChars() {
+		chars.flip();
+		reader.feed(chars.array(), 0, chars.limit());
+		chars.clear();
+	}
+
+	private void ensureOpen() throws IOException {
+		if (closed) throw new IOException("Already closed!");
+	}
+
+	//========================================
+
+	/**
+	 * Parse and return the next token, or {@link JsonTokens#NEED_MORE_INPUT} if the fed input ends in the middle of
+	 * the next token. Similar to {@link JsonReader#nextToken()}, this method returns {@link JsonTokens#ARRAY_END} or
+	 * {@link JsonTokens#OBJECT_END} repeatedly until {@link #endStructure()} is called.
+	 *
+	 * @throws JsonIOException Throws if there is any error while parsing input JSON.
+	 * @throws IOException     Throws if the feeder is closed.
+	 */
+	public @NotNull JsonToken nextToken() throws IOException {
+		try {
+			// skip over the pending ends of structures, one token at a time
+			while (reader.structureIndex() >= endIndex) {
+				reader.save();
+				if (!reader.isInterrupted()) {
+					final JsonTokenType type = reader.peek();
+					if (type == JsonTokenType.ARRAY_END || type == JsonTokenType.OBJECT_END) {
+						reader.endStructure();
+						continue;
+					}
+				}
+				// an interrupted token is resumed before anything else
+				reader.skipFedToken();
+			}
+			this.endIndex = Integer.MAX_VALUE;
+			reader.save();
+			return this.lastToken = reader.nextFedToken();
+		} catch (IOException exception) {
+			if (exception != reader.needMoreInput) throw exception;
+			reader.restore();
+			return JsonTokens.NEED_MORE_INPUT;
+		}
+	}
+
+	/**
+	 * Skip over the end of an array or an object, and any unread tokens before it. The tokens are skipped lazily by
+	 * the next calls of {@link #nextToken()}, so this method never needs more input.
+	 *
+	 * @throws IllegalStateException Throws if the feeder is not currently inside an array or an object.
+	 */
+	public void endStructure() {
+		final int index = Math.min(endIndex - 1, reader.structureIndex());
+		if (index < 0) throw new IllegalStateException("Not in a structure!");
+		this.endIndex = index;
+	}
+
+	/**
+	 * Parse the structure begun by the last token and return the corresponding {@link JsonElement}, or {@code null} if
+	 * more input is needed. In that case, the partially parsed structure is kept, and this method should be called
+	 * again after more input is fed. Similar to {@link JsonReader#parseStructure()}, the end of the structure is
+	 * skipped over automatically.
+	 *
+	 * @throws IllegalStateException Throws if the last token is not the beginning of a structure.
+	 * @throws JsonIOException       Throws if there is any error while parsing input JSON.
+	 * @throws IOException           Throws if the feeder is closed.
+	 */
+	public @Nullable JsonElement parseStructure() throws IOException {
+		final ArrayList<JsonElement> structures = this.structures;
+		if (structures.isEmpty()) {
+			if (lastToken == JsonTokens.ARRAY_BEGIN) {
+				structures.add(new JsonArray());
+			} else if (lastToken == JsonTokens.OBJECT_BEGIN) {
+				structures.add(new JsonObject());
+			} else {
+				throw new IllegalStateException("Not at the beginning of a structure!");
+			}
+		}
+		while (true) {
+			final JsonToken token = nextToken();
+			if (token == JsonTokens.NEED_MORE_INPUT) return null;
+			if (token instanceof JsonName) {
+				this.name = token.toString();
+				continue;
+			}
+			if (token == JsonTokens.ARRAY_END || token == JsonTokens.OBJECT_END) {
+				endStructure();
+				final JsonElement structure = structures.remove(structures.size() - 1);
+				if (structures.isEmpty()) {
+					this.lastToken = null;
+					return structure;
+				}
+				continue;
+			}
+			final JsonElement value = token == JsonTokens.ARRAY_BEGIN
+					? new JsonArray()
+					: token == JsonTokens.OBJECT_BEGIN
+					? new JsonObject()
+					: (JsonElement) token;
+			final JsonElement parent = structures.get(structures.size() - 1);
+			if (parent instanceof JsonArray array) {
+				array.add(value);
+			} else {
+				assert name != null;
+				((JsonObject) parent).put(name, value);
+			}
+			if (value instanceof JsonArray || value instanceof JsonObject) structures.add(value);
+		}
+	}
+
+	/**
+	 * Close the JSON feeder.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (!closed) {
+			this.closed = true;
+			reader.close();
+			structures.clear();
+		}
+	}
+}
@@ -0,0 +1,318 @@
+/*
+ * This file is part of jsonify.
+ *
+ * jsonify is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * jsonify is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with jsonify. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package io.gitlab.multicia.jsonify;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * A compiled projection of JSON documents, applied while streaming from a {@link JsonReader} to a
+ * {@link JsonOutput}. The filter is specified by paths similar to JSON Pointer (RFC 6901), such as {@code /a/b/0},
+ * where {@code ~1} and {@code ~0} escape {@code /} and {@code ~}. A path segment {@code *} matches any member of an
+ * object and any element of an array. A filter is immutable and can be shared between threads.
+ * <ul>
+ *     <li>An including filter only keeps the values matched by the paths, and the structures containing them.</li>
+ *     <li>An excluding filter keeps everything except the values matched by the paths.</li>
+ * </ul>
+ * The values which are not kept are skipped by {@link JsonReader#skipValue()} without being decoded. The names are
+ * matched without creating any {@link String}, so that the cost of filtering scales with the kept output. An including
+ * filter only writes a structure containing the matched values when something in it is kept, so a path which matches
+ * nothing produces an empty root structure.
+ */
+public final class JsonFilter {
+	private static final @NotNull Node @NotNull [] NO_NODES = new Node[0];
+	private static final @NotNull JsonNameTable EMPTY_NAMES = new JsonNameTable();
+
+	private final @NotNull Node root = new Node();
+	private final boolean include;
+
+	private JsonFilter(boolean include, @NotNull String @NotNull ... paths) {
+		this.include = include;
+		for (final String path : paths) compile(path);
+		root.seal();
+	}
+
+	/**
+	 * Create a filter which only keeps the values matched by the paths. An empty path matches the whole document.
+	 *
+	 * @throws IllegalArgumentException Throws if a path is invalid.
+	 */
+	public static @NotNull JsonFilter include(@NotNull String @NotNull ... paths) {
+		return new JsonFilter(true, paths);
+	}
+
+	/**
+	 * Create a filter which removes the values matched by the paths.
+	 *
+	 * @throws IllegalArgumentException Throws if a path is invalid or is empty.
+	 */
+	public static @NotNull JsonFilter exclude(@NotNull String @NotNull ... paths) {
+		return new JsonFilter(false, paths);
+	}
+
+	/**
+	 * Add a path to the tree of nodes.
+	 */
+	private void compile(@NotNull String path) {
+		if (path.isEmpty() ? !include : path.charAt(0) != '/') {
+			throw new IllegalArgumentException("Invalid path!");
+		}
+		Node node = root;
+		int start = 1;
+		while (start <= path.length()) {
+			int end = path.indexOf('/', start);
+			if (end < 0) end = path.length();
+			final String segment = path.substring(start, end);
+			if (segment.equals("*")) {
+				if (node.wildcard == null) node.wildcard = new Node();
+				node = node.wildcard;
+			} else {
+				node = node.children.computeIfAbsent(unescape(segment), key -> new Node());
+			}
+			start = end + 1;
+		}
+		node.terminal = true;
+	}
+
+	/**
+	 * Unescape a path segment.
+	 */
+	static @NotNull String unescape(@NotNull String segment) {
+		if (segment.indexOf('~') < 0) return segment;
+		final StringBuilder builder = new StringBuilder(segment.length());
+		for (int index = 0; index < segment.length(); index++) {
+			final char c = segment.charAt(index);
+			if (c != '~') {
+				builder.append(c);
+			} else if (index + 1 < segment.length() && segment.charAt(index + 1) == '0') {
+				builder.append('~');
+				index += 1;
+			} else if (index + 1 < segment.length() && segment.charAt(index + 1) == '1') {
+				builder.append('/');
+				index += 1;
+			} else {
+				throw new IllegalArgumentException("Invalid path!");
+			}
+		}
+		return builder.toString();
+	}
+
+	//========================================
+
+	/**
+	 * Filter a JSON document from the input reader to the output writer, then close both of them. Note that the
+	 * output writer should be buffered.
+	 */
+	public void copy(@NotNull Reader inputReader, @NotNull Writer outputWriter) throws IOException {
+		final JsonReader reader = JsonReader.acquire(inputReader, JsonLimits.NONE);
+		final JsonWriter writer = JsonWriter.acquire(outputWriter);
+		try (inputReader; outputWriter) {
+			copy(reader, writer);
+			// checking for EOF
+			reader.peek();
+		} finally {
+			JsonWriter.release(writer);
+			JsonReader.release(reader);
+		}
+	}
+
+	/**
+	 * Filter the next value from the reader to the output. A value which is not a structure is always kept. Throws
+	 * {@link JsonValueException} if the next token is not the beginning of a value.
+	 */
+	public void copy(@NotNull JsonReader reader, @NotNull JsonOutput output) throws IOException {
+		final JsonTokenType rootType = reader.peek();
+		if (root.terminal || rootType != JsonTokenType.ARRAY_BEGIN && rootType != JsonTokenType.OBJECT_BEGIN) {
+			JsonPipe.copy(reader, output);
+			return;
+		}
+		// the nesting is tracked with an explicit stack instead of recursion
+		final ArrayDeque<Frame> stack = new ArrayDeque<>();
+		final StringBuilder index = new StringBuilder();
+		stack.push(begin(reader, new Node[]{root}, null));
+		open(stack, output);
+		while (!stack.isEmpty()) {
+			final Frame frame = stack.element();
+			final JsonTokenType type = reader.peek();
+			if (type == JsonTokenType.ARRAY_END || type == JsonTokenType.OBJECT_END) {
+				reader.endStructure();
+				if (frame.opened) output.end();
+				stack.pop();
+				continue;
+			}
+			// the name is a view which is valid until the next name or string is read
+			final CharSequence name;
+			if (type == JsonTokenType.NAME) {
+				name = reader.nextNameText();
+			} else if (frame.indexed) {
+				index.setLength(0);
+				name = index.append(frame.index);
+			} else {
+				name = null;
+			}
+			frame.index += 1;
+			final int count = frame.match(name);
+			final JsonTokenType valueType = reader.peek();
+			final boolean keep;
+			if (isTerminal(frame.matched, count)) {
+				keep = include;
+			} else if (count == 0 || valueType != JsonTokenType.ARRAY_BEGIN
+					&& valueType != JsonTokenType.OBJECT_BEGIN) {
+				keep = !include;
+			} else {
+				// partially matched structure, which is only written when something in it is kept if including
+				stack.push(begin(reader, Arrays.copyOf(frame.matched, count),
+						type == JsonTokenType.NAME ? name.toString() : null));
+				if (!include) open(stack, output);
+				continue;
+			}
+			if (keep) {
+				open(stack, output);
+				if (type == JsonTokenType.NAME) output.name(name.toString());
+				JsonPipe.copy(reader, output);
+			} else {
+				reader.skipValue();
+			}
+		}
+	}
+
+	/**
+	 * Begin the next structure on the reader. The structure is written to the output later by
+	 * {@link #open(ArrayDeque, JsonOutput)}.
+	 */
+	private static @NotNull Frame begin(@NotNull JsonReader reader, @NotNull Node @NotNull [] nodes,
+			@Nullable String name) throws IOException {
+		if (reader.peek() == JsonTokenType.ARRAY_BEGIN) {
+			reader.beginArray();
+			boolean indexed = false;
+			for (final Node node : nodes) indexed |= node.named.length > 0;
+			return new Frame(nodes, name, true, indexed);
+		} else {
+			reader.beginObject();
+			return new Frame(nodes, name, false, false);
+		}
+	}
+
+	/**
+	 * Write the beginnings of the structures in the stack which are not written yet, from the outermost one.
+	 */
+	private static void open(@NotNull ArrayDeque<Frame> stack, @NotNull JsonOutput output) throws IOException {
+		if (stack.element().opened) return;
+		final Iterator<Frame> iterator = stack.descendingIterator();
+		while (iterator.hasNext()) {
+			final Frame frame = iterator.next();
+			if (frame.opened) continue;
+			if (frame.name != null) output.name(frame.name);
+			if (frame.array) {
+				output.beginArray();
+			} else {
+				output.beginObject();
+			}
+			frame.opened = true;
+		}
+	}
+
+	private static boolean isTerminal(@NotNull Node @NotNull [] nodes, int count) {
+		for (int index = 0; index < count; index++) {
+			if (nodes[index].terminal) return true;
+		}
+		return false;
+	}
+
+	/**
+	 * A node in the tree of paths.
+	 */
+	private static final class Node {
+		private final @NotNull Map<@NotNull String, @NotNull Node> children = new HashMap<>();
+		private @Nullable Node wildcard;
+		private boolean terminal;
+
+		/**
+		 * The names of the children, and the children by the ordinals of their names, which are set by
+		 * {@link #seal()} after all paths are compiled.
+		 */
+		private @NotNull JsonNameTable names = EMPTY_NAMES;
+		private @NotNull Node @NotNull [] named = NO_NODES;
+
+		/**
+		 * Build the name tables of this node and its descendants.
+		 */
+		private void seal() {
+			final String[] keys = children.keySet().toArray(new String[0]);
+			this.names = new JsonNameTable(keys);
+			this.named = new Node[keys.length];
+			for (int ordinal = 0; ordinal < keys.length; ordinal++) {
+				final Node child = children.get(keys[ordinal]);
+				named[ordinal] = child;
+				child.seal();
+			}
+			if (wildcard != null) wildcard.seal();
+		}
+	}
+
+	/**
+	 * A structure being filtered.
+	 */
+	private static final class Frame {
+		private final @NotNull Node @NotNull [] nodes;
+		private final @Nullable String name;
+		private final boolean array;
+		private final boolean indexed;
+		private int index;
+		private boolean opened;
+
+		/**
+		 * The nodes matched by the current member or element, which is reused for all of them. Each node matches at
+		 * most a named child and a wildcard.
+		 */
+		private final @NotNull Node @NotNull [] matched;
+
+		private Frame(@NotNull Node @NotNull [] nodes, @Nullable String name, boolean array, boolean indexed) {
+			this.nodes = nodes;
+			this.name = name;
+			this.array = array;
+			this.indexed = indexed;
+			this.matched = new Node[nodes.length * 2];
+		}
+
+		/**
+		 * Match a member name or an array index against the nodes, and return the number of matched nodes.
+		 */
+		private int match(@Nullable CharSequence name) {
+			int count = 0;
+			for (final Node node : nodes) {
+				if (name != null && node.named.length > 0) {
+					final int ordinal = node.names.indexOf(name);
+					if (ordinal >= 0) matched[count++] = node.named[ordinal];
+				}
+				if (node.wildcard != null) matched[count++] = node.wildcard;
+			}
+			return count;
+		}
+	}
+}
@@ -0,0 +1,90 @@
+/*
+ * This file is part of jsonify.
+ *
+ * jsonify is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * jsonify is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with jsonify. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package io.gitlab.multicia.jsonify;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+
+/**
+ * A push-style handler, which receives the content of a JSON document from {@link JsonReader#parse(JsonHandler)}.
+ * The {@link CharSequence} arguments are views of the internal buffer of the reader, which are only valid during the
+ * call: a handler should copy them, for example by calling {@link CharSequence#toString()}, if it needs to keep them.
+ * Any {@link IOException} thrown by the handler stops the parsing and is thrown to the caller.
+ */
+public interface JsonHandler {
+	/**
+	 * Called at the beginning of an object.
+	 */
+	void startObject() throws IOException;
+
+	/**
+	 * Called at the end of an object.
+	 */
+	void endObject() throws IOException;
+
+	/**
+	 * Called at the beginning of an array.
+	 */
+	void startArray() throws IOException;
+
+	/**
+	 * Called at the end of an array.
+	 */
+	void endArray() throws IOException;
+
+	/**
+	 * Called for the name of each member of an object, before its value.
+	 */
+	void key(@NotNull CharSequence name) throws IOException;
+
+	/**
+	 * Called for a string value.
+	 */
+	void stringValue(@NotNull CharSequence value) throws IOException;
+
+	/**
+	 * Called for an integer number value that fits in a {@code long}.
+	 */
+	void longValue(long value) throws IOException;
+
+	/**
+	 * Called for a decimal number value, with the nearest {@code double} value.
+	 */
+	void doubleValue(double value) throws IOException;
+
+	/**
+	 * Called for an integer number value that does not fit in a {@code long}, or a decimal number value that is out of
+	 * range of a {@code double}, with the text of the number. The default implementation calls
+	 * {@link #doubleValue(double)} with the nearest {@code double} value, override it to keep the exact value.
+	 */
+	default void numberValue(@NotNull CharSequence text) throws IOException {
+		doubleValue(Double.parseDouble(text.toString()));
+	}
+
+	/**
+	 * Called for a boolean value.
+	 */
+	void booleanValue(boolean value) throws IOException;
+
+	/**
+	 * Called for a null value.
+	 */
+	void nullValue() throws IOException;
+}
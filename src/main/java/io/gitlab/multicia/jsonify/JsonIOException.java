@@ -23,13 +23,52 @@ import java.io.IOException;
 
 /**
  * Signals that an exception occurred while reading/writing a JSON document.
+ * <p>
+ * Filling the stack trace is the most expensive part of creating an exception. It can be disabled for all JSON
+ * exceptions by setting the system property {@code io.gitlab.multicia.jsonify.stackTrace} to {@code false}, or for a
+ * single exception by using the constructor with the {@code stackTrace} parameter.
  */
 public final class JsonIOException extends IOException {
+    /**
+     * Whether the stack trace of JSON exceptions is filled by default.
+     */
+    static final boolean STACK_TRACE =
+            !"false".equalsIgnoreCase(System.getProperty("io.gitlab.multicia.jsonify.stackTrace"));
+
+    private final @NotNull JsonError error;
+
     public JsonIOException(@NotNull String message) {
-        super(message);
+        this(JsonError.UNKNOWN, message, STACK_TRACE);
     }
 
     public JsonIOException(@NotNull String message, @NotNull Throwable cause) {
         super(message, cause);
+        this.error = JsonError.UNKNOWN;
+        if (STACK_TRACE) super.fillInStackTrace();
+    }
+
+    public JsonIOException(@NotNull JsonError error, @NotNull String message) {
+        this(error, message, STACK_TRACE);
+    }
+
+    public JsonIOException(@NotNull JsonError error, @NotNull String message, boolean stackTrace) {
+        super(message);
+        this.error = error;
+        if (stackTrace) super.fillInStackTrace();
+    }
+
+    /**
+     * Return the error code of this exception.
+     */
+    public @NotNull JsonError getError() {
+        return error;
+    }
+
+    /**
+     * The stack trace is only filled by the constructors, if it is enabled.
+     */
+    @Override
+    public @NotNull Throwable fillInStackTrace() {
+        return this;
     }
 }
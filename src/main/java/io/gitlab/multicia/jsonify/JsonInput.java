@@ -21,6 +21,9 @@ import org.jetbrains.annotations.NotNull;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Map;
 
 public interface JsonInput extends Closeable {
 	/**
@@ -60,4 +63,53 @@ public interface JsonInput extends Closeable {
 	 * @throws IOException Throws if there is any error while reading input JSON.
 	 */
 	@NotNull JsonElement parseStructure() throws IOException;
+
+	/**
+	 * Parse a structure based on the previous token similar to {@link #parseStructure()}, but build the result using
+	 * the specified {@link JsonTreeFactory}. The default implementation converts the result of
+	 * {@link #parseStructure()}, implementations should override it to build the result in a single pass.
+	 *
+	 * @throws IllegalStateException Throws if the previous token is not the beginning of a structure..
+	 * @throws JsonIOException Throws if there is any error while parsing input JSON.
+	 * @throws IOException Throws if there is any error while reading input JSON.
+	 */
+	default <V, A, O> V parseStructure(@NotNull JsonTreeFactory<V, A, O> factory) throws IOException {
+		return convert(parseStructure(), factory);
+	}
+
+	/**
+	 * Convert a {@link JsonElement} using the specified {@link JsonTreeFactory}.
+	 */
+	private static <V, A, O> V convert(@NotNull JsonElement element, @NotNull JsonTreeFactory<V, A, O> factory) {
+		if (element instanceof JsonArray array) {
+			final A result = factory.beginArray();
+			for (final JsonElement value : array) {
+				factory.addValue(result, convert(value, factory));
+			}
+			return factory.endArray(result);
+		} else if (element instanceof JsonObject object) {
+			final O result = factory.beginObject();
+			for (final Map.Entry<String, JsonElement> entry : object.entrySet()) {
+				factory.putValue(result, entry.getKey(), convert(entry.getValue(), factory));
+			}
+			return factory.endObject(result);
+		} else if (element instanceof JsonString) {
+			return factory.valueString(element.toString());
+		} else if (element instanceof JsonNumber number) {
+			final Number value = number.getValue();
+			if (value instanceof Long) return factory.valueNumber((long) value);
+			if (value instanceof BigInteger) return factory.valueNumber((BigInteger) value);
+			if (value instanceof Double) return factory.valueNumber(BigDecimal.valueOf((double) value));
+			if (value instanceof BigDecimal) return factory.valueNumber((BigDecimal) value);
+			throw new AssertionError();
+		} else if (element == JsonKeyword.TRUE) {
+			return factory.valueBoolean(true);
+		} else if (element == JsonKeyword.FALSE) {
+			return factory.valueBoolean(false);
+		} else if (element == JsonKeyword.NULL) {
+			return factory.valueNull();
+		} else {
+			throw new AssertionError();
+		}
+	}
 }
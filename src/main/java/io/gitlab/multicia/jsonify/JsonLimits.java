@@ -0,0 +1,183 @@
+/*
+ * This file is part of jsonify.
+ *
+ * jsonify is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * jsonify is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with jsonify. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.gitlab.multicia.jsonify;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+
+/**
+ * Resource limits of a {@link JsonReader}, which are enforced while scanning the input, so that a hostile input cannot
+ * exhaust the memory or the CPU. A limit which is exceeded is reported as a {@link JsonIOException} with
+ * {@link JsonError#LIMIT_EXCEEDED}.
+ * <p>
+ * The reader also supports cooperative cancellation: every {@link #getCheckInterval()} tokens, it checks whether the
+ * timeout is exceeded or the current thread is interrupted, and reports it as a {@link JsonIOException} with
+ * {@link JsonError#CANCELLED}. The timeout is counted from the creation or the last reset of the reader.
+ * <p>
+ * Limits are immutable, the {@code withXxx} methods return a new instance.
+ */
+public final class JsonLimits {
+	/**
+	 * No limits and no cancellation, which is the default of a reader.
+	 */
+	public static final @NotNull JsonLimits NONE = new JsonLimits(Integer.MAX_VALUE, Integer.MAX_VALUE,
+			Integer.MAX_VALUE, Long.MAX_VALUE, Integer.MAX_VALUE, 0, false, 1024);
+
+	private final int maxDepth;
+	private final int maxStringLength;
+	private final int maxNumberLength;
+	private final long maxTotalChars;
+	private final int maxContainerSize;
+	private final long timeoutNanos;
+	private final boolean interruptible;
+	private final int checkInterval;
+
+	private JsonLimits(int maxDepth, int maxStringLength, int maxNumberLength, long maxTotalChars,
+			int maxContainerSize, long timeoutNanos, boolean interruptible, int checkInterval) {
+		this.maxDepth = maxDepth;
+		this.maxStringLength = maxStringLength;
+		this.maxNumberLength = maxNumberLength;
+		this.maxTotalChars = maxTotalChars;
+		this.maxContainerSize = maxContainerSize;
+		this.timeoutNanos = timeoutNanos;
+		this.interruptible = interruptible;
+		this.checkInterval = checkInterval;
+	}
+
+	//========================================
+
+	/**
+	 * Return the maximum number of nested arrays and objects.
+	 */
+	public int getMaxDepth() {
+		return maxDepth;
+	}
+
+	/**
+	 * Return the maximum number of characters of a decoded string or name.
+	 */
+	public int getMaxStringLength() {
+		return maxStringLength;
+	}
+
+	/**
+	 * Return the maximum number of characters of a number, including the sign, the fraction and the exponent.
+	 */
+	public int getMaxNumberLength() {
+		return maxNumberLength;
+	}
+
+	/**
+	 * Return the maximum number of characters read from the input.
+	 */
+	public long getMaxTotalChars() {
+		return maxTotalChars;
+	}
+
+	/**
+	 * Return the maximum number of elements of an array, or members of an object.
+	 */
+	public int getMaxContainerSize() {
+		return maxContainerSize;
+	}
+
+	/**
+	 * Return the timeout, or {@link Duration#ZERO} if there is no timeout.
+	 */
+	public @NotNull Duration getTimeout() {
+		return Duration.ofNanos(timeoutNanos);
+	}
+
+	/**
+	 * Return whether reading is cancelled when the current thread is interrupted.
+	 */
+	public boolean isInterruptible() {
+		return interruptible;
+	}
+
+	/**
+	 * Return the number of tokens between two checks of the timeout and the interruption.
+	 */
+	public int getCheckInterval() {
+		return checkInterval;
+	}
+
+	/**
+	 * Return whether the timeout or the interruption is checked.
+	 */
+	boolean isCancellable() {
+		return timeoutNanos > 0 || interruptible;
+	}
+
+	long getTimeoutNanos() {
+		return timeoutNanos;
+	}
+
+	//========================================
+
+	private static int checkLimit(long value) {
+		if (value <= 0) throw new IllegalArgumentException("Invalid limit!");
+		return (int) Math.min(value, Integer.MAX_VALUE);
+	}
+
+	public @NotNull JsonLimits withMaxDepth(int maxDepth) {
+		return new JsonLimits(checkLimit(maxDepth), maxStringLength, maxNumberLength, maxTotalChars,
+				maxContainerSize, timeoutNanos, interruptible, checkInterval);
+	}
+
+	public @NotNull JsonLimits withMaxStringLength(int maxStringLength) {
+		return new JsonLimits(maxDepth, checkLimit(maxStringLength), maxNumberLength, maxTotalChars,
+				maxContainerSize, timeoutNanos, interruptible, checkInterval);
+	}
+
+	public @NotNull JsonLimits withMaxNumberLength(int maxNumberLength) {
+		return new JsonLimits(maxDepth, maxStringLength, checkLimit(maxNumberLength), maxTotalChars,
+				maxContainerSize, timeoutNanos, interruptible, checkInterval);
+	}
+
+	public @NotNull JsonLimits withMaxTotalChars(long maxTotalChars) {
+		checkLimit(maxTotalChars);
+		return new JsonLimits(maxDepth, maxStringLength, maxNumberLength, maxTotalChars,
+				maxContainerSize, timeoutNanos, interruptible, checkInterval);
+	}
+
+	public @NotNull JsonLimits withMaxContainerSize(int maxContainerSize) {
+		return new JsonLimits(maxDepth, maxStringLength, maxNumberLength, maxTotalChars,
+				checkLimit(maxContainerSize), timeoutNanos, interruptible, checkInterval);
+	}
+
+	/**
+	 * Return limits with the specified timeout. A zero timeout means there is no timeout.
+	 */
+	public @NotNull JsonLimits withTimeout(@NotNull Duration timeout) {
+		if (timeout.isNegative()) throw new IllegalArgumentException("Invalid timeout!");
+		return new JsonLimits(maxDepth, maxStringLength, maxNumberLength, maxTotalChars,
+				maxContainerSize, timeout.toNanos(), interruptible, checkInterval);
+	}
+
+	public @NotNull JsonLimits withInterruptible(boolean interruptible) {
+		return new JsonLimits(maxDepth, maxStringLength, maxNumberLength, maxTotalChars,
+				maxContainerSize, timeoutNanos, interruptible, checkInterval);
+	}
+
+	public @NotNull JsonLimits withCheckInterval(int checkInterval) {
+		return new JsonLimits(maxDepth, maxStringLength, maxNumberLength, maxTotalChars,
+				maxContainerSize, timeoutNanos, interruptible, checkLimit(checkInterval));
+	}
+}
@@ -0,0 +1,160 @@
+/*
+ * This file is part of jsonify.
+ *
+ * jsonify is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * jsonify is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with jsonify. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package io.gitlab.multicia.jsonify;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A precompiled table of names, used by {@link JsonReader#nextName(JsonNameTable)} to match the next name directly
+ * from the input without creating a {@link String}. The table is a trie over the UTF-16 characters of the names, and
+ * is immutable and thread-safe once created.
+ */
+public final class JsonNameTable {
+	/**
+	 * The names, indexed by their ordinal.
+	 */
+	private final @NotNull String @NotNull [] names;
+
+	/**
+	 * The transitions of node {@code i} are in the range {@code [starts[i], starts[i + 1])} of {@link #keys} and
+	 * {@link #children}. The keys of each node are sorted.
+	 */
+	private final int @NotNull [] starts;
+
+	/**
+	 * The characters of the transitions.
+	 */
+	private final char @NotNull [] keys;
+
+	/**
+	 * The target nodes of the transitions.
+	 */
+	private final int @NotNull [] children;
+
+	/**
+	 * The ordinal of the name ending at each node, or -1 if no name ends there.
+	 */
+	private final int @NotNull [] ordinals;
+
+	/**
+	 * Creates a name table. The ordinal of each name is its index in the arguments. Throws
+	 * {@link IllegalArgumentException} if there are duplicated names.
+	 */
+	public JsonNameTable(@NotNull String @NotNull ... names) {
+		this.names = names.clone();
+		// build a temporary trie, node 0 is the root
+		final List<TreeMap<Character, Integer>> nodes = new ArrayList<>();
+		final List<Integer> nodeOrdinals = new ArrayList<>();
+		nodes.add(new TreeMap<>());
+		nodeOrdinals.add(-1);
+		int transitionCount = 0;
+		for (int ordinal = 0; ordinal < names.length; ordinal++) {
+			final String name = names[ordinal];
+			int node = 0;
+			for (int index = 0; index < name.length(); index++) {
+				final TreeMap<Character, Integer> transitions = nodes.get(node);
+				final Integer child = transitions.get(name.charAt(index));
+				if (child != null) {
+					node = child;
+				} else {
+					transitions.put(name.charAt(index), nodes.size());
+					transitionCount += 1;
+					node = nodes.size();
+					nodes.add(new TreeMap<>());
+					nodeOrdinals.add(-1);
+				}
+			}
+			if (nodeOrdinals.get(node) >= 0) throw new IllegalArgumentException("Duplicated name!");
+			nodeOrdinals.set(node, ordinal);
+		}
+		// flatten the trie
+		final int nodeCount = nodes.size();
+		this.starts = new int[nodeCount + 1];
+		this.keys = new char[transitionCount];
+		this.children = new int[transitionCount];
+		this.ordinals = new int[nodeCount];
+		int transition = 0;
+		for (int node = 0; node < nodeCount; node++) {
+			starts[node] = transition;
+			ordinals[node] = nodeOrdinals.get(node);
+			for (final Map.Entry<Character, Integer> entry : nodes.get(node).entrySet()) {
+				keys[transition] = entry.getKey();
+				children[transition] = entry.getValue();
+				transition += 1;
+			}
+		}
+		starts[nodeCount] = transition;
+	}
+
+	/**
+	 * Return the number of names in the table.
+	 */
+	public int size() {
+		return names.length;
+	}
+
+	/**
+	 * Return the name with the specified ordinal.
+	 */
+	public @NotNull String getName(int ordinal) {
+		return names[ordinal];
+	}
+
+	/**
+	 * Return the ordinal of the specified name, or -1 if the name is not in the table.
+	 */
+	public int indexOf(@NotNull CharSequence name) {
+		int node = 0;
+		for (int index = 0; index < name.length() && node >= 0; index++) {
+			node = next(node, name.charAt(index));
+		}
+		return ordinal(node);
+	}
+
+	/**
+	 * The root node of the trie.
+	 */
+	static final int ROOT = 0;
+
+	/**
+	 * Return the node after the specified node following a character, or -1 if there is no such node. If the node is
+	 * already -1, the result is also -1.
+	 */
+	int next(int node, char character) {
+		if (node < 0) return -1;
+		final int start = starts[node];
+		final int end = starts[node + 1];
+		if (start == end) return -1;
+		final int index = Arrays.binarySearch(keys, start, end, character);
+		return index >= 0 ? children[index] : -1;
+	}
+
+	/**
+	 * Return the ordinal of the name ending at the specified node, or -1 if there is none.
+	 */
+	int ordinal(int node) {
+		return node >= 0 ? ordinals[node] : -1;
+	}
+}
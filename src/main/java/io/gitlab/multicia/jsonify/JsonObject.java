@@ -122,4 +122,15 @@ public final class JsonObject extends LinkedHashMap<@NotNull String, @NotNull Js
 	public @Nullable BigDecimal getAsBigDecimal(@NotNull String key) {
 		return Jsonify.toBigDecimal(get(key));
 	}
+
+
+	@Override
+	public boolean equals(@Nullable Object object) {
+		return JsonStructures.equals(this, object);
+	}
+
+	@Override
+	public int hashCode() {
+		return JsonStructures.hashCode(this);
+	}
 }
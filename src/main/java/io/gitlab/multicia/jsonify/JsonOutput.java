@@ -18,11 +18,15 @@
 package io.gitlab.multicia.jsonify;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.Closeable;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Map;
 
 public interface JsonOutput extends Closeable {
 	/**
@@ -89,4 +93,15 @@ public interface JsonOutput extends Closeable {
 	 * Write a {@link JsonElement} value. Throws {@link JsonIOException} if this is unexpected.
 	 */
 	void value(@NotNull JsonElement element) throws IOException;
+
+	/**
+	 * Write a plain Java value directly, without converting it to a {@link JsonElement}. The supported values are
+	 * {@code null}, {@link JsonElement}, {@link Map} with {@link CharSequence} keys, {@link Collection}, arrays,
+	 * {@link CharSequence}, {@link Character}, {@link Boolean} and the standard {@link Number} types. Recursive
+	 * structures are detected as with {@link #value(JsonElement)}. Throws {@link JsonIOException} if this is
+	 * unexpected, or if the type of a value is not supported.
+	 */
+	default void valueAny(@Nullable Object value) throws IOException {
+		JsonWriter.valueAny(this, value, new IdentityHashMap<>());
+	}
 }
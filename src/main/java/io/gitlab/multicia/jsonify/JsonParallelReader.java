@@ -0,0 +1,495 @@
+/*
+ * This file is part of jsonify.
+ *
+ * jsonify is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * jsonify is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with jsonify. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.gitlab.multicia.jsonify;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+
+/**
+ * Parallel JSON reader for UTF-8 encoded input.
+ * <p>
+ * For newline-delimited JSON, the input is split at newline boundaries into chunks, each chunk is parsed by a task in
+ * the executor, and the parsed documents are delivered to the consumer in the calling thread, either in input order or
+ * in completion order. The number of chunks being parsed or waiting for delivery is bounded, so a slow consumer slows
+ * down the parsing instead of accumulating parsed documents.
+ * <p>
+ * For a single document whose root is an array, a quote-aware and depth-aware pre-scan finds the commas between the
+ * elements of the root array to split it into segments of about the chunk size. Each segment is parsed by a task in
+ * the executor into a slice of the array, and the slices are joined in order. If the root is not an array, the
+ * document is parsed sequentially.
+ * <p>
+ * Note that the reading methods block the calling thread until all documents are delivered, so they should not be
+ * called from a task running in the same executor.
+ */
+public final class JsonParallelReader {
+	/**
+	 * The default size of a chunk.
+	 */
+	private static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+
+	/**
+	 * The size of the window used to find the next newline in a file.
+	 */
+	private static final int WINDOW_SIZE = 8192;
+
+	private final @NotNull Executor executor;
+	private final int chunkSize;
+	private final int maxPendingChunks;
+	private final boolean ordered;
+
+	/**
+	 * Creates a parallel JSON reader using the common {@link ForkJoinPool}, which delivers documents in input order.
+	 */
+	public JsonParallelReader() {
+		this(ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE, 2 * ForkJoinPool.getCommonPoolParallelism(), true);
+	}
+
+	/**
+	 * Creates a parallel JSON reader.
+	 *
+	 * @param executor         The executor which runs the parsing tasks.
+	 * @param chunkSize        The approximate size of a chunk in bytes. A chunk of newline-delimited JSON always ends at
+	 *                         a newline, and a segment of a root array always ends at a comma.
+	 * @param maxPendingChunks The maximum number of chunks being parsed or waiting for delivery.
+	 * @param ordered          Whether the documents are delivered in input order, or in completion order.
+	 */
+	public JsonParallelReader(@NotNull Executor executor, int chunkSize, int maxPendingChunks, boolean ordered) {
+		if (chunkSize <= 0) throw new IllegalArgumentException("Invalid chunk size!");
+		if (maxPendingChunks <= 0) throw new IllegalArgumentException("Invalid maximum pending chunks!");
+		this.executor = executor;
+		this.chunkSize = chunkSize;
+		this.maxPendingChunks = maxPendingChunks;
+		this.ordered = ordered;
+	}
+
+	//========================================
+
+	/**
+	 * Read all documents in a newline-delimited JSON file and deliver them to the consumer.
+	 */
+	public void readDocuments(@NotNull Path path, @NotNull Consumer<? super @NotNull JsonElement> consumer)
+			throws IOException {
+		try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			final long size = channel.size();
+			readDocuments(size, new Source() {
+				private final @NotNull ByteBuffer window = ByteBuffer.allocate(WINDOW_SIZE);
+
+				@Override
+				public long lineEnd(long offset) throws IOException {
+					while (offset < size) {
+						window.clear();
+						final int count = channel.read(window, offset);
+						if (count < 0) break;
+						for (int index = 0; index < count; index++) {
+							if (window.get(index) == '\n') return offset + index + 1;
+						}
+						offset += count;
+					}
+					return size;
+				}
+
+				@Override
+				public @NotNull ByteBuffer region(long start, long end) throws IOException {
+					return channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+				}
+			}, consumer);
+		}
+	}
+
+	/**
+	 * Read all documents in a newline-delimited JSON buffer, such as a mapped region of a file, and deliver them to
+	 * the consumer. The content between the position and the limit of the buffer is read, the buffer itself is not
+	 * modified.
+	 */
+	public void readDocuments(@NotNull ByteBuffer buffer, @NotNull Consumer<? super @NotNull JsonElement> consumer)
+			throws IOException {
+		final ByteBuffer content = buffer.slice();
+		final int size = content.limit();
+		readDocuments(size, new Source() {
+			@Override
+			public long lineEnd(long offset) {
+				for (int index = (int) offset; index < size; index++) {
+					if (content.get(index) == '\n') return index + 1;
+				}
+				return size;
+			}
+
+			@Override
+			public @NotNull ByteBuffer region(long start, long end) {
+				return content.slice((int) start, (int) (end - start));
+			}
+		}, consumer);
+	}
+
+	/**
+	 * Read a JSON file. If the root of the document is an array, the elements of the array are parsed in parallel.
+	 */
+	public @NotNull JsonElement read(@NotNull Path path) throws IOException {
+		try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			final long size = channel.size();
+			final ArraySplitter splitter = new ArraySplitter(chunkSize);
+			final ByteBuffer window = ByteBuffer.allocate(SCAN_WINDOW_SIZE);
+			long offset = 0;
+			while (offset < size && !splitter.isDone()) {
+				window.clear();
+				final int count = channel.read(window, offset);
+				if (count < 0) break;
+				window.flip();
+				splitter.scan(window, offset);
+				offset += count;
+			}
+			if (!splitter.isArray()) {
+				// not an array, fallback to sequential parsing
+				return parseDocument(Channels.newInputStream(channel.position(0)));
+			}
+			splitter.checkEnd();
+			final long[] bounds = splitter.getBounds();
+			final List<ByteBuffer> segments = new ArrayList<>();
+			for (int index = 0; index < bounds.length; index += 2) {
+				final long start = bounds[index];
+				segments.add(channel.map(FileChannel.MapMode.READ_ONLY, start, bounds[index + 1] - start));
+			}
+			return parseSegments(segments);
+		}
+	}
+
+	/**
+	 * Read a JSON buffer, such as a mapped region of a file. If the root of the document is an array, the elements of
+	 * the array are parsed in parallel. The content between the position and the limit of the buffer is read, the
+	 * buffer itself is not modified.
+	 */
+	public @NotNull JsonElement read(@NotNull ByteBuffer buffer) throws IOException {
+		final ByteBuffer content = buffer.slice();
+		final ArraySplitter splitter = new ArraySplitter(chunkSize);
+		splitter.scan(content, 0);
+		if (!splitter.isArray()) {
+			// not an array, fallback to sequential parsing
+			return parseDocument(new JsonByteBufferInputStream(content));
+		}
+		splitter.checkEnd();
+		final long[] bounds = splitter.getBounds();
+		final List<ByteBuffer> segments = new ArrayList<>();
+		for (int index = 0; index < bounds.length; index += 2) {
+			segments.add(content.slice((int) bounds[index], (int) (bounds[index + 1] - bounds[index])));
+		}
+		return parseSegments(segments);
+	}
+
+	/**
+	 * Parse the segments of the root array in parallel and join the slices.
+	 */
+	private @NotNull JsonElement parseSegments(@NotNull List<ByteBuffer> segments) throws IOException {
+		final List<FutureTask<JsonArray>> tasks = new ArrayList<>(segments.size());
+		try {
+			for (final ByteBuffer segment : segments) {
+				final FutureTask<JsonArray> task = new FutureTask<>(() -> parseSegment(segment));
+				tasks.add(task);
+				executor.execute(task);
+			}
+			final JsonArray array = new JsonArray();
+			for (final FutureTask<JsonArray> task : tasks) {
+				final JsonArray slice = task.get();
+				// a segment between two commas cannot be empty
+				if (slice.isEmpty() && tasks.size() > 1) {
+					throw new JsonIOException(JsonError.UNEXPECTED_CHARACTER, "Unexpected character when parsing input JSON!");
+				}
+				array.addAll(slice);
+			}
+			return array;
+		} catch (InterruptedException exception) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for parsing tasks!");
+		} catch (ExecutionException exception) {
+			throw unwrap(exception);
+		} finally {
+			for (final FutureTask<JsonArray> task : tasks) task.cancel(true);
+		}
+	}
+
+	/**
+	 * The size of the window used to pre-scan a file.
+	 */
+	private static final int SCAN_WINDOW_SIZE = 1 << 16;
+
+	/**
+	 * The pre-scanner that splits the root array into segments. It only tracks strings and nesting depth, the segments
+	 * are fully checked when they are parsed.
+	 */
+	private static final class ArraySplitter {
+		private final int segmentSize;
+		private final @NotNull List<Long> bounds = new ArrayList<>();
+		private boolean started;
+		private boolean array;
+		private boolean done;
+		private boolean inString;
+		private boolean escape;
+		private int depth;
+		private long segmentStart;
+
+		ArraySplitter(int segmentSize) {
+			this.segmentSize = segmentSize;
+		}
+
+		/**
+		 * Scan the remaining bytes of a window starting at the specified offset of the input.
+		 */
+		void scan(@NotNull ByteBuffer window, long offset) throws IOException {
+			final int start = window.position();
+			final int end = window.limit();
+			for (int index = start; index < end; index++) {
+				final byte c = window.get(index);
+				if (done) {
+					// only whitespaces are allowed after the root array
+					if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+						throw new JsonIOException(JsonError.UNEXPECTED_CHARACTER,
+								"Unexpected character at the end of the document!");
+					}
+				} else if (!started) {
+					if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+						this.started = true;
+						if (c != '[') {
+							this.done = true;
+							return;
+						}
+						this.array = true;
+						this.depth = 1;
+						this.segmentStart = offset + index - start + 1;
+					}
+				} else if (inString) {
+					if (escape) {
+						this.escape = false;
+					} else if (c == '\\') {
+						this.escape = true;
+					} else if (c == '"') {
+						this.inString = false;
+					}
+				} else if (c == '"') {
+					this.inString = true;
+				} else if (c == '[' || c == '{') {
+					this.depth += 1;
+				} else if (c == ']' || c == '}') {
+					this.depth -= 1;
+					if (depth == 0) {
+						// the segments are parsed in an array of their own, so check the root closer here
+						if (c != ']') {
+							throw new JsonIOException(JsonError.UNEXPECTED_CHARACTER,
+									"Unexpected object closing character!");
+						}
+						bounds.add(segmentStart);
+						bounds.add(offset + index - start);
+						this.done = true;
+					}
+				} else if (c == ',' && depth == 1 && offset + index - start - segmentStart >= segmentSize) {
+					bounds.add(segmentStart);
+					bounds.add(offset + index - start);
+					this.segmentStart = offset + index - start + 1;
+				}
+			}
+		}
+
+		/**
+		 * Return whether the scanning is done, which means the root is not an array, or the root array is closed.
+		 */
+		boolean isDone() {
+			return done && !array;
+		}
+
+		/**
+		 * Return whether the root is an array.
+		 */
+		boolean isArray() {
+			return array;
+		}
+
+		/**
+		 * Check that the root array is closed at the end of input.
+		 */
+		void checkEnd() throws IOException {
+			if (!done) throw new JsonIOException(JsonError.UNEXPECTED_END, "Unexpected end of the document!");
+		}
+
+		/**
+		 * Return the bounds of the segments, the start and the end of each segment are in consecutive positions.
+		 */
+		long @NotNull [] getBounds() {
+			final long[] result = new long[bounds.size()];
+			for (int index = 0; index < result.length; index++) result[index] = bounds.get(index);
+			return result;
+		}
+	}
+
+	//========================================
+
+	/**
+	 * The source of the input.
+	 */
+	private interface Source {
+		/**
+		 * Return the position right after the first newline at or after the offset, or the size of the input if there
+		 * is no such newline.
+		 */
+		long lineEnd(long offset) throws IOException;
+
+		/**
+		 * Return the content of the region.
+		 */
+		@NotNull ByteBuffer region(long start, long end) throws IOException;
+	}
+
+	/**
+	 * A parsing task of a chunk.
+	 */
+	private static final class Chunk extends FutureTask<List<JsonElement>> {
+		private final @Nullable BlockingQueue<Chunk> completed;
+
+		Chunk(@NotNull ByteBuffer region, @Nullable BlockingQueue<Chunk> completed) {
+			super(() -> parse(region));
+			this.completed = completed;
+		}
+
+		@Override
+		protected void done() {
+			if (completed != null) completed.add(this);
+		}
+	}
+
+	private void readDocuments(long size, @NotNull Source source,
+			@NotNull Consumer<? super @NotNull JsonElement> consumer) throws IOException {
+		final ArrayDeque<Chunk> pending = new ArrayDeque<>();
+		final BlockingQueue<Chunk> completed = ordered ? null : new LinkedBlockingQueue<>();
+		try {
+			long start = 0;
+			while (start < size) {
+				final long end = source.lineEnd(Math.min(start + chunkSize, size));
+				final Chunk chunk = new Chunk(source.region(start, end), completed);
+				start = end;
+				if (pending.size() >= maxPendingChunks) deliver(nextCompleted(pending, completed), consumer);
+				pending.add(chunk);
+				executor.execute(chunk);
+			}
+			while (!pending.isEmpty()) deliver(nextCompleted(pending, completed), consumer);
+		} finally {
+			for (final Chunk chunk : pending) chunk.cancel(true);
+		}
+	}
+
+	/**
+	 * Wait for the next chunk to deliver, and remove it from the pending chunks.
+	 */
+	private static @NotNull Chunk nextCompleted(@NotNull ArrayDeque<Chunk> pending,
+			@Nullable BlockingQueue<Chunk> completed) throws IOException {
+		try {
+			final Chunk chunk;
+			if (completed == null) {
+				chunk = pending.getFirst();
+				chunk.get();
+			} else {
+				chunk = completed.take();
+			}
+			pending.remove(chunk);
+			return chunk;
+		} catch (InterruptedException exception) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for parsing tasks!");
+		} catch (ExecutionException exception) {
+			throw unwrap(exception);
+		}
+	}
+
+	/**
+	 * Deliver the documents of a completed chunk.
+	 */
+	private static void deliver(@NotNull Chunk chunk, @NotNull Consumer<? super @NotNull JsonElement> consumer)
+			throws IOException {
+		final List<JsonElement> elements;
+		try {
+			elements = chunk.get();
+		} catch (InterruptedException exception) {
+			// the chunk is already completed
+			throw new AssertionError(exception);
+		} catch (ExecutionException exception) {
+			throw unwrap(exception);
+		}
+		for (final JsonElement element : elements) consumer.accept(element);
+	}
+
+	/**
+	 * Unwrap the exception thrown by a parsing task.
+	 */
+	private static @NotNull IOException unwrap(@NotNull ExecutionException exception) {
+		final Throwable cause = exception.getCause();
+		if (cause instanceof IOException ioException) return ioException;
+		if (cause instanceof RuntimeException runtimeException) throw runtimeException;
+		if (cause instanceof Error error) throw error;
+		return new IOException(cause);
+	}
+
+	/**
+	 * Parse all documents in a region.
+	 */
+	private static @NotNull List<JsonElement> parse(@NotNull ByteBuffer region) throws IOException {
+		final List<JsonElement> elements = new ArrayList<>();
+		try (final JsonReader reader = new JsonReader(new InputStreamReader(new JsonByteBufferInputStream(region),
+				StandardCharsets.UTF_8.newDecoder()), true)) {
+			while (reader.peek() != JsonTokenType.EOF) elements.add(reader.nextElement());
+		}
+		return elements;
+	}
+
+	/**
+	 * Parse a single document sequentially.
+	 */
+	private static @NotNull JsonElement parseDocument(@NotNull InputStream input) throws IOException {
+		return JsonReader.read(new InputStreamReader(input, StandardCharsets.UTF_8.newDecoder()));
+	}
+
+	/**
+	 * Parse a segment of the root array, which is the content between two commas, as an array.
+	 */
+	private static @NotNull JsonArray parseSegment(@NotNull ByteBuffer segment) throws IOException {
+		final InputStream input = new SequenceInputStream(new ByteArrayInputStream(ARRAY_BEGIN),
+				new SequenceInputStream(new JsonByteBufferInputStream(segment), new ByteArrayInputStream(ARRAY_END)));
+		return (JsonArray) JsonReader.read(new InputStreamReader(input, StandardCharsets.UTF_8.newDecoder()));
+	}
+
+	private static final byte @NotNull [] ARRAY_BEGIN = {'['};
+	private static final byte @NotNull [] ARRAY_END = {']'};
+}
@@ -0,0 +1,273 @@
+/*
+ * This file is part of jsonify.
+ *
+ * jsonify is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * jsonify is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with jsonify. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.gitlab.multicia.jsonify;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A {@link Flow.Processor} which subscribes to chunks of JSON input and publishes the parsed {@link JsonElement}s,
+ * either the top-level documents of newline-delimited or concatenated JSON, or the elements of a root array. The input
+ * is parsed by a {@link JsonFeeder} only as fast as the elements are requested: a chunk is requested from upstream,
+ * one at a time, only when the already received input does not contain the next requested element.
+ * <p>
+ * The processor supports a single subscriber. Errors from upstream are delivered immediately, dropping any element
+ * which is not delivered yet.
+ *
+ * @param <T> The type of the chunks, see {@link #ofBytes(boolean)} and {@link #ofChars(boolean)}.
+ */
+public final class JsonParsingProcessor<T> implements Flow.Processor<T, JsonElement> {
+	/**
+	 * The way a chunk is fed to the feeder.
+	 */
+	private interface Feeding<T> {
+		void feed(@NotNull JsonFeeder feeder, @NotNull T chunk) throws IOException;
+	}
+
+	private final @NotNull Feeding<T> feeding;
+	private final boolean rootArray;
+	private final @NotNull JsonFeeder feeder;
+
+	private final @NotNull Queue<T> chunks = new ConcurrentLinkedQueue<>();
+	private final @NotNull AtomicInteger wip = new AtomicInteger();
+	private final @NotNull AtomicLong demand = new AtomicLong();
+	private final @NotNull AtomicReference<Flow.Subscription> upstream = new AtomicReference<>();
+	private final @NotNull AtomicReference<Flow.Subscriber<? super JsonElement>> downstream = new AtomicReference<>();
+	private final @NotNull AtomicReference<Throwable> error = new AtomicReference<>();
+	private volatile boolean upstreamDone;
+	private volatile boolean cancelled;
+
+	// the following fields are only accessed while draining
+	private boolean chunkRequested;
+	private boolean started;
+	private boolean parsing;
+	private boolean done;
+
+	private JsonParsingProcessor(@NotNull Feeding<T> feeding, boolean rootArray) {
+		this.feeding = feeding;
+		this.rootArray = rootArray;
+		this.feeder = new JsonFeeder(!rootArray);
+	}
+
+	/**
+	 * Creates a processor which subscribes to chunks of UTF-8 encoded bytes. If {@code rootArray} is {@code true}, the
+	 * input should be a single array, and the elements of the array are published. Otherwise, the input can contain
+	 * any number of documents, and each document is published.
+	 */
+	public static @NotNull JsonParsingProcessor<ByteBuffer> ofBytes(boolean rootArray) {
+		return new JsonParsingProcessor<>((feeder, chunk) -> feeder.feed(chunk), rootArray);
+	}
+
+	/**
+	 * Creates a processor which subscribes to chunks of characters. See {@link #ofBytes(boolean)}.
+	 */
+	public static @NotNull JsonParsingProcessor<CharSequence> ofChars(boolean rootArray) {
+		return new JsonParsingProcessor<>((feeder, chunk) -> feeder.feed(chunk), rootArray);
+	}
+
+	//========================================
+
+	@Override
+	public void subscribe(@NotNull Flow.Subscriber<? super JsonElement> subscriber) {
+		if (!downstream.compareAndSet(null, subscriber)) {
+			subscriber.onSubscribe(new Flow.Subscription() {
+				@Override
+				public void request(long n) {
+				}
+
+				@Override
+				public void cancel() {
+				}
+			});
+			subscriber.onError(new IllegalStateException("Already subscribed!"));
+			return;
+		}
+		subscriber.onSubscribe(new Flow.Subscription() {
+			@Override
+			public void request(long n) {
+				if (n <= 0) {
+					error.compareAndSet(null, new IllegalArgumentException("Invalid request!"));
+				} else {
+					demand.getAndAccumulate(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+				}
+				drain();
+			}
+
+			@Override
+			public void cancel() {
+				cancelled = true;
+				drain();
+			}
+		});
+		drain();
+	}
+
+	@Override
+	public void onSubscribe(@NotNull Flow.Subscription subscription) {
+		if (!upstream.compareAndSet(null, subscription)) {
+			subscription.cancel();
+			return;
+		}
+		drain();
+	}
+
+	@Override
+	public void onNext(@NotNull T chunk) {
+		if (cancelled) return;
+		chunks.offer(chunk);
+		drain();
+	}
+
+	@Override
+	public void onError(@NotNull Throwable throwable) {
+		error.compareAndSet(null, throwable);
+		drain();
+	}
+
+	@Override
+	public void onComplete() {
+		this.upstreamDone = true;
+		drain();
+	}
+
+	//========================================
+
+	/**
+	 * Run the drain loop, making sure that only one thread is draining at a time.
+	 */
+	private void drain() {
+		if (wip.getAndIncrement() != 0) return;
+		int missed = 1;
+		do {
+			drainLoop();
+			missed = wip.addAndGet(-missed);
+		} while (missed != 0);
+	}
+
+	private void drainLoop() {
+		if (done) {
+			// drop the chunks which upstream still sends after the processing is stopped
+			chunks.clear();
+			return;
+		}
+		final Flow.Subscriber<? super JsonElement> subscriber = downstream.get();
+		if (subscriber == null) return;
+		try {
+			while (true) {
+				if (cancelled) {
+					finish();
+					return;
+				}
+				final Throwable throwable = error.get();
+				if (throwable != null) {
+					finish();
+					subscriber.onError(throwable);
+					return;
+				}
+				if (demand.get() <= 0) return;
+				final JsonElement element = nextElement();
+				if (element != null) {
+					demand.decrementAndGet();
+					subscriber.onNext(element);
+				} else if (done) {
+					// the end of input is reached
+					finish();
+					subscriber.onComplete();
+					return;
+				} else {
+					// need more input
+					final T chunk = chunks.poll();
+					if (chunk != null) {
+						this.chunkRequested = false;
+						feeding.feed(feeder, chunk);
+					} else if (upstreamDone) {
+						// all chunks are fed, the next element or the end of input is always available after this
+						feeder.endOfInput();
+					} else {
+						final Flow.Subscription subscription = upstream.get();
+						if (!chunkRequested && subscription != null) {
+							this.chunkRequested = true;
+							subscription.request(1);
+						}
+						return;
+					}
+				}
+			}
+		} catch (IOException | RuntimeException exception) {
+			error.compareAndSet(null, exception);
+			finish();
+			subscriber.onError(error.get());
+		}
+	}
+
+	/**
+	 * Return the next element, or {@code null} if more input is needed or the end of input is reached.
+	 */
+	private @Nullable JsonElement nextElement() throws IOException {
+		if (parsing) {
+			final JsonElement element = feeder.parseStructure();
+			if (element != null) this.parsing = false;
+			return element;
+		}
+		if (rootArray && !started) {
+			final JsonToken token = feeder.nextToken();
+			if (token == JsonTokens.NEED_MORE_INPUT) return null;
+			if (token != JsonTokens.ARRAY_BEGIN) throw new JsonValueException("Not an Array!");
+			this.started = true;
+		}
+		final JsonToken token = feeder.nextToken();
+		if (token == JsonTokens.NEED_MORE_INPUT) return null;
+		if (token == JsonTokens.EOF) {
+			this.done = true;
+			return null;
+		}
+		if (token == JsonTokens.ARRAY_END) {
+			// the end of the root array, the next token should be the end of input
+			feeder.endStructure();
+			return nextElement();
+		}
+		if (token == JsonTokens.ARRAY_BEGIN || token == JsonTokens.OBJECT_BEGIN) {
+			this.parsing = true;
+			return nextElement();
+		}
+		return (JsonElement) token;
+	}
+
+	/**
+	 * Stop processing, cancel the upstream and release the resources.
+	 */
+	private void finish() {
+		this.done = true;
+		final Flow.Subscription subscription = upstream.get();
+		if (subscription != null && !upstreamDone) subscription.cancel();
+		chunks.clear();
+		try {
+			feeder.close();
+		} catch (IOException ignored) {
+		}
+	}
+}
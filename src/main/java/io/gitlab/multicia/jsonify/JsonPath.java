@@ -0,0 +1,591 @@
+/*
+ * This file is part of jsonify.
+ *
+ * jsonify is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * jsonify is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with jsonify. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.gitlab.multicia.jsonify;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * A compiled JSONPath query, such as {@code $.items[*].price} or {@code $..id}. The query is compiled into an
+ * automaton, which runs over the tokens of a {@link JsonReader}: the values which cannot match are skipped without
+ * being built, and the matched values are emitted to a callback as soon as they are read. A query is immutable and can
+ * be shared between threads. The supported subset is:
+ * <ul>
+ *     <li>{@code $} for the root, which must be the beginning of the query.</li>
+ *     <li>{@code .name}, {@code ['name']} and {@code ["name"]} for a member of an object.</li>
+ *     <li>{@code .*} and {@code [*]} for any member of an object or any element of an array.</li>
+ *     <li>{@code [2]} for an element of an array, and {@code [start:end:step]} for a slice of an array. Negative
+ *         indexes are not supported, since the size of an array is unknown while streaming.</li>
+ *     <li>{@code ..} before any of the above for the recursive descent, such as {@code $..id} or {@code $..[0]}.</li>
+ *     <li>{@code [?(@.a.b)]} for the members or the elements having a value at a relative path, and
+ *         {@code [?(@.a.b > 1)]} to compare that value with a number, a string, {@code true}, {@code false} or
+ *         {@code null}, using {@code ==}, {@code !=}, {@code <}, {@code <=}, {@code >} or {@code >=}. While streaming,
+ *         each candidate of a filter is built in memory to be tested.</li>
+ * </ul>
+ */
+public final class JsonPath {
+	private static final int STEP_NAME = 0;
+	private static final int STEP_WILDCARD = 1;
+	private static final int STEP_SLICE = 2;
+	private static final int STEP_FILTER = 3;
+
+	private static final int OPERATOR_EXISTS = 0;
+	private static final int OPERATOR_EQUAL = 1;
+	private static final int OPERATOR_NOT_EQUAL = 2;
+	private static final int OPERATOR_LESS = 3;
+	private static final int OPERATOR_LESS_EQUAL = 4;
+	private static final int OPERATOR_GREATER = 5;
+	private static final int OPERATOR_GREATER_EQUAL = 6;
+
+	/**
+	 * The maximum number of steps, so that a set of states fits in a {@code long}.
+	 */
+	private static final int MAX_STEPS = 63;
+
+	private final @NotNull String path;
+	private final @NotNull Step @NotNull [] steps;
+	/**
+	 * The state reached after all steps, which means the current value is matched.
+	 */
+	private final long finalState;
+	/**
+	 * The states of the filter steps, which need the candidates to be built.
+	 */
+	private final long filterStates;
+
+	private JsonPath(@NotNull String path, @NotNull Step @NotNull [] steps) {
+		this.path = path;
+		this.steps = steps;
+		this.finalState = 1L << steps.length;
+		long filterStates = 0;
+		for (int index = 0; index < steps.length; index++) {
+			if (steps[index].type == STEP_FILTER) filterStates |= 1L << index;
+		}
+		this.filterStates = filterStates;
+	}
+
+	/**
+	 * Compile a JSONPath query.
+	 *
+	 * @throws IllegalArgumentException Throws if the query is invalid or is not supported.
+	 */
+	public static @NotNull JsonPath compile(@NotNull String path) {
+		final List<Step> steps = new Parser(path).parse();
+		if (steps.size() > MAX_STEPS) throw new IllegalArgumentException("Too many steps!");
+		return new JsonPath(path, steps.toArray(Step[]::new));
+	}
+
+	//========================================
+
+	/**
+	 * Evaluate the query against a JSON document from the input reader, emit the matched values to the consumer, then
+	 * close the input reader.
+	 */
+	public void evaluate(@NotNull Reader inputReader, @NotNull Consumer<? super JsonElement> consumer)
+			throws IOException {
+		final JsonReader reader = JsonReader.acquire(inputReader, JsonLimits.NONE);
+		try (inputReader) {
+			evaluate(reader, consumer);
+			// checking for EOF
+			reader.peek();
+		} finally {
+			JsonReader.release(reader);
+		}
+	}
+
+	/**
+	 * Evaluate the query against the next value of the reader, and emit the matched values in document order to the
+	 * consumer. The whole next value is consumed, and the values which cannot match are skipped without being built.
+	 * Throws {@link JsonValueException} if the next token is not the beginning of a value.
+	 */
+	public void evaluate(@NotNull JsonReader reader, @NotNull Consumer<? super JsonElement> consumer)
+			throws IOException {
+		final JsonTokenType rootType = reader.peek();
+		if (rootType != JsonTokenType.ARRAY_BEGIN && rootType != JsonTokenType.OBJECT_BEGIN || steps.length == 0) {
+			evaluate(reader.nextElement(), 1L, consumer);
+			return;
+		}
+		// the nesting is tracked with an explicit stack instead of recursion
+		final ArrayDeque<StreamFrame> stack = new ArrayDeque<>();
+		stack.push(enter(reader, 1L));
+		while (!stack.isEmpty()) {
+			final StreamFrame frame = stack.element();
+			final JsonTokenType type = reader.peek();
+			if (type == JsonTokenType.ARRAY_END || type == JsonTokenType.OBJECT_END) {
+				reader.endStructure();
+				stack.pop();
+				continue;
+			}
+			final CharSequence name = type == JsonTokenType.NAME ? reader.nextNameText() : null;
+			final int index = type == JsonTokenType.NAME ? -1 : frame.index++;
+			if ((frame.states & filterStates) != 0) {
+				// the candidate is needed to test the filters
+				final String nameString = name != null ? name.toString() : null;
+				final JsonElement element = reader.nextElement();
+				final long states = next(frame.states, nameString, index, element);
+				if (states != 0) evaluate(element, states, consumer);
+				continue;
+			}
+			final long states = next(frame.states, name, index, null);
+			final JsonTokenType valueType = reader.peek();
+			if ((states & finalState) != 0) {
+				// matched, the deeper matches are found in memory
+				evaluate(reader.nextElement(), states, consumer);
+			} else if (states == 0 || valueType != JsonTokenType.ARRAY_BEGIN
+					&& valueType != JsonTokenType.OBJECT_BEGIN) {
+				reader.skipValue();
+			} else {
+				stack.push(enter(reader, states));
+			}
+		}
+	}
+
+	/**
+	 * Enter the next structure of the reader.
+	 */
+	private static @NotNull StreamFrame enter(@NotNull JsonReader reader, long states) throws IOException {
+		if (reader.peek() == JsonTokenType.ARRAY_BEGIN) {
+			reader.beginArray();
+		} else {
+			reader.beginObject();
+		}
+		return new StreamFrame(states);
+	}
+
+	/**
+	 * Evaluate the query against an element, and emit the matched values in document order to the consumer.
+	 */
+	public void evaluate(@NotNull JsonElement element, @NotNull Consumer<? super JsonElement> consumer) {
+		evaluate(element, 1L, consumer);
+	}
+
+	/**
+	 * Return the matched values of the query in an element, in document order.
+	 */
+	public @NotNull List<@NotNull JsonElement> evaluate(@NotNull JsonElement element) {
+		final List<JsonElement> result = new ArrayList<>();
+		evaluate(element, 1L, result::add);
+		return result;
+	}
+
+	/**
+	 * Run the automaton over an element, starting from the specified states.
+	 */
+	private void evaluate(@NotNull JsonElement element, long states,
+			@NotNull Consumer<? super JsonElement> consumer) {
+		// the nesting is tracked with an explicit stack instead of recursion
+		final ArrayDeque<ElementFrame> stack = new ArrayDeque<>();
+		JsonElement current = element;
+		long currentStates = states;
+		while (true) {
+			if ((currentStates & finalState) != 0) consumer.accept(current);
+			if ((currentStates & ~finalState) != 0) {
+				if (current instanceof JsonArray array) {
+					stack.push(new ElementFrame(array.iterator(), false, currentStates));
+				} else if (current instanceof JsonObject object) {
+					stack.push(new ElementFrame(object.entrySet().iterator(), true, currentStates));
+				}
+			}
+			// find the next element to evaluate
+			current = null;
+			while (current == null && !stack.isEmpty()) {
+				final ElementFrame frame = stack.element();
+				if (!frame.iterator.hasNext()) {
+					stack.pop();
+					continue;
+				}
+				final Object next = frame.iterator.next();
+				final JsonElement child;
+				final String name;
+				final int index;
+				if (frame.object) {
+					final Map.Entry<?, ?> entry = (Map.Entry<?, ?>) next;
+					child = (JsonElement) entry.getValue();
+					name = (String) entry.getKey();
+					index = -1;
+				} else {
+					child = (JsonElement) next;
+					name = null;
+					index = frame.index++;
+				}
+				currentStates = next(frame.states, name, index, child);
+				if (currentStates != 0) current = child;
+			}
+			if (current == null) return;
+		}
+	}
+
+	/**
+	 * Return the states after a member with the specified name, or an element with the specified index. The child is
+	 * only needed if the states contain a filter step.
+	 */
+	private long next(long states, @Nullable CharSequence name, int index, @Nullable JsonElement child) {
+		long next = 0;
+		for (long remaining = states & ~finalState; remaining != 0; remaining &= remaining - 1) {
+			final int state = Long.numberOfTrailingZeros(remaining);
+			final Step step = steps[state];
+			if (step.descendant) next |= 1L << state;
+			if (step.matches(name, index, child)) next |= 1L << (state + 1);
+		}
+		return next;
+	}
+
+	//========================================
+
+	@Override
+	public boolean equals(@Nullable Object object) {
+		return this == object || object instanceof JsonPath other && path.equals(other.path);
+	}
+
+	@Override
+	public int hashCode() {
+		return path.hashCode();
+	}
+
+	@Override
+	public @NotNull String toString() {
+		return path;
+	}
+
+	//========================================
+
+	/**
+	 * A step of the query, which is also a state of the automaton.
+	 */
+	private static final class Step {
+		private final int type;
+		private final boolean descendant;
+		private final @Nullable String name;
+		private final int start;
+		private final int end;
+		private final int step;
+		private final @Nullable Filter filter;
+
+		private Step(int type, boolean descendant, @Nullable String name, int start, int end, int step,
+				@Nullable Filter filter) {
+			this.type = type;
+			this.descendant = descendant;
+			this.name = name;
+			this.start = start;
+			this.end = end;
+			this.step = step;
+			this.filter = filter;
+		}
+
+		private boolean matches(@Nullable CharSequence name, int index, @Nullable JsonElement child) {
+			return switch (type) {
+				case STEP_NAME -> name != null && this.name.contentEquals(name);
+				case STEP_WILDCARD -> true;
+				case STEP_SLICE -> index >= start && index < end && (index - start) % step == 0;
+				case STEP_FILTER -> child != null && filter.test(child);
+				default -> throw new AssertionError();
+			};
+		}
+	}
+
+	/**
+	 * A filter, which tests the value at a relative path of a candidate.
+	 */
+	private static final class Filter {
+		private final @NotNull Object @NotNull [] path;
+		private final int operator;
+		private final @Nullable JsonElement literal;
+
+		private Filter(@NotNull Object @NotNull [] path, int operator, @Nullable JsonElement literal) {
+			this.path = path;
+			this.operator = operator;
+			this.literal = literal;
+		}
+
+		private boolean test(@NotNull JsonElement candidate) {
+			JsonElement value = candidate;
+			for (final Object segment : path) {
+				if (segment instanceof String name && value instanceof JsonObject object) {
+					value = object.get(name);
+				} else if (segment instanceof Integer index && value instanceof JsonArray array) {
+					value = index < array.size() ? array.get(index) : null;
+				} else {
+					value = null;
+				}
+				if (value == null) return false;
+			}
+			if (operator == OPERATOR_EXISTS) return true;
+			final int compare;
+			if (value instanceof JsonNumber number && literal instanceof JsonNumber other) {
+				compare = toBigDecimal(number).compareTo(toBigDecimal(other));
+			} else if (value instanceof JsonString && literal instanceof JsonString) {
+				compare = value.toString().compareTo(literal.toString());
+			} else {
+				final boolean equal = value.equals(literal);
+				return operator == OPERATOR_EQUAL ? equal : operator == OPERATOR_NOT_EQUAL && !equal;
+			}
+			return switch (operator) {
+				case OPERATOR_EQUAL -> compare == 0;
+				case OPERATOR_NOT_EQUAL -> compare != 0;
+				case OPERATOR_LESS -> compare < 0;
+				case OPERATOR_LESS_EQUAL -> compare <= 0;
+				case OPERATOR_GREATER -> compare > 0;
+				case OPERATOR_GREATER_EQUAL -> compare >= 0;
+				default -> throw new AssertionError();
+			};
+		}
+
+		private static @NotNull BigDecimal toBigDecimal(@NotNull JsonNumber number) {
+			final Number value = number.getValue();
+			if (value instanceof Long) return BigDecimal.valueOf((long) value);
+			if (value instanceof Double) return BigDecimal.valueOf((double) value);
+			if (value instanceof BigInteger) return new BigDecimal((BigInteger) value);
+			return (BigDecimal) value;
+		}
+	}
+
+	/**
+	 * A structure being read from the reader.
+	 */
+	private static final class StreamFrame {
+		private final long states;
+		private int index;
+
+		private StreamFrame(long states) {
+			this.states = states;
+		}
+	}
+
+	/**
+	 * A structure being walked in memory.
+	 */
+	private static final class ElementFrame {
+		private final @NotNull Iterator<?> iterator;
+		private final boolean object;
+		private final long states;
+		private int index;
+
+		private ElementFrame(@NotNull Iterator<?> iterator, boolean object, long states) {
+			this.iterator = iterator;
+			this.object = object;
+			this.states = states;
+		}
+	}
+
+	//========================================
+
+	/**
+	 * The parser of JSONPath queries.
+	 */
+	private static final class Parser {
+		private final @NotNull String path;
+		private int position;
+
+		private Parser(@NotNull String path) {
+			this.path = path;
+		}
+
+		private @NotNull IllegalArgumentException invalid() {
+			return new IllegalArgumentException("Invalid path at " + position + "!");
+		}
+
+		private int peek() {
+			return position < path.length() ? path.charAt(position) : -1;
+		}
+
+		private void expect(char c) {
+			if (peek() != c) throw invalid();
+			this.position += 1;
+		}
+
+		private void skipWhitespaces() {
+			while (peek() == ' ') this.position += 1;
+		}
+
+		private @NotNull List<@NotNull Step> parse() {
+			final List<Step> steps = new ArrayList<>();
+			expect('$');
+			while (position < path.length()) {
+				boolean descendant = false;
+				if (peek() == '.') {
+					this.position += 1;
+					if (peek() == '.') {
+						this.position += 1;
+						descendant = true;
+					}
+					if (peek() != '[') {
+						steps.add(dotStep(descendant));
+						continue;
+					}
+				}
+				if (peek() != '[') throw invalid();
+				steps.add(bracketStep(descendant));
+			}
+			return steps;
+		}
+
+		private @NotNull Step dotStep(boolean descendant) {
+			if (peek() == '*') {
+				this.position += 1;
+				return new Step(STEP_WILDCARD, descendant, null, 0, 0, 0, null);
+			}
+			return new Step(STEP_NAME, descendant, name(), 0, 0, 0, null);
+		}
+
+		private @NotNull String name() {
+			final int start = position;
+			while (position < path.length()) {
+				final char c = path.charAt(position);
+				if (c == '.' || c == '[' || c == ']' || c == ' ' || c == '(' || c == ')') break;
+				if (c == '=' || c == '!' || c == '<' || c == '>') break;
+				this.position += 1;
+			}
+			if (start == position) throw invalid();
+			return path.substring(start, position);
+		}
+
+		private @NotNull Step bracketStep(boolean descendant) {
+			expect('[');
+			skipWhitespaces();
+			final Step step;
+			final int c = peek();
+			if (c == '*') {
+				this.position += 1;
+				step = new Step(STEP_WILDCARD, descendant, null, 0, 0, 0, null);
+			} else if (c == '\'' || c == '"') {
+				step = new Step(STEP_NAME, descendant, quoted(), 0, 0, 0, null);
+			} else if (c == '?') {
+				this.position += 1;
+				expect('(');
+				step = new Step(STEP_FILTER, descendant, null, 0, 0, 0, filter());
+				expect(')');
+			} else {
+				final int start = peek() == ':' ? 0 : integer();
+				if (peek() != ':') {
+					step = new Step(STEP_SLICE, descendant, null, start, start + 1, 1, null);
+				} else {
+					this.position += 1;
+					final int end = peek() >= '0' && peek() <= '9' ? integer() : Integer.MAX_VALUE;
+					int stepSize = 1;
+					if (peek() == ':') {
+						this.position += 1;
+						if (peek() >= '0' && peek() <= '9') stepSize = integer();
+						if (stepSize <= 0) throw invalid();
+					}
+					step = new Step(STEP_SLICE, descendant, null, start, end, stepSize, null);
+				}
+			}
+			skipWhitespaces();
+			expect(']');
+			return step;
+		}
+
+		private int integer() {
+			final int start = position;
+			while (peek() >= '0' && peek() <= '9') this.position += 1;
+			if (start == position || position - start > 9) throw invalid();
+			return Integer.parseInt(path, start, position, 10);
+		}
+
+		private @NotNull String quoted() {
+			final int quote = peek();
+			this.position += 1;
+			final StringBuilder builder = new StringBuilder();
+			while (true) {
+				final int c = peek();
+				if (c < 0) throw invalid();
+				this.position += 1;
+				if (c == quote) return builder.toString();
+				if (c == '\\') {
+					final int d = peek();
+					if (d < 0) throw invalid();
+					this.position += 1;
+					builder.append((char) d);
+				} else {
+					builder.append((char) c);
+				}
+			}
+		}
+
+		private @NotNull Filter filter() {
+			skipWhitespaces();
+			expect('@');
+			final List<Object> segments = new ArrayList<>();
+			while (true) {
+				if (peek() == '.') {
+					this.position += 1;
+					segments.add(name());
+				} else if (peek() == '[') {
+					this.position += 1;
+					segments.add(peek() == '\'' || peek() == '"' ? quoted() : (Object) integer());
+					expect(']');
+				} else {
+					break;
+				}
+			}
+			skipWhitespaces();
+			final int operator;
+			if (path.startsWith("==", position)) {
+				operator = OPERATOR_EQUAL;
+			} else if (path.startsWith("!=", position)) {
+				operator = OPERATOR_NOT_EQUAL;
+			} else if (path.startsWith("<=", position)) {
+				operator = OPERATOR_LESS_EQUAL;
+			} else if (path.startsWith(">=", position)) {
+				operator = OPERATOR_GREATER_EQUAL;
+			} else if (peek() == '<') {
+				operator = OPERATOR_LESS;
+			} else if (peek() == '>') {
+				operator = OPERATOR_GREATER;
+			} else {
+				return new Filter(segments.toArray(), OPERATOR_EXISTS, null);
+			}
+			this.position += operator == OPERATOR_LESS || operator == OPERATOR_GREATER ? 1 : 2;
+			skipWhitespaces();
+			final JsonElement literal = literal();
+			skipWhitespaces();
+			return new Filter(segments.toArray(), operator, literal);
+		}
+
+		private @NotNull JsonElement literal() {
+			final int c = peek();
+			if (c == '\'' || c == '"') return new JsonString(quoted());
+			for (final JsonKeyword keyword : new JsonKeyword[]{JsonKeyword.TRUE, JsonKeyword.FALSE, JsonKeyword.NULL}) {
+				if (path.startsWith(keyword.toString(), position)) {
+					this.position += keyword.toString().length();
+					return keyword;
+				}
+			}
+			final int start = position;
+			while (position < path.length() && "+-.0123456789eE".indexOf(path.charAt(position)) >= 0) {
+				this.position += 1;
+			}
+			try {
+				return new JsonNumber(new BigDecimal(path.substring(start, position)));
+			} catch (NumberFormatException exception) {
+				throw invalid();
+			}
+		}
+	}
+}
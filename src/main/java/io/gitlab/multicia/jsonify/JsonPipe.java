@@ -0,0 +1,126 @@
+/*
+ * This file is part of jsonify.
+ *
+ * jsonify is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * jsonify is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with jsonify. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package io.gitlab.multicia.jsonify;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+
+/**
+ * Streaming copy from a {@link JsonInput} to a {@link JsonOutput}, token by token, without building any
+ * {@link JsonElement}. This can be used to minify a document, to normalize its escapes, or to transcode it by using
+ * different charsets for the input reader and the output writer. The memory used does not depend on the size of the
+ * document.
+ */
+public final class JsonPipe {
+	private JsonPipe() {
+	}
+
+	/**
+	 * Copy a JSON document from the input reader to the output writer, then close both of them. The output is
+	 * minified, and the numbers are copied as in the input. Note that the output writer should be buffered.
+	 */
+	public static void copy(@NotNull Reader inputReader, @NotNull Writer outputWriter) throws IOException {
+		final JsonReader reader = JsonReader.acquire(inputReader, JsonLimits.NONE);
+		final JsonWriter writer = JsonWriter.acquire(outputWriter);
+		try (inputReader; outputWriter) {
+			copy(reader, writer);
+			// checking for EOF
+			reader.peek();
+		} finally {
+			JsonWriter.release(writer);
+			JsonReader.release(reader);
+		}
+	}
+
+	/**
+	 * Copy the next value from the input to the output, token by token. If the value is a structure, the whole
+	 * structure is copied. Throws {@link JsonValueException} if the next token is not the beginning of a value. When
+	 * copying from a {@link JsonReader} to a {@link JsonWriter}, the names and strings are copied without creating any
+	 * {@link String}, and the numbers are copied as in the input without converting them.
+	 */
+	public static void copy(@NotNull JsonInput input, @NotNull JsonOutput output) throws IOException {
+		if (input instanceof JsonReader reader && output instanceof JsonWriter writer) {
+			copy(reader, writer);
+			return;
+		}
+		int depth = 0;
+		do {
+			final JsonToken token = input.nextToken();
+			if (token == JsonTokens.ARRAY_BEGIN) {
+				output.beginArray();
+				depth += 1;
+			} else if (token == JsonTokens.OBJECT_BEGIN) {
+				output.beginObject();
+				depth += 1;
+			} else if ((token == JsonTokens.ARRAY_END || token == JsonTokens.OBJECT_END) && depth > 0) {
+				input.endStructure();
+				output.end();
+				depth -= 1;
+			} else if (token instanceof JsonName && depth > 0) {
+				output.name(token.toString());
+			} else if (token instanceof JsonElement element) {
+				output.value(element);
+			} else {
+				throw new JsonValueException("Not a Value!");
+			}
+		} while (depth > 0);
+	}
+
+	/**
+	 * Copy the next value from the reader to the writer, using the typed API of the reader.
+	 */
+	private static void copy(@NotNull JsonReader reader, @NotNull JsonWriter writer) throws IOException {
+		int depth = 0;
+		do {
+			switch (reader.peek()) {
+				case ARRAY_BEGIN -> {
+					reader.beginArray();
+					writer.beginArray();
+					depth += 1;
+				}
+				case OBJECT_BEGIN -> {
+					reader.beginObject();
+					writer.beginObject();
+					depth += 1;
+				}
+				case ARRAY_END, OBJECT_END -> {
+					if (depth == 0) throw new JsonValueException("Not a Value!");
+					reader.endStructure();
+					writer.end();
+					depth -= 1;
+				}
+				case NAME -> {
+					if (depth == 0) throw new JsonValueException("Not a Value!");
+					writer.nameText(reader.nextNameText());
+				}
+				case STRING -> writer.valueStringText(reader.nextStringText());
+				case NUMBER -> writer.valueNumberText(reader.nextNumberText());
+				case BOOLEAN -> writer.valueBoolean(reader.nextBoolean());
+				case NULL -> {
+					reader.nextNull();
+					writer.valueNull();
+				}
+				default -> throw new JsonValueException("Not a Value!");
+			}
+		} while (depth > 0);
+	}
+}
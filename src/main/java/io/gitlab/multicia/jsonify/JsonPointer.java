@@ -0,0 +1,202 @@
+/*
+ * This file is part of jsonify.
+ *
+ * jsonify is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * jsonify is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with jsonify. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package io.gitlab.multicia.jsonify;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A compiled JSON Pointer (RFC 6901), such as {@code /a/b/3/c}. The pointer is parsed once, and can be evaluated
+ * against a {@link JsonElement} or a {@link JsonReader} many times. A pointer is immutable and can be shared between
+ * threads.
+ */
+public final class JsonPointer {
+	private final @NotNull String pointer;
+	private final @NotNull String @NotNull [] names;
+	/**
+	 * The array index of each reference token, or -1 if the token is not a valid array index.
+	 */
+	private final int @NotNull [] indexes;
+
+	private JsonPointer(@NotNull String pointer, @NotNull String @NotNull [] names, int @NotNull [] indexes) {
+		this.pointer = pointer;
+		this.names = names;
+		this.indexes = indexes;
+	}
+
+	/**
+	 * Compile a JSON Pointer. The empty pointer refers to the whole document.
+	 *
+	 * @throws IllegalArgumentException Throws if the pointer is invalid.
+	 */
+	public static @NotNull JsonPointer compile(@NotNull String pointer) {
+		if (!pointer.isEmpty() && pointer.charAt(0) != '/') throw new IllegalArgumentException("Invalid pointer!");
+		final List<String> names = new ArrayList<>();
+		int start = 1;
+		while (start <= pointer.length()) {
+			int end = pointer.indexOf('/', start);
+			if (end < 0) end = pointer.length();
+			try {
+				names.add(JsonFilter.unescape(pointer.substring(start, end)));
+			} catch (IllegalArgumentException exception) {
+				throw new IllegalArgumentException("Invalid pointer!", exception);
+			}
+			start = end + 1;
+		}
+		final int[] indexes = new int[names.size()];
+		for (int index = 0; index < indexes.length; index++) indexes[index] = parseIndex(names.get(index));
+		return new JsonPointer(pointer, names.toArray(String[]::new), indexes);
+	}
+
+	/**
+	 * Parse an array index, which is {@code 0} or a number without leading zeros, or return -1 if it is not.
+	 */
+	private static int parseIndex(@NotNull String name) {
+		final int length = name.length();
+		if (length == 0 || length > 9 || length > 1 && name.charAt(0) == '0') return -1;
+		int value = 0;
+		for (int index = 0; index < length; index++) {
+			final char c = name.charAt(index);
+			if (c < '0' || c > '9') return -1;
+			value = value * 10 + (c - '0');
+		}
+		return value;
+	}
+
+	/**
+	 * Return the number of reference tokens, which is also the number of structures entered by
+	 * {@link #seek(JsonReader)}.
+	 */
+	public int size() {
+		return names.length;
+	}
+
+	//========================================
+
+	/**
+	 * Return the value referred by this pointer in the specified element, or {@code null} if there is no such value.
+	 */
+	public @Nullable JsonElement evaluate(@NotNull JsonElement element) {
+		JsonElement current = element;
+		for (int index = 0; index < names.length; index++) {
+			if (current instanceof JsonObject object) {
+				current = object.get(names[index]);
+				if (current == null) return null;
+			} else if (current instanceof JsonArray array) {
+				final int arrayIndex = indexes[index];
+				if (arrayIndex < 0 || arrayIndex >= array.size()) return null;
+				current = array.get(arrayIndex);
+			} else {
+				return null;
+			}
+		}
+		return current;
+	}
+
+	/**
+	 * Read the next value from the reader, and return the value referred by this pointer in it, or {@code null} if
+	 * there is no such value. Only the referred value is built, everything else is skipped. In both cases, the whole
+	 * next value is consumed. Throws {@link JsonValueException} if the next token is not the beginning of a value.
+	 */
+	public @Nullable JsonElement evaluate(@NotNull JsonReader reader) throws IOException {
+		if (!seek(reader)) return null;
+		final JsonElement element = reader.nextElement();
+		for (int index = 0; index < names.length; index++) reader.endStructure();
+		return element;
+	}
+
+	/**
+	 * Move the reader to the value referred by this pointer in the next value, skipping everything before it without
+	 * building anything. If the value is found, this method returns {@code true}, and the next token of the reader is
+	 * the beginning of the referred value, inside {@link #size()} structures which the caller should end by calling
+	 * {@link JsonReader#endStructure()}. Otherwise, this method returns {@code false} and the whole next value is
+	 * consumed. Throws {@link JsonValueException} if the next token is not the beginning of a value.
+	 */
+	public boolean seek(@NotNull JsonReader reader) throws IOException {
+		final JsonTokenType rootType = reader.peek();
+		if (rootType == JsonTokenType.NAME || rootType == JsonTokenType.ARRAY_END
+				|| rootType == JsonTokenType.OBJECT_END || rootType == JsonTokenType.EOF) {
+			throw new JsonValueException("Not a Value!");
+		}
+		for (int index = 0; index < names.length; index++) {
+			if (!seekToken(reader, index)) {
+				// not found, so end the entered structures
+				for (int depth = 0; depth < index; depth++) reader.endStructure();
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Enter the current structure and move the reader to the member or the element of the specified reference token.
+	 * Return {@code false} if it is not found, in which case the current value is consumed.
+	 */
+	private boolean seekToken(@NotNull JsonReader reader, int index) throws IOException {
+		switch (reader.peek()) {
+			case OBJECT_BEGIN -> {
+				reader.beginObject();
+				final String name = names[index];
+				while (reader.peek() == JsonTokenType.NAME) {
+					if (name.contentEquals(reader.nextNameText())) return true;
+					reader.skipValue();
+				}
+				reader.endStructure();
+				return false;
+			}
+			case ARRAY_BEGIN -> {
+				final int arrayIndex = indexes[index];
+				reader.beginArray();
+				if (arrayIndex >= 0) {
+					for (int count = 0; count < arrayIndex && reader.peek() != JsonTokenType.ARRAY_END; count++) {
+						reader.skipValue();
+					}
+					if (reader.peek() != JsonTokenType.ARRAY_END) return true;
+				}
+				reader.endStructure();
+				return false;
+			}
+			default -> {
+				reader.skipValue();
+				return false;
+			}
+		}
+	}
+
+	//========================================
+
+	@Override
+	public boolean equals(@Nullable Object object) {
+		return this == object || object instanceof JsonPointer other && pointer.equals(other.pointer);
+	}
+
+	@Override
+	public int hashCode() {
+		return pointer.hashCode();
+	}
+
+	@Override
+	public @NotNull String toString() {
+		return pointer;
+	}
+}
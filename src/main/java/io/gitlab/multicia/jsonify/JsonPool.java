@@ -0,0 +1,63 @@
+/*
+ * This file is part of jsonify.
+ *
+ * jsonify is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * jsonify is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with jsonify. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.gitlab.multicia.jsonify;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A small lock-free pool of reusable instances, used by the static helpers of {@link JsonReader} and
+ * {@link JsonWriter}. The instances are kept in a fixed number of slots instead of thread locals, so the pool also
+ * works with virtual threads. If all slots are empty, a new instance should be created, and if all slots are full, the
+ * released instance is dropped.
+ */
+final class JsonPool<T> {
+	/**
+	 * The number of slots in a pool.
+	 */
+	private static final int SIZE = Math.min(64, Integer.highestOneBit(Runtime.getRuntime().availableProcessors()) * 4);
+
+	private final @NotNull AtomicReferenceArray<T> slots = new AtomicReferenceArray<>(SIZE);
+
+	/**
+	 * Take an instance from the pool, or return {@code null} if the pool is empty.
+	 */
+	@Nullable T acquire() {
+		final int start = ThreadLocalRandom.current().nextInt();
+		for (int index = 0; index < SIZE; index++) {
+			final int slot = (start + index) & (SIZE - 1);
+			final T instance = slots.getPlain(slot);
+			if (instance != null && slots.compareAndSet(slot, instance, null)) return instance;
+		}
+		return null;
+	}
+
+	/**
+	 * Return an instance to the pool. The instance is dropped if the pool is full.
+	 */
+	void release(@NotNull T instance) {
+		final int start = ThreadLocalRandom.current().nextInt();
+		for (int index = 0; index < SIZE; index++) {
+			final int slot = (start + index) & (SIZE - 1);
+			if (slots.getPlain(slot) == null && slots.compareAndSet(slot, null, instance)) return;
+		}
+	}
+}
@@ -18,27 +18,92 @@
 package io.gitlab.multicia.jsonify;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.BitSet;
+import java.util.Objects;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
- * JSON reader. The input reader should REALLY be a buffered one.
+ * JSON reader. The input is buffered internally, so there is no need to wrap the input reader in a buffered one. Note
+ * that the JSON reader may read ahead of the current token.
+ * <p>
+ * Besides {@link #nextToken()}, the reader provides a lower level API that does not wrap the values into tokens:
+ * {@link #peek()} returns the type of the next token without consuming it, and the typed methods such as
+ * {@link #nextName()}, {@link #nextString()}, {@link #nextLong()}, {@link #nextDouble()}, {@link #nextBoolean()} and
+ * {@link #nextNull()} consume the next token and return its value directly. The typed methods throw
+ * {@link JsonValueException} without consuming anything if the next token is not of the requested type.
+ * <p>
+ * By default, the reader expects exactly one JSON document in the input. In multiple documents mode, the reader
+ * accepts any number of JSON documents separated by optional whitespaces, such as newline-delimited JSON or
+ * concatenated JSON, and returns to the top level after each document. {@link JsonTokens#EOF} is returned after the
+ * last document.
  */
 public class JsonReader implements JsonInput {
 	/**
 	 * The input reader.
 	 */
-	private final @NotNull Reader reader;
+	private @NotNull Reader reader;
+
+	/**
+	 * Whether the reader accepts multiple documents.
+	 */
+	private final boolean multipleDocuments;
 
 	/**
 	 * Creates a json reader.
 	 */
 	public JsonReader(@NotNull Reader reader) {
+		this(reader, false);
+	}
+
+	/**
+	 * Creates a json reader, which accepts multiple documents if {@code multipleDocuments} is {@code true}.
+	 */
+	public JsonReader(@NotNull Reader reader, boolean multipleDocuments) {
+		this(reader, multipleDocuments, false);
+	}
+
+	/**
+	 * Creates a json reader which enforces the specified limits.
+	 */
+	public JsonReader(@NotNull Reader reader, @NotNull JsonLimits limits) {
+		this(reader, false, limits);
+	}
+
+	/**
+	 * Creates a json reader which enforces the specified limits, and accepts multiple documents if
+	 * {@code multipleDocuments} is {@code true}. The limits of the total characters and the timeout apply to all
+	 * documents together.
+	 */
+	public JsonReader(@NotNull Reader reader, boolean multipleDocuments, @NotNull JsonLimits limits) {
+		this(reader, multipleDocuments, false);
+		setLimits(limits);
+	}
+
+	/**
+	 * Creates a json reader whose input is fed by a {@link JsonFeeder} instead of being read from the reader.
+	 */
+	JsonReader(boolean multipleDocuments) {
+		this(Reader.nullReader(), multipleDocuments, true);
+	}
+
+	private JsonReader(@NotNull Reader reader, boolean multipleDocuments, boolean feeding) {
 		this.reader = reader;
+		this.multipleDocuments = multipleDocuments;
+		this.feeding = feeding;
+		this.state = multipleDocuments ? STATE_EXPECT_DOCUMENT : STATE_EXPECT_VALUE;
+		setLimits(JsonLimits.NONE);
 	}
 
 	//========================================
@@ -47,76 +112,345 @@ public class JsonReader implements JsonInput {
 	 * Load input json to JSON element.
 	 */
 	public static @NotNull JsonElement read(@NotNull Reader inputReader) throws IOException {
-		try (final JsonReader reader = new JsonReader(inputReader)) {
-			final JsonToken token = reader.nextToken();
-			if (token instanceof JsonElement) {
-				// checking for EOF
-				reader.nextToken();
-				return (JsonElement) token;
-			} else if (token == JsonTokens.ARRAY_BEGIN || token == JsonTokens.OBJECT_BEGIN) {
-				final JsonElement structure = reader.parseStructure();
-				// checking for EOF
-				reader.nextToken();
-				return structure;
-			} else {
-				// what is that?
-				throw new AssertionError();
-			}
+		return read(inputReader, JsonElementFactory.INSTANCE);
+	}
+
+	/**
+	 * Load input json and build the result using the specified {@link JsonTreeFactory}.
+	 */
+	public static <V, A, O> V read(@NotNull Reader inputReader, @NotNull JsonTreeFactory<V, A, O> factory)
+			throws IOException {
+		return read(inputReader, factory, JsonLimits.NONE);
+	}
+
+	/**
+	 * Load input json to JSON element, enforcing the specified limits.
+	 */
+	public static @NotNull JsonElement read(@NotNull Reader inputReader, @NotNull JsonLimits limits)
+			throws IOException {
+		return read(inputReader, JsonElementFactory.INSTANCE, limits);
+	}
+
+	private static <V, A, O> V read(@NotNull Reader inputReader, @NotNull JsonTreeFactory<V, A, O> factory,
+			@NotNull JsonLimits limits) throws IOException {
+		final JsonReader reader = acquire(inputReader, limits);
+		try (inputReader) {
+			final V value = reader.nextValue(factory);
+			// checking for EOF
+			reader.peek();
+			return value;
+		} finally {
+			release(reader);
 		}
 	}
 
-	//========================================
+	/**
+	 * Parse input json and push its content to the handler. See {@link #parse(JsonHandler)}.
+	 */
+	public static void parse(@NotNull Reader inputReader, @NotNull JsonHandler handler) throws IOException {
+		final JsonReader reader = acquire(inputReader, JsonLimits.NONE);
+		try (inputReader) {
+			reader.parse(handler);
+			// checking for EOF
+			reader.peek();
+		} finally {
+			release(reader);
+		}
+	}
 
 	/**
-	 * The codepoint that has been undone reading.
+	 * Load input json to JSON element without throwing. Any error, including the errors of the input reader, is
+	 * reported as a failed {@link JsonResult}. The exceptions used internally do not fill their stack traces, so a
+	 * failure costs about the same as a success.
 	 */
-	private int undo = -1;
+	public static @NotNull JsonResult tryRead(@NotNull Reader inputReader) {
+		return tryRead(inputReader, JsonLimits.NONE);
+	}
 
 	/**
-	 * Undo reading a codepoint.
+	 * Load input json to JSON element without throwing, enforcing the specified limits. See
+	 * {@link #tryRead(Reader)}.
 	 */
-	private void undo(int undo) {
-		// assert undo < 0;
-		this.undo = undo;
+	public static @NotNull JsonResult tryRead(@NotNull Reader inputReader, @NotNull JsonLimits limits) {
+		final JsonReader reader = acquire(inputReader, limits);
+		reader.stackTrace = false;
+		try (inputReader) {
+			final JsonElement element = reader.nextElement();
+			// checking for EOF
+			reader.peek();
+			return JsonResult.success(element);
+		} catch (IOException exception) {
+			return JsonResult.failure(exception);
+		} finally {
+			release(reader);
+		}
 	}
 
 	/**
-	 * Get next codepoint.
+	 * Check that input json is a valid JSON document, without building any JSON element. The grammar of the whole
+	 * document is checked, including escapes, numbers, surrogates and nesting, while the values are skipped without
+	 * any allocation per token. The input reader is closed after checking.
+	 *
+	 * @throws JsonIOException Throws if the input json is not valid.
+	 * @throws IOException     Throws if there is any error while reading input json.
 	 */
-	private int read() throws IOException {
-		final int undo = this.undo;
-		if (undo < 0) {
-			int u0 = reader.read();
-			if (u0 < 0 || !Character.isHighSurrogate((char) u0)) {
-				// eof or normal character
-				return u0;
-			}
-			int u1 = reader.read();
-			if (u1 >= 0 && Character.isLowSurrogate((char) u1)) {
-				// extended character
-				return Character.toCodePoint((char) u0, (char) u1);
-			}
-			// invalid/incomplete pair
-			throw new IOException("Invalid input surrogate pair.");
-		} else {
-			this.undo = -1;
-			return undo;
+	public static void validate(@NotNull Reader inputReader) throws IOException {
+		final JsonReader reader = acquire(inputReader, JsonLimits.NONE);
+		try (inputReader) {
+			reader.skipDocument();
+		} finally {
+			release(reader);
 		}
+	}
 
+	/**
+	 * Check that the content of a buffer is a valid UTF-8 encoded JSON document. See {@link #validate(Reader)}. The
+	 * content between the position and the limit of the buffer is checked, the buffer itself is not modified.
+	 *
+	 * @throws JsonIOException Throws if the input json is not valid.
+	 * @throws IOException     Throws if the input is not valid UTF-8.
+	 */
+	public static void validate(@NotNull ByteBuffer input) throws IOException {
+		validate(new InputStreamReader(new JsonByteBufferInputStream(input.slice()), StandardCharsets.UTF_8.newDecoder()));
 	}
 
 	/**
-	 * Get next character, skip all allowed whitespaces.
+	 * Check that input json is a valid JSON document without throwing. See {@link #validate(Reader)} and
+	 * {@link #tryRead(Reader)}.
 	 */
-	private int readNonWhitespace() throws IOException {
+	public static @NotNull JsonResult tryValidate(@NotNull Reader inputReader) {
+		return tryValidate(inputReader, JsonLimits.NONE);
+	}
+
+	/**
+	 * Check that input json is a valid JSON document without throwing, enforcing the specified limits. See
+	 * {@link #tryValidate(Reader)}.
+	 */
+	public static @NotNull JsonResult tryValidate(@NotNull Reader inputReader, @NotNull JsonLimits limits) {
+		final JsonReader reader = acquire(inputReader, limits);
+		reader.stackTrace = false;
+		try (inputReader) {
+			reader.skipDocument();
+			return JsonResult.VALID;
+		} catch (IOException exception) {
+			return JsonResult.failure(exception);
+		} finally {
+			release(reader);
+		}
+	}
+
+	/**
+	 * Check that the content of a buffer is a valid UTF-8 encoded JSON document without throwing. See
+	 * {@link #validate(ByteBuffer)} and {@link #tryRead(Reader)}.
+	 */
+	public static @NotNull JsonResult tryValidate(@NotNull ByteBuffer input) {
+		return tryValidate(new InputStreamReader(new JsonByteBufferInputStream(input.slice()),
+				StandardCharsets.UTF_8.newDecoder()));
+	}
+
+	/**
+	 * Skip over the remaining tokens of the document, only checking them.
+	 */
+	private void skipDocument() throws IOException {
 		while (true) {
-			final int character = read();
-			switch (character) {
-				case '\t', '\n', '\r', ' ' -> {
+			final JsonTokenType type = peek();
+			switch (type) {
+				case EOF -> {
+					return;
 				}
-				default -> {
-					return character;
+				case ARRAY_END, OBJECT_END -> endStructure();
+				default -> skipToken(type);
+			}
+		}
+	}
+
+	/**
+	 * The pool of readers used by the static helpers.
+	 */
+	private static final @NotNull JsonPool<JsonReader> POOL = new JsonPool<>();
+
+	/**
+	 * The reader which is set to the pooled readers.
+	 */
+	private static final @NotNull Reader EMPTY_READER = Reader.nullReader();
+
+	/**
+	 * Take a reader from the pool, or create a new one, to read from the input reader with the specified limits.
+	 */
+	static @NotNull JsonReader acquire(@NotNull Reader inputReader, @NotNull JsonLimits limits) {
+		final JsonReader pooled = POOL.acquire();
+		if (pooled == null) return new JsonReader(inputReader, limits);
+		pooled.reset(inputReader);
+		pooled.setLimits(limits);
+		return pooled;
+	}
+
+	/**
+	 * Return a reader to the pool.
+	 */
+	static void release(@NotNull JsonReader reader) {
+		// do not keep a reference to the input reader in the pool
+		reader.reset(EMPTY_READER);
+		reader.setLimits(JsonLimits.NONE);
+		reader.stackTrace = JsonIOException.STACK_TRACE;
+		// do not keep a huge buffer in the pool after reading a huge string or raw value
+		if (reader.builder.capacity() > BUFFER_SIZE) reader.builder = new StringBuilder();
+		if (reader.captureBuilder.capacity() > BUFFER_SIZE) reader.captureBuilder = new StringBuilder();
+		POOL.release(reader);
+	}
+
+	/**
+	 * Reset the JSON reader to read from another reader, without closing the previous reader. All states of the
+	 * reader are reset, and its internal buffers are reused. The reader can be reset even if it is closed or in error
+	 * state. The limits are kept, and the counting of the total characters and the timeout starts again.
+	 */
+	public void reset(@NotNull Reader reader) {
+		if (feeding) throw new IllegalStateException("Cannot reset a fed reader!");
+		restartLimits();
+		this.reader = reader;
+		this.position = 0;
+		this.limit = 0;
+		this.undo = -1;
+		this.peeked = null;
+		this.streaming = null;
+		this.lastStructureIndex = -1;
+		this.state = multipleDocuments ? STATE_EXPECT_DOCUMENT : STATE_EXPECT_VALUE;
+	}
+
+	/**
+	 * Load input json containing multiple documents, such as newline-delimited JSON or concatenated JSON, to a stream
+	 * of JSON elements. The documents are parsed lazily when the stream is consumed. Closing the stream also closes
+	 * the input reader.
+	 */
+	public static @NotNull Stream<@NotNull JsonElement> readDocuments(@NotNull Reader inputReader) {
+		return new JsonReader(inputReader, true).documents();
+	}
+
+	/**
+	 * Load input json whose root is an array to a stream of the elements of the array. The elements are parsed lazily
+	 * when the stream is consumed. Closing the stream also closes the input reader.
+	 */
+	public static @NotNull Stream<@NotNull JsonElement> readElements(@NotNull Reader inputReader) {
+		final JsonReader reader = new JsonReader(inputReader);
+		try {
+			return reader.elements().onClose(() -> {
+				try {
+					reader.close();
+				} catch (IOException exception) {
+					throw new UncheckedIOException(exception);
 				}
+			});
+		} catch (IOException | RuntimeException exception) {
+			try {
+				reader.close();
+			} catch (IOException closeException) {
+				exception.addSuppressed(closeException);
+			}
+			if (exception instanceof IOException ioException) throw new UncheckedIOException(ioException);
+			throw (RuntimeException) exception;
+		}
+	}
+
+	/**
+	 * Return a stream of the elements of the next array. The next value should be an array, either the root array or
+	 * an array located by the previous calls, such as {@link #beginObject()} and {@link #nextName()}. Each element is
+	 * parsed only when it is pulled from the stream, so the memory is bounded by one element, or by one batch of
+	 * elements in a parallel stream. When the stream is fully consumed, the reader is positioned after the array. Any
+	 * {@link IOException} while reading is rethrown as an {@link UncheckedIOException}.
+	 *
+	 * @throws JsonValueException Throws if the next value is not an array.
+	 */
+	public @NotNull Stream<@NotNull JsonElement> elements() throws IOException {
+		return elements(JsonSpliterator.DEFAULT_BATCH_SIZE);
+	}
+
+	/**
+	 * Return a stream of the elements of the next array, using the specified number of elements in each batch handed
+	 * off to a parallel stream. See {@link #elements()}.
+	 *
+	 * @throws JsonValueException Throws if the next value is not an array.
+	 */
+	public @NotNull Stream<@NotNull JsonElement> elements(int batchSize) throws IOException {
+		if (batchSize <= 0) throw new IllegalArgumentException("Invalid batch size!");
+		beginArray();
+		final int structureIndex = this.lastStructureIndex;
+		final JsonSpliterator spliterator = new JsonSpliterator(() -> {
+			if (lastStructureIndex < structureIndex) return null;
+			if (peek() != JsonTokenType.ARRAY_END) return nextElement();
+			endStructure();
+			// checking for EOF after the root array
+			if (lastStructureIndex < 0) peek();
+			return null;
+		}, batchSize);
+		return StreamSupport.stream(spliterator, false);
+	}
+
+	/**
+	 * Return a stream of the remaining documents. The reader should be at the top level. Each document is parsed only
+	 * when it is pulled from the stream, and all internal buffers are reused between documents. Closing the stream also
+	 * closes the JSON reader. Any {@link IOException} while reading is rethrown as an {@link UncheckedIOException}.
+	 */
+	public @NotNull Stream<@NotNull JsonElement> documents() {
+		if (lastStructureIndex >= 0) throw new IllegalStateException("Not at the top level!");
+		final JsonSpliterator spliterator = new JsonSpliterator(
+				() -> peek() != JsonTokenType.EOF ? nextElement() : null,
+				JsonSpliterator.DEFAULT_BATCH_SIZE);
+		return StreamSupport.stream(spliterator, false).onClose(() -> {
+			try {
+				close();
+			} catch (IOException exception) {
+				throw new UncheckedIOException(exception);
+			}
+		});
+	}
+
+	//========================================
+
+	/**
+	 * The size of the input buffer.
+	 */
+	private static final int BUFFER_SIZE = 8192;
+
+	/**
+	 * The input buffer. In feeding mode, the buffer grows to keep all fed characters which are not read yet.
+	 */
+	private char @NotNull [] buffer = new char[BUFFER_SIZE];
+
+	/**
+	 * The position of the next character in the input buffer.
+	 */
+	private int position;
+
+	/**
+	 * The number of valid characters in the input buffer.
+	 */
+	private int limit;
+
+	/**
+	 * Fill the input buffer with the next characters. Return {@code false} if there is no more character.
+	 */
+	private boolean fill() throws IOException {
+		if (feeding) {
+			if (feedEnded) return false;
+			throw needMoreInput;
+		}
+		if (totalChars > maxTotalChars) throw error(JsonError.LIMIT_EXCEEDED, "Maximum total characters exceeded!");
+		if (captureStart >= 0) {
+			// keep the captured characters before the buffer is overwritten
+			captureBuilder.append(buffer, captureStart, limit - captureStart);
+			this.captureStart = 0;
+		}
+		while (true) {
+			final int count = reader.read(buffer, 0, BUFFER_SIZE);
+			if (count < 0) return false;
+			if (count > 0) {
+				final long remaining = maxTotalChars - totalChars;
+				if (remaining <= 0) throw error(JsonError.LIMIT_EXCEEDED, "Maximum total characters exceeded!");
+				// only the allowed characters are used, the next fill throws if there are more
+				this.totalChars += count;
+				this.position = 0;
+				this.limit = (int) Math.min(count, remaining);
+				return true;
 			}
 		}
 	}
@@ -124,355 +458,1787 @@ public class JsonReader implements JsonInput {
 	//========================================
 
 	/**
-	 * Last states of the reader's state machine. This bit set will be used as a stack of state. A bit with value 0
-	 * indicates the reader is currently inside an object. A bit with value 1 indicates the reader is currently inside
-	 * an array.
+	 * The limits of the reader. The limits are also copied to the following fields for fast access.
 	 */
-	private final @NotNull BitSet lastStructures = new BitSet();
+	private @NotNull JsonLimits limits = JsonLimits.NONE;
+
+	private int maxDepth;
+	private int maxStringLength;
+	private int maxNumberLength;
+	private long maxTotalChars;
+	private int maxContainerSize;
 
 	/**
-	 * Last index of last states array. An index smaller than 0 indicates the reader is at the top level, any other
-	 * value indicate the reader is inside an object or an array.
+	 * The number of characters read from the input.
 	 */
-	private int lastStructureIndex = -1;
+	private long totalChars;
+
+	/**
+	 * The number of elements or members of each structure in the structure stack, minus one, or {@code null} if the
+	 * container size is not limited.
+	 */
+	private int @Nullable [] containerSizes;
+
+	/**
+	 * The number of tokens before the next check of the timeout and the interruption.
+	 */
+	private int countdown;
+
+	/**
+	 * The time when the reader starts reading, used for the timeout.
+	 */
+	private long startNanos;
+
+	/**
+	 * Set the limits and restart counting.
+	 */
+	private void setLimits(@NotNull JsonLimits limits) {
+		this.limits = limits;
+		this.maxDepth = limits.getMaxDepth();
+		this.maxStringLength = limits.getMaxStringLength();
+		this.maxNumberLength = limits.getMaxNumberLength();
+		this.maxTotalChars = limits.getMaxTotalChars();
+		this.maxContainerSize = limits.getMaxContainerSize();
+		this.containerSizes = maxContainerSize < Integer.MAX_VALUE ? new int[16] : null;
+		restartLimits();
+	}
+
+	/**
+	 * Restart counting the total characters and the timeout.
+	 */
+	private void restartLimits() {
+		this.totalChars = 0;
+		// check on the first token, then every check interval
+		this.countdown = limits.isCancellable() ? 1 : Integer.MAX_VALUE;
+		this.startNanos = limits.getTimeoutNanos() > 0 ? System.nanoTime() : 0;
+	}
+
+	/**
+	 * Check the timeout and the interruption, and restart the countdown.
+	 */
+	private void checkCancellation() throws IOException {
+		final JsonLimits limits = this.limits;
+		if (!limits.isCancellable()) {
+			this.countdown = Integer.MAX_VALUE;
+			return;
+		}
+		this.countdown = limits.getCheckInterval();
+		if (limits.isInterruptible() && Thread.currentThread().isInterrupted()) {
+			throw error(JsonError.CANCELLED, "Reading is interrupted!");
+		}
+		final long timeoutNanos = limits.getTimeoutNanos();
+		if (timeoutNanos > 0 && System.nanoTime() - startNanos > timeoutNanos) {
+			throw error(JsonError.CANCELLED, "Timeout exceeded!");
+		}
+	}
+
+	/**
+	 * Push a structure to the structure stack, checking the depth limit.
+	 */
+	private void pushStructure(boolean array) throws IOException {
+		final int index = lastStructureIndex + 1;
+		if (index >= maxDepth) {
+			this.state = STATE_ERROR;
+			throw error(JsonError.LIMIT_EXCEEDED, "Maximum depth exceeded!");
+		}
+		lastStructures.set(index, array);
+		final int[] containerSizes = this.containerSizes;
+		if (containerSizes != null) {
+			if (index >= containerSizes.length) {
+				this.containerSizes = Arrays.copyOf(containerSizes, containerSizes.length * 2);
+			}
+			this.containerSizes[index] = 0;
+		}
+		this.lastStructureIndex = index;
+	}
+
+	//========================================
+
+	/**
+	 * The exception thrown in feeding mode when the fed characters end in the middle of a token. It is preallocated
+	 * and has no stack trace. Since the suppression of an {@link IOException} cannot be disabled, each reader has its
+	 * own instance, so that it is never shared between threads.
+	 */
+	final @NotNull IOException needMoreInput = new IOException("Need more input!") {
+		@Override
+		public synchronized @NotNull Throwable fillInStackTrace() {
+			return this;
+		}
+	};
+
+	/**
+	 * Whether the input is fed by a {@link JsonFeeder}.
+	 */
+	private final boolean feeding;
+
+	/**
+	 * Whether the end of the fed input is reached.
+	 */
+	private boolean feedEnded;
+
+	private int savedPosition;
+	private int savedState;
+	private int savedStructureIndex;
+	private int savedUndo;
+	private @Nullable JsonTokenType savedPeeked;
+
+	/**
+	 * Append fed characters to the input buffer, keeping all characters which are not read yet.
+	 */
+	void feed(char @NotNull [] chars, int offset, int length) {
+		final int remaining = limit - position;
+		if (remaining + length > buffer.length) {
+			final char[] newBuffer = new char[Math.max(buffer.length * 2, remaining + length)];
+			System.arraycopy(buffer, position, newBuffer, 0, remaining);
+			this.buffer = newBuffer;
+		} else if (position > 0) {
+			System.arraycopy(buffer, position, buffer, 0, remaining);
+		}
+		System.arraycopy(chars, offset, buffer, remaining, length);
+		this.position = 0;
+		this.limit = remaining + length;
+	}
+
+	/**
+	 * Mark the end of the fed input.
+	 */
+	void feedEnd() {
+		this.feedEnded = true;
+	}
+
+	/**
+	 * Save the current position and state before reading a token in feeding mode.
+	 */
+	void save() {
+		this.savedPosition = position;
+		this.savedState = state;
+		this.savedStructureIndex = lastStructureIndex;
+		this.savedUndo = undo;
+		this.savedPeeked = peeked;
+	}
+
+	/**
+	 * Restore the saved position and state after a token is interrupted by {@link #needMoreInput}, so the token can
+	 * be read again when more input is fed. The structure stack is restored by its index only, since the bits at or
+	 * below the saved index are never changed while reading a single token.
+	 */
+	void restore() {
+		this.position = savedPosition;
+		this.state = savedState;
+		this.lastStructureIndex = savedStructureIndex;
+		this.undo = savedUndo;
+		this.peeked = savedPeeked;
+	}
+
+	/**
+	 * Return the index of the current structure in the structure stack, or -1 if the reader is at the top level.
+	 */
+	int structureIndex() {
+		return lastStructureIndex;
+	}
+
+	/**
+	 * No token is interrupted.
+	 */
+	private static final int PARTIAL_NONE = 0;
+
+	/**
+	 * A String token is interrupted while scanning, its decoded characters are kept in {@link #builder}.
+	 */
+	private static final int PARTIAL_STRING = 1;
+
+	/**
+	 * A Number token is interrupted while scanning, its characters are kept in {@link #builder} and its scanning state
+	 * in {@link #numberPhase}, {@link #numberValue} and {@link #numberOverflow}.
+	 */
+	private static final int PARTIAL_NUMBER = 2;
+
+	/**
+	 * A String token is scanned, but the separator after it is interrupted.
+	 */
+	private static final int PARTIAL_STRING_END = 3;
+
+	/**
+	 * A Number token is scanned, but the separator after it is interrupted. Its type is kept in {@link #numberType}.
+	 */
+	private static final int PARTIAL_NUMBER_END = 4;
+
+	/**
+	 * A String token is interrupted while skipping, the number of its skipped characters is kept in
+	 * {@link #skippedLength}.
+	 */
+	private static final int PARTIAL_SKIPPED_STRING = 5;
+
+	/**
+	 * The token which is interrupted in feeding mode, and is resumed by {@link #nextFedToken()}.
+	 */
+	private int partial = PARTIAL_NONE;
+
+	private int numberPhase;
+	private long numberValue;
+	private boolean numberOverflow;
+	private int numberType;
+	private long skippedLength;
+
+	/**
+	 * Keep a token which is interrupted while scanning, so that it is resumed from the specified position instead of
+	 * being read again from its beginning. The consumed characters are dropped from the input buffer by the next
+	 * {@link #feed(char[], int, int)}.
+	 */
+	private void interrupt(int partial, int position) {
+		this.position = position;
+		this.undo = -1;
+		this.peeked = null;
+		this.partial = partial;
+		save();
+	}
+
+	/**
+	 * Return whether a token is interrupted in the middle and must be resumed by {@link #nextFedToken()} before
+	 * anything else is read.
+	 */
+	boolean isInterrupted() {
+		return partial != PARTIAL_NONE;
+	}
+
+	/**
+	 * Read the next token in feeding mode, see {@link #nextToken()}. Names, strings and numbers are scanned
+	 * incrementally: when the fed characters end in the middle of them, they are resumed where they stop by the next
+	 * call, so that a huge token costs a single pass over its characters.
+	 */
+	@NotNull JsonToken nextFedToken() throws IOException {
+		try {
+			if (!scanFedToken(false)) return nextToken();
+			// the value is scanned, so only the separator is read again if it is interrupted
+			save();
+			if (partial == PARTIAL_STRING_END) {
+				if (state == STATE_EXPECT_NAME || state == STATE_OBJECT_BEGIN_EXPECT_NAME_OR_OBJECT_END) {
+					consumeNameSeparator();
+					this.partial = PARTIAL_NONE;
+					return new JsonName(builder.toString());
+				}
+				consumeSeparator();
+				this.partial = PARTIAL_NONE;
+				return new JsonString(builder.toString());
+			}
+			consumeSeparator();
+			this.partial = PARTIAL_NONE;
+			final int type = numberType;
+			return type == NUMBER_LONG
+					? new JsonNumber(numberLong)
+					: type == NUMBER_BIG_INTEGER
+					? new JsonNumber(new BigInteger(builder.toString()))
+					: new JsonNumber(new BigDecimal(builder.toString()));
+		} catch (IOException exception) {
+			this.state = STATE_ERROR;
+			throw exception;
+		}
+	}
+
+	/**
+	 * Skip the next token in feeding mode without converting it to any object, see {@link #skipToken(JsonTokenType)}.
+	 * Names and strings are only checked without being decoded, and are resumed like {@link #nextFedToken()}.
+	 */
+	void skipFedToken() throws IOException {
+		try {
+			if (!scanFedToken(true)) {
+				skipToken(peek());
+				return;
+			}
+			save();
+			if (partial == PARTIAL_STRING_END
+					&& (state == STATE_EXPECT_NAME || state == STATE_OBJECT_BEGIN_EXPECT_NAME_OR_OBJECT_END)) {
+				consumeNameSeparator();
+			} else {
+				consumeSeparator();
+			}
+			this.partial = PARTIAL_NONE;
+		} catch (IOException exception) {
+			this.state = STATE_ERROR;
+			throw exception;
+		}
+	}
+
+	/**
+	 * Scan the next or the interrupted name, string or number, without the separator after it. Return {@code false}
+	 * without consuming anything if the next token is any other token. If {@code skip} is {@code true}, names and
+	 * strings are only checked without being decoded.
+	 */
+	private boolean scanFedToken(boolean skip) throws IOException {
+		switch (partial) {
+			case PARTIAL_NONE -> {
+				final JsonTokenType type = peek();
+				if (type == JsonTokenType.NAME || type == JsonTokenType.STRING) {
+					this.peeked = null;
+					if (skip) {
+						skipString();
+					} else {
+						string();
+					}
+					this.partial = PARTIAL_STRING_END;
+				} else if (type == JsonTokenType.NUMBER) {
+					this.peeked = null;
+					this.numberType = number();
+					this.partial = PARTIAL_NUMBER_END;
+				} else {
+					return false;
+				}
+			}
+			case PARTIAL_STRING -> {
+				stringCharacters();
+				this.partial = PARTIAL_STRING_END;
+			}
+			case PARTIAL_SKIPPED_STRING -> {
+				// a skipped string is only interrupted while skipping, which continues until it is done
+				assert skip;
+				skipStringCharacters(skippedLength);
+				this.partial = PARTIAL_STRING_END;
+			}
+			case PARTIAL_NUMBER -> {
+				this.numberType = number(numberPhase, numberValue, numberOverflow);
+				this.partial = PARTIAL_NUMBER_END;
+			}
+		}
+		return true;
+	}
+
+	//========================================
+
+	/**
+	 * The codepoint that has been undone reading.
+	 */
+	private int undo = -1;
+
+	/**
+	 * Undo reading a codepoint.
+	 */
+	private void undo(int undo) {
+		// assert undo < 0;
+		this.undo = undo;
+	}
+
+	/**
+	 * Get next codepoint.
+	 */
+	private int read() throws IOException {
+		final int undo = this.undo;
+		if (undo < 0) {
+			if (position >= limit && !fill()) return -1;
+			final char u0 = buffer[position++];
+			if (!Character.isSurrogate(u0)) {
+				// normal character
+				return u0;
+			}
+			if (Character.isHighSurrogate(u0) && (position < limit || fill())) {
+				final char u1 = buffer[position];
+				if (Character.isLowSurrogate(u1)) {
+					// extended character
+					this.position += 1;
+					return Character.toCodePoint(u0, u1);
+				}
+			}
+			// invalid/incomplete pair
+			throw error(JsonError.INVALID_ENCODING, "Invalid input surrogate pair.");
+		} else {
+			this.undo = -1;
+			return undo;
+		}
+	}
+
+	/**
+	 * Get next character, skip all allowed whitespaces.
+	 */
+	private int readNonWhitespace() throws IOException {
+		while (true) {
+			final int character = read();
+			switch (character) {
+				case '\t', '\n', '\r', ' ' -> {
+				}
+				default -> {
+					return character;
+				}
+			}
+		}
+	}
+
+	//========================================
+
+	/**
+	 * Last states of the reader's state machine. This bit set will be used as a stack of state. A bit with value 0
+	 * indicates the reader is currently inside an object. A bit with value 1 indicates the reader is currently inside
+	 * an array.
+	 */
+	private final @NotNull BitSet lastStructures = new BitSet();
+
+	/**
+	 * Last index of last states array. An index smaller than 0 indicates the reader is at the top level, any other
+	 * value indicate the reader is inside an object or an array.
+	 */
+	private int lastStructureIndex = -1;
+
+	/**
+	 * This state indicates that the reader is in error state, nothing else can be done except throwing.
+	 */
+	private static final int STATE_ERROR = -2;
+
+	/**
+	 * This state indicates that the reader is closed.
+	 */
+	private static final int STATE_CLOSED = -1;
+
+	/**
+	 * This state indicates that the reader expects the next token is a Name.
+	 */
+	private static final int STATE_EXPECT_NAME = 0;
+
+	/**
+	 * This state indicates that the reader expects the next token is a Name or an ObjectEnd.
+	 */
+	private static final int STATE_OBJECT_BEGIN_EXPECT_NAME_OR_OBJECT_END = 1;
+
+	/**
+	 * This state indicates that the reader expects the next token is a Value.
+	 */
+	private static final int STATE_EXPECT_VALUE = 2;
+
+	/**
+	 * This state indicates that the reader expects the next token is a Value or an ArrayEnd.
+	 */
+	private static final int STATE_ARRAY_BEGIN_EXPECT_VALUE_OR_ARRAY_END = 3;
+
+	/**
+	 * This state indicates that the reader is already pass over an ArrayEnd token and now waiting to receive a
+	 * endStructure call.
+	 */
+	private static final int STATE_ARRAY_END = 4;
+
+	/**
+	 * This state indicates that the reader is already pass over an ObjectEnd token and now waiting to receive a
+	 * endStructure call.
+	 */
+	private static final int STATE_OBJECT_END = 5;
+
+	/**
+	 * This state indicates that the reader expects the next token is an EOF.
+	 */
+	private static final int STATE_EXPECT_DOCUMENT_END = 6;
+
+	/**
+	 * This state indicates that the reader is in multiple documents mode, and expects the next token is a Value or an
+	 * EOF.
+	 */
+	private static final int STATE_EXPECT_DOCUMENT = 7;
+
+	/**
+	 * Current state of the reader's state machine.
+	 */
+	private int state;
+
+	/**
+	 * The type of the next token, or {@code null} if the next token is not peeked yet. The first character of a
+	 * peeked value or name is kept in {@link #undo}.
+	 */
+	private @Nullable JsonTokenType peeked;
+
+	//========================================
+
+	/**
+	 * Whether the stack trace of the exceptions thrown by this reader is filled.
+	 */
+	private boolean stackTrace = JsonIOException.STACK_TRACE;
+
+	/**
+	 * Create an exception for an error in input JSON.
+	 */
+	private @NotNull JsonIOException error(@NotNull JsonError error, @NotNull String message) {
+		return new JsonIOException(error, message, stackTrace);
+	}
+
+	/**
+	 * Create an exception for an unexpected character, or for the unexpected end of input JSON if the character is
+	 * negative.
+	 */
+	private @NotNull JsonIOException unexpected(int c) {
+		return c < 0
+				? error(JsonError.UNEXPECTED_END, "Unexpected end of input JSON!")
+				: error(JsonError.UNEXPECTED_CHARACTER, "Unexpected character when parsing input JSON!");
+	}
+
+	/**
+	 * Checks to make sure that the stream has not been closed and the reader is not in error state.
+	 */
+	private void ensureOpenAndValid() throws IOException {
+		if (state == STATE_CLOSED) throw new IOException("Already closed!");
+		if (state == STATE_ERROR) throw error(JsonError.INVALID_STATE, "Reader is in error state!");
+		final StringValueReader streaming = this.streaming;
+		if (streaming != null) streaming.skipRemaining();
+	}
+
+	/**
+	 * Close the JSON reader, also close the underlying reader.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (state != STATE_CLOSED) {
+			reader.close();
+			lastStructures.clear();
+			this.peeked = null;
+			this.streaming = null;
+			this.state = STATE_CLOSED;
+		}
+	}
+
+	/**
+	 * Return the type of the next token without consuming it. Throws JsonException if there is an error while parsing
+	 * input JSON. Note: similar to {@link #nextToken()}, this method returns {@link JsonTokenType#ARRAY_END},
+	 * {@link JsonTokenType#OBJECT_END} or {@link JsonTokenType#EOF} repeatedly until the end is skipped over.
+	 */
+	public @NotNull JsonTokenType peek() throws IOException {
+		ensureOpenAndValid();
+		final JsonTokenType peeked = this.peeked;
+		if (peeked != null) return peeked;
+		try {
+			if (--countdown <= 0) checkCancellation();
+			return this.peeked = peekUnchecked();
+		} catch (IOException exception) {
+			this.state = STATE_ERROR;
+			throw exception;
+		}
+	}
+
+	/**
+	 * Find out the type of the next token. The first character of a name or a value is undone, while the end of an
+	 * array or an object is consumed and the state is set accordingly.
+	 */
+	private @NotNull JsonTokenType peekUnchecked() throws IOException {
+		switch (state) {
+			case STATE_EXPECT_NAME, STATE_OBJECT_BEGIN_EXPECT_NAME_OR_OBJECT_END -> {
+				final int c = readNonWhitespace();
+				if (c == '\"') {
+					undo(c);
+					return JsonTokenType.NAME;
+				} else if (c == '}') {
+					if (state == STATE_OBJECT_BEGIN_EXPECT_NAME_OR_OBJECT_END) {
+						this.state = STATE_OBJECT_END;
+					} else {
+						throw error(JsonError.UNEXPECTED_CHARACTER, "Unexpected closing character!");
+					}
+					return JsonTokenType.OBJECT_END;
+				}
+				throw unexpected(c);
+			}
+			case STATE_EXPECT_VALUE, STATE_ARRAY_BEGIN_EXPECT_VALUE_OR_ARRAY_END -> {
+				final int c = readNonWhitespace();
+				if (c == '\"') {
+					undo(c);
+					return JsonTokenType.STRING;
+				} else if (c >= '0' && c <= '9' || c == '-') {
+					undo(c);
+					return JsonTokenType.NUMBER;
+				} else if (c == 't' || c == 'f') {
+					undo(c);
+					return JsonTokenType.BOOLEAN;
+				} else if (c == 'n') {
+					undo(c);
+					return JsonTokenType.NULL;
+				} else if (c == '[') {
+					undo(c);
+					return JsonTokenType.ARRAY_BEGIN;
+				} else if (c == ']') {
+					// closing an empty Array, or catching a stray array closing character
+					if (state == STATE_ARRAY_BEGIN_EXPECT_VALUE_OR_ARRAY_END && lastStructureIndex >= 0) {
+						this.state = STATE_ARRAY_END;
+					} else {
+						throw error(JsonError.UNEXPECTED_CHARACTER, "Unexpected array closing character!");
+					}
+					return JsonTokenType.ARRAY_END;
+				} else if (c == '{') {
+					undo(c);
+					return JsonTokenType.OBJECT_BEGIN;
+				} else if (c < 0) {
+					throw lastStructureIndex < 0
+							? error(JsonError.UNEXPECTED_END, "Empty JSON document is invalid!")
+							: unexpected(c);
+				}
+				throw unexpected(c);
+			}
+			case STATE_ARRAY_END -> {
+				return JsonTokenType.ARRAY_END;
+			}
+			case STATE_OBJECT_END -> {
+				return JsonTokenType.OBJECT_END;
+			}
+			case STATE_EXPECT_DOCUMENT_END -> {
+				final int c = readNonWhitespace();
+				if (c < 0) return JsonTokenType.EOF;
+				throw error(JsonError.UNEXPECTED_CHARACTER, "Unexpected character at the end of the document!");
+			}
+			case STATE_EXPECT_DOCUMENT -> {
+				final int c = readNonWhitespace();
+				if (c < 0) return JsonTokenType.EOF;
+				// start of the next document
+				undo(c);
+				this.state = STATE_EXPECT_VALUE;
+				return peekUnchecked();
+			}
+			default -> throw new AssertionError();
+		}
+	}
+
+	/**
+	 * Parse next token and return token. Throws JsonException if there is an error while parsing input JSON. Note: This
+	 * method will not skip the array end token and the object end token, instead it returns
+	 * {@link JsonTokens#ARRAY_END} or {@link JsonTokens#OBJECT_END} repeatedly.
+	 */
+	public @NotNull JsonToken nextToken() throws IOException {
+		return switch (peek()) {
+			case NAME -> new JsonName(nextName());
+			case STRING -> new JsonString(nextString());
+			case NUMBER -> nextNumber();
+			case BOOLEAN -> JsonKeyword.of(nextBoolean());
+			case NULL -> {
+				nextNull();
+				yield JsonKeyword.NULL;
+			}
+			case ARRAY_BEGIN -> {
+				beginArray();
+				yield JsonTokens.ARRAY_BEGIN;
+			}
+			case ARRAY_END -> JsonTokens.ARRAY_END;
+			case OBJECT_BEGIN -> {
+				beginObject();
+				yield JsonTokens.OBJECT_BEGIN;
+			}
+			case OBJECT_END -> JsonTokens.OBJECT_END;
+			case EOF -> JsonTokens.EOF;
+		};
+	}
+
+	/**
+	 * Consume the beginning of an array. Throws {@link JsonValueException} if the next token is not
+	 * {@link JsonTokenType#ARRAY_BEGIN}.
+	 */
+	public void beginArray() throws IOException {
+		if (peek() != JsonTokenType.ARRAY_BEGIN) throw new JsonValueException("Not an Array!");
+		// push Array to the structure stack
+		// set next expected token to be a Value
+		this.peeked = null;
+		this.undo = -1;
+		this.state = STATE_ARRAY_BEGIN_EXPECT_VALUE_OR_ARRAY_END;
+		pushStructure(true);
+	}
+
+	/**
+	 * Consume the beginning of an object. Throws {@link JsonValueException} if the next token is not
+	 * {@link JsonTokenType#OBJECT_BEGIN}.
+	 */
+	public void beginObject() throws IOException {
+		if (peek() != JsonTokenType.OBJECT_BEGIN) throw new JsonValueException("Not an Object!");
+		// push Object to the structure stack
+		// set next expected token to be a Name
+		this.peeked = null;
+		this.undo = -1;
+		this.state = STATE_OBJECT_BEGIN_EXPECT_NAME_OR_OBJECT_END;
+		pushStructure(false);
+	}
+
+	/**
+	 * Consume a name and return its value. Throws {@link JsonValueException} if the next token is not
+	 * {@link JsonTokenType#NAME}.
+	 */
+	public @NotNull String nextName() throws IOException {
+		if (peek() != JsonTokenType.NAME) throw new JsonValueException("Not a Name!");
+		try {
+			this.peeked = null;
+			final String name = stringOrName();
+			consumeNameSeparator();
+			return name;
+		} catch (IOException exception) {
+			this.state = STATE_ERROR;
+			throw exception;
+		}
+	}
+
+	/**
+	 * Consume a name and return its ordinal in the specified {@link JsonNameTable}, or -1 if the name is not in the
+	 * table. The name is matched directly from the input, no {@link String} is created. Throws
+	 * {@link JsonValueException} if the next token is not {@link JsonTokenType#NAME}.
+	 */
+	public int nextName(@NotNull JsonNameTable table) throws IOException {
+		if (peek() != JsonTokenType.NAME) throw new JsonValueException("Not a Name!");
+		try {
+			this.peeked = null;
+			if (read() != '"') throw new AssertionError(); // safeguard
+			int node = JsonNameTable.ROOT;
+			while (true) {
+				final int c = stringCharacter();
+				if (c < 0) break;
+				if (c < Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+					node = table.next(node, (char) c);
+				} else {
+					node = table.next(table.next(node, Character.highSurrogate(c)), Character.lowSurrogate(c));
+				}
+			}
+			consumeNameSeparator();
+			return table.ordinal(node);
+		} catch (IOException exception) {
+			this.state = STATE_ERROR;
+			throw exception;
+		}
+	}
+
+	/**
+	 * Consume a string value and return it. Throws {@link JsonValueException} if the next token is not
+	 * {@link JsonTokenType#STRING}.
+	 */
+	public @NotNull String nextString() throws IOException {
+		if (peek() != JsonTokenType.STRING) throw new JsonValueException("Not a String!");
+		try {
+			this.peeked = null;
+			final String string = stringOrName();
+			consumeSeparator();
+			return string;
+		} catch (IOException exception) {
+			this.state = STATE_ERROR;
+			throw exception;
+		}
+	}
+
+	/**
+	 * Consume a name and return its decoded text, without creating a {@link String}. The returned text is only valid
+	 * until the next token is read. Throws {@link JsonValueException} if the next token is not
+	 * {@link JsonTokenType#NAME}.
+	 */
+	@NotNull CharSequence nextNameText() throws IOException {
+		if (peek() != JsonTokenType.NAME) throw new JsonValueException("Not a Name!");
+		try {
+			this.peeked = null;
+			string();
+			consumeNameSeparator();
+			return builder;
+		} catch (IOException exception) {
+			this.state = STATE_ERROR;
+			throw exception;
+		}
+	}
+
+	/**
+	 * Consume a string value and return its decoded text, without creating a {@link String}. The returned text is
+	 * only valid until the next token is read. Throws {@link JsonValueException} if the next token is not
+	 * {@link JsonTokenType#STRING}.
+	 */
+	@NotNull CharSequence nextStringText() throws IOException {
+		if (peek() != JsonTokenType.STRING) throw new JsonValueException("Not a String!");
+		try {
+			this.peeked = null;
+			string();
+			consumeSeparator();
+			return builder;
+		} catch (IOException exception) {
+			this.state = STATE_ERROR;
+			throw exception;
+		}
+	}
+
+	/**
+	 * Consume a name and return a {@link Reader} which decodes it incrementally from the input, so that a huge name
+	 * is never held in memory as a whole. The returned reader must be read to the end or closed before using this
+	 * reader again, otherwise the remaining characters are skipped at the next call. Throws
+	 * {@link JsonValueException} if the next token is not {@link JsonTokenType#NAME}.
+	 */
+	public @NotNull Reader nextNameReader() throws IOException {
+		if (peek() != JsonTokenType.NAME) throw new JsonValueException("Not a Name!");
+		return openStreaming(true);
+	}
+
+	/**
+	 * Consume a string value and return a {@link Reader} which decodes it incrementally from the input, so that a huge
+	 * string is never held in memory as a whole. The returned reader must be read to the end or closed before using
+	 * this reader again, otherwise the remaining characters are skipped at the next call. Throws
+	 * {@link JsonValueException} if the next token is not {@link JsonTokenType#STRING}.
+	 */
+	public @NotNull Reader nextStringReader() throws IOException {
+		if (peek() != JsonTokenType.STRING) throw new JsonValueException("Not a String!");
+		return openStreaming(false);
+	}
+
+	/**
+	 * Consume a string value containing base64 encoded binary data (RFC 4648, with optional padding) and return the
+	 * decoded bytes. The data is decoded directly from the input without creating a {@link String}. Throws
+	 * {@link JsonValueException} if the next token is not {@link JsonTokenType#STRING}. Also throws
+	 * {@link JsonValueException} if the string is not valid base64, in which case the string is already consumed.
+	 */
+	public byte @NotNull [] nextBinary() throws IOException {
+		if (peek() != JsonTokenType.STRING) throw new JsonValueException("Not a String!");
+		final int count;
+		try {
+			this.peeked = null;
+			count = binary(null);
+			consumeSeparator();
+		} catch (IOException exception) {
+			this.state = STATE_ERROR;
+			throw exception;
+		}
+		final byte[] bytes = this.bytes;
+		// do not keep a huge buffer after decoding a huge binary value
+		if (bytes.length > BUFFER_SIZE) this.bytes = EMPTY_BYTES;
+		if (count < 0) throw new JsonValueException("Not a Binary!");
+		return Arrays.copyOf(bytes, count);
+	}
+
+	/**
+	 * Consume a string value containing base64 encoded binary data and decode it directly into the target buffer,
+	 * advancing its position. Return the number of decoded bytes. See {@link #nextBinary()}. Throws
+	 * {@link java.nio.BufferOverflowException} if the decoded bytes do not fit in the remaining space of the target,
+	 * after which this reader is in error state.
+	 */
+	public int nextBinary(@NotNull ByteBuffer target) throws IOException {
+		if (peek() != JsonTokenType.STRING) throw new JsonValueException("Not a String!");
+		final int count;
+		try {
+			this.peeked = null;
+			count = binary(target);
+			consumeSeparator();
+		} catch (IOException | RuntimeException exception) {
+			this.state = STATE_ERROR;
+			throw exception;
+		}
+		if (count < 0) throw new JsonValueException("Not a Binary!");
+		return count;
+	}
+
+	private @NotNull Reader openStreaming(boolean name) throws IOException {
+		this.peeked = null;
+		if (read() != '"') throw new AssertionError(); // safeguard
+		return this.streaming = new StringValueReader(name);
+	}
+
+	/**
+	 * Consume a number value and return its text as in the input, without converting it. The returned text is only
+	 * valid until the next token is read. Throws {@link JsonValueException} if the next token is not
+	 * {@link JsonTokenType#NUMBER}.
+	 */
+	@NotNull CharSequence nextNumberText() throws IOException {
+		numberToken();
+		return builder;
+	}
+
+	/**
+	 * Consume a number value and return the corresponding {@link JsonNumber}. Throws {@link JsonValueException} if the
+	 * next token is not {@link JsonTokenType#NUMBER}.
+	 */
+	public @NotNull JsonNumber nextNumber() throws IOException {
+		final int type = numberToken();
+		return type == NUMBER_LONG
+				? new JsonNumber(numberLong)
+				: type == NUMBER_BIG_INTEGER
+				? new JsonNumber(new BigInteger(builder.toString()))
+				: new JsonNumber(new BigDecimal(builder.toString()));
+	}
+
+	/**
+	 * Consume a number value and return it as a {@code long}. Throws {@link JsonValueException} if the next token is
+	 * not {@link JsonTokenType#NUMBER}. Also throws {@link JsonValueException} if the number is not an integer or does
+	 * not fit in a {@code long}, in which case the number is already consumed.
+	 */
+	public long nextLong() throws IOException {
+		if (numberToken() != NUMBER_LONG) throw new JsonValueException("Not a Long!");
+		return numberLong;
+	}
+
+	/**
+	 * Consume a number value and return the nearest {@code double} value. Throws {@link JsonValueException} if the next
+	 * token is not {@link JsonTokenType#NUMBER}. Also throws {@link JsonValueException} if the number is out of range
+	 * of a {@code double}, in which case the number is already consumed.
+	 */
+	public double nextDouble() throws IOException {
+		final double value = numberToken() == NUMBER_LONG ? (double) numberLong : numberDouble();
+		if (!Double.isFinite(value)) throw new JsonValueException("Not a Double!");
+		return value;
+	}
+
+	/**
+	 * Consume a number value, including the separator after it, and return the type of the number. The text of the
+	 * number is kept in {@link #builder}. Throws {@link JsonValueException} if the next token is not
+	 * {@link JsonTokenType#NUMBER}.
+	 */
+	private int numberToken() throws IOException {
+		if (peek() != JsonTokenType.NUMBER) throw new JsonValueException("Not a Number!");
+		try {
+			this.peeked = null;
+			final int type = number();
+			consumeSeparator();
+			return type;
+		} catch (IOException exception) {
+			this.state = STATE_ERROR;
+			throw exception;
+		}
+	}
+
+	/**
+	 * Consume an array of integer numbers and return them. The numbers are read directly without creating any token
+	 * object. Throws {@link JsonValueException} if the next value is not an array, if an element is not
+	 * {@link JsonTokenType#NUMBER}, in which case the reader stops before the element, or if an element is not a
+	 * {@code long}, in which case the element is already consumed.
+	 */
+	public long @NotNull [] nextLongArray() throws IOException {
+		beginArray();
+		long[] values = new long[16];
+		int count = 0;
+		while (true) {
+			final int read = nextLongs(values, count, values.length - count);
+			count += read;
+			if (count < values.length) break;
+			values = Arrays.copyOf(values, values.length * 2);
+		}
+		endStructure();
+		return Arrays.copyOf(values, count);
+	}
+
+	/**
+	 * Consume an array of integer numbers and return them. See {@link #nextLongArray()}. Throws
+	 * {@link JsonValueException} if an element is not an {@code int}, in which case the element is already consumed.
+	 */
+	public int @NotNull [] nextIntArray() throws IOException {
+		beginArray();
+		int[] values = new int[16];
+		int count = 0;
+		while (true) {
+			final int read = nextInts(values, count, values.length - count);
+			count += read;
+			if (count < values.length) break;
+			values = Arrays.copyOf(values, values.length * 2);
+		}
+		endStructure();
+		return Arrays.copyOf(values, count);
+	}
+
+	/**
+	 * Consume an array of numbers and return their nearest {@code double} values. See {@link #nextLongArray()}. Throws
+	 * {@link JsonValueException} if an element is out of range of a {@code double}, in which case the element is
+	 * already consumed.
+	 */
+	public double @NotNull [] nextDoubleArray() throws IOException {
+		beginArray();
+		double[] values = new double[16];
+		int count = 0;
+		while (true) {
+			final int read = nextDoubles(values, count, values.length - count);
+			count += read;
+			if (count < values.length) break;
+			values = Arrays.copyOf(values, values.length * 2);
+		}
+		endStructure();
+		return Arrays.copyOf(values, count);
+	}
+
+	/**
+	 * Consume the next integer numbers of the current array into the target, and return the number of values read. It
+	 * is less than the length only if the end of the array is reached, which is not consumed. The reader state is
+	 * checked once for all the values. Throws {@link IllegalStateException} if the reader is not in an array, and
+	 * {@link JsonValueException} as {@link #nextLongArray()}.
+	 */
+	public int nextLongs(long @NotNull [] target, int offset, int length) throws IOException {
+		Objects.checkFromIndexSize(offset, length, target.length);
+		ensureInArray();
+		try {
+			int count = 0;
+			while (count < length) {
+				final int type = arrayNumber();
+				if (type < 0) break;
+				if (type != NUMBER_LONG) throw new JsonValueException("Not a Long!");
+				target[offset + count++] = numberLong;
+			}
+			return count;
+		} catch (IOException exception) {
+			this.state = STATE_ERROR;
+			throw exception;
+		}
+	}
+
+	/**
+	 * Consume the next integer numbers of the current array into the target. See {@link #nextLongs(long[], int, int)}.
+	 */
+	public int nextInts(int @NotNull [] target, int offset, int length) throws IOException {
+		Objects.checkFromIndexSize(offset, length, target.length);
+		ensureInArray();
+		try {
+			int count = 0;
+			while (count < length) {
+				final int type = arrayNumber();
+				if (type < 0) break;
+				final long value = numberLong;
+				if (type != NUMBER_LONG || value != (int) value) throw new JsonValueException("Not an Int!");
+				target[offset + count++] = (int) value;
+			}
+			return count;
+		} catch (IOException exception) {
+			this.state = STATE_ERROR;
+			throw exception;
+		}
+	}
+
+	/**
+	 * Consume the next numbers of the current array into the target as their nearest {@code double} values. See
+	 * {@link #nextLongs(long[], int, int)}.
+	 */
+	public int nextDoubles(double @NotNull [] target, int offset, int length) throws IOException {
+		Objects.checkFromIndexSize(offset, length, target.length);
+		ensureInArray();
+		try {
+			int count = 0;
+			while (count < length) {
+				final int type = arrayNumber();
+				if (type < 0) break;
+				final double value = type == NUMBER_LONG ? (double) numberLong : numberDouble();
+				if (!Double.isFinite(value)) throw new JsonValueException("Not a Double!");
+				target[offset + count++] = value;
+			}
+			return count;
+		} catch (IOException exception) {
+			this.state = STATE_ERROR;
+			throw exception;
+		}
+	}
+
+	/**
+	 * Check that the reader is valid and is in an array.
+	 */
+	private void ensureInArray() throws IOException {
+		ensureOpenAndValid();
+		if (lastStructureIndex < 0 || !lastStructures.get(lastStructureIndex)) {
+			throw new IllegalStateException("Not in an array!");
+		}
+	}
+
+	/**
+	 * Consume the next number in the current array, including the separator after it, and return the type of the
+	 * number, or -1 if the end of the array is reached. Unlike {@link #numberToken()}, the reader state is not checked.
+	 */
+	private int arrayNumber() throws IOException {
+		JsonTokenType type = this.peeked;
+		if (type == null) {
+			if (--countdown <= 0) checkCancellation();
+			type = peekUnchecked();
+		}
+		if (type == JsonTokenType.NUMBER) {
+			this.peeked = null;
+			final int number = number();
+			consumeSeparator();
+			return number;
+		}
+		this.peeked = type;
+		if (type == JsonTokenType.ARRAY_END) return -1;
+		throw new JsonValueException("Not a Number!");
+	}
+
+	/**
+	 * Consume a boolean value and return it. Throws {@link JsonValueException} if the next token is not
+	 * {@link JsonTokenType#BOOLEAN}.
+	 */
+	public boolean nextBoolean() throws IOException {
+		if (peek() != JsonTokenType.BOOLEAN) throw new JsonValueException("Not a Boolean!");
+		try {
+			this.peeked = null;
+			final int c = read();
+			if (c == 't') {
+				if (read() == 'r' && read() == 'u' && read() == 'e') {
+					consumeSeparator();
+					return true;
+				}
+			} else if (c == 'f') {
+				if (read() == 'a' && read() == 'l' && read() == 's' && read() == 'e') {
+					consumeSeparator();
+					return false;
+				}
+			}
+			throw error(JsonError.UNEXPECTED_CHARACTER, "Unexpected character when parsing input JSON!");
+		} catch (IOException exception) {
+			this.state = STATE_ERROR;
+			throw exception;
+		}
+	}
+
+	/**
+	 * Consume a null value. Throws {@link JsonValueException} if the next token is not {@link JsonTokenType#NULL}.
+	 */
+	public void nextNull() throws IOException {
+		if (peek() != JsonTokenType.NULL) throw new JsonValueException("Not a Null!");
+		try {
+			this.peeked = null;
+			if (read() == 'n' && read() == 'u' && read() == 'l' && read() == 'l') {
+				consumeSeparator();
+				return;
+			}
+			throw error(JsonError.UNEXPECTED_CHARACTER, "Unexpected character when parsing input JSON!");
+		} catch (IOException exception) {
+			this.state = STATE_ERROR;
+			throw exception;
+		}
+	}
+
+	/**
+	 * Consume the colon after a name and set state accordingly.
+	 */
+	private void consumeNameSeparator() throws IOException {
+		final int c = readNonWhitespace();
+		if (c != ':') throw unexpected(c);
+		this.state = STATE_EXPECT_VALUE;
+	}
+
+	/**
+	 * Consume structure separator after a value and set state accordingly. This includes comma, array close bracket and
+	 * object close bracket.
+	 */
+	private void consumeSeparator() throws IOException {
+		if (lastStructureIndex >= 0) {
+			// the reader is inside an object or an array
+			final int c = readNonWhitespace();
+			switch (c) {
+				case ',' -> {
+					// not end of object/array yet
+					final int[] containerSizes = this.containerSizes;
+					if (containerSizes != null && ++containerSizes[lastStructureIndex] >= maxContainerSize) {
+						throw error(JsonError.LIMIT_EXCEEDED, "Maximum container size exceeded!");
+					}
+					this.state = lastStructures.get(lastStructureIndex)
+							? STATE_EXPECT_VALUE // array
+							: STATE_EXPECT_NAME; // object
+				}
+				case ']' -> {
+					// end of array. Checking the closing character...
+					if (lastStructures.get(lastStructureIndex)) {
+						this.state = STATE_ARRAY_END;
+					} else {
+						throw error(JsonError.UNEXPECTED_CHARACTER, "Invalid closing character for object!");
+					}
+				}
+				case '}' -> {
+					// end of object. Checking the closing character...
+					if (!lastStructures.get(lastStructureIndex)) {
+						this.state = STATE_OBJECT_END;
+					} else {
+						throw error(JsonError.UNEXPECTED_CHARACTER, "Invalid closing character for array!");
+					}
+				}
+				default -> throw c < 0
+						? error(JsonError.UNEXPECTED_END, "Unexpected end of input JSON!")
+						: error(JsonError.UNEXPECTED_CHARACTER, "Unexpected character after a value!");
+			}
+		} else {
+			// the reader is at the top level, expect an EOF or the next document
+			this.state = multipleDocuments ? STATE_EXPECT_DOCUMENT : STATE_EXPECT_DOCUMENT_END;
+		}
+	}
+
+	//========================================
+
+	/**
+	 * Scratch buffer for the text of the last string, name or number.
+	 */
+	private @NotNull StringBuilder builder = new StringBuilder();
+
+	/**
+	 * The number scanned by {@link #number()} is an integer that fits in a {@code long}. The value is saved in
+	 * {@link #numberLong}.
+	 */
+	private static final int NUMBER_LONG = 0;
+
+	/**
+	 * The number scanned by {@link #number()} is an integer that does not fit in a {@code long}.
+	 */
+	private static final int NUMBER_BIG_INTEGER = 1;
+
+	/**
+	 * The number scanned by {@link #number()} is a decimal.
+	 */
+	private static final int NUMBER_DECIMAL = 2;
+
+	/**
+	 * The value of the last scanned number if it is an integer that fits in a {@code long}.
+	 */
+	private long numberLong;
+
+	/**
+	 * Exact powers of ten representable by a {@code double}.
+	 */
+	private static final double @NotNull [] POWERS_OF_TEN = {
+			1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+			1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+	};
+
+	/**
+	 * The phases of scanning a number, which are kept in feeding mode when a number is interrupted, so that the
+	 * scanning is resumed instead of started again. Each phase is entered with its first character already read.
+	 */
+	private static final int PHASE_SIGN = 0;
+	private static final int PHASE_INTEGER_FIRST = 1;
+	private static final int PHASE_INTEGER = 2;
+	private static final int PHASE_INTEGER_END = 3;
+	private static final int PHASE_FRACTION_FIRST = 4;
+	private static final int PHASE_FRACTION = 5;
+	private static final int PHASE_FRACTION_END = 6;
+	private static final int PHASE_EXPONENT_SIGN = 7;
+	private static final int PHASE_EXPONENT_FIRST = 8;
+	private static final int PHASE_EXPONENT = 9;
+
+	/**
+	 * Consume a Number token, save its text to {@link #builder} and return the type of the number. If the number is
+	 * an integer that fits in a {@code long}, the value is also saved to {@link #numberLong}.
+	 */
+	private int number() throws IOException {
+		builder.setLength(0);
+		return number(PHASE_SIGN, 0, false);
+	}
+
+	/**
+	 * Continue scanning a Number token from the specified phase. The value of the integer part is accumulated
+	 * negatively, since the negative range is larger. In feeding mode, the phase and the value are saved when the fed
+	 * characters end, see {@link #interrupt(int, int)}.
+	 */
+	private int number(int phase, long value, boolean overflow) throws IOException {
+		final StringBuilder builder = this.builder;
+		// the length is checked in each digit loop, so that a huge number is never buffered as a whole
+		final int maxLength = maxNumberLength;
+		try {
+			int c = read();
+			while (true) {
+				switch (phase) {
+					case PHASE_SIGN -> {
+						phase = PHASE_INTEGER_FIRST;
+						if (c == '-') {
+							builder.append('-');
+							c = read();
+						}
+					}
+					case PHASE_INTEGER_FIRST -> {
+						if (c == '0') {
+							// zero suffix
+							builder.append('0');
+							phase = PHASE_INTEGER_END;
+							c = read();
+						} else if (c >= '1' && c <= '9') {
+							phase = PHASE_INTEGER;
+						} else {
+							throw error(JsonError.INVALID_NUMBER, "Invalid character in integer part of number!");
+						}
+					}
+					case PHASE_INTEGER -> {
+						while (c >= '0' && c <= '9') {
+							builder.append((char) c);
+							if (builder.length() > maxLength) throw numberTooLong();
+							if (!overflow) {
+								final int digit = c - '0';
+								if (value < Long.MIN_VALUE / 10 || (value *= 10) < Long.MIN_VALUE + digit) {
+									overflow = true;
+								} else {
+									value -= digit;
+								}
+							}
+							c = read();
+						}
+						phase = PHASE_INTEGER_END;
+					}
+					case PHASE_INTEGER_END -> {
+						if (c == '.') {
+							builder.append('.');
+							phase = PHASE_FRACTION_FIRST;
+							c = read();
+						} else if (c == 'e' || c == 'E') {
+							builder.append((char) c);
+							phase = PHASE_EXPONENT_SIGN;
+							c = read();
+						} else {
+							undo(c);
+							if (builder.length() > maxLength) throw numberTooLong();
+							final boolean negative = builder.charAt(0) == '-';
+							if (overflow || !negative && value == Long.MIN_VALUE) return NUMBER_BIG_INTEGER;
+							this.numberLong = negative ? value : -value;
+							return NUMBER_LONG;
+						}
+					}
+					case PHASE_FRACTION_FIRST -> {
+						// at least one digit
+						if (c < '0' || c > '9') {
+							throw error(JsonError.INVALID_NUMBER, "Invalid character in fraction part of number!");
+						}
+						phase = PHASE_FRACTION;
+					}
+					case PHASE_FRACTION -> {
+						while (c >= '0' && c <= '9') {
+							builder.append((char) c);
+							if (builder.length() > maxLength) throw numberTooLong();
+							c = read();
+						}
+						phase = PHASE_FRACTION_END;
+					}
+					case PHASE_FRACTION_END -> {
+						if (c == 'e' || c == 'E') {
+							builder.append((char) c);
+							phase = PHASE_EXPONENT_SIGN;
+							c = read();
+						} else {
+							undo(c);
+							return NUMBER_DECIMAL;
+						}
+					}
+					case PHASE_EXPONENT_SIGN -> {
+						phase = PHASE_EXPONENT_FIRST;
+						if (c == '+' || c == '-') {
+							builder.append((char) c);
+							c = read();
+						}
+					}
+					case PHASE_EXPONENT_FIRST -> {
+						// at least one digit
+						if (c < '0' || c > '9') {
+							throw error(JsonError.INVALID_NUMBER, "Invalid character in exponent part of number!");
+						}
+						phase = PHASE_EXPONENT;
+					}
+					case PHASE_EXPONENT -> {
+						while (c >= '0' && c <= '9') {
+							builder.append((char) c);
+							if (builder.length() > maxLength) throw numberTooLong();
+							c = read();
+						}
+						undo(c);
+						return NUMBER_DECIMAL;
+					}
+					default -> throw new AssertionError();
+				}
+			}
+		} catch (IOException exception) {
+			if (exception == needMoreInput) {
+				this.numberPhase = phase;
+				this.numberValue = value;
+				this.numberOverflow = overflow;
+				// an incomplete surrogate pair at the end of the fed characters is read again
+				final int position = this.position;
+				interrupt(PARTIAL_NUMBER, position > 0 && position == limit
+						&& Character.isHighSurrogate(buffer[position - 1]) ? position - 1 : position);
+			}
+			throw exception;
+		}
+	}
+
+	private @NotNull JsonIOException numberTooLong() {
+		return error(JsonError.LIMIT_EXCEEDED, "Maximum number length exceeded!");
+	}
 
 	/**
-	 * This state indicates that the reader is in error state, nothing else can be done except throwing.
+	 * Convert the text of the last scanned number to the nearest {@code double} value. Numbers with at most 15
+	 * significant digits and a small exponent are converted exactly using {@code double} arithmetic, others fall back
+	 * to {@link Double#parseDouble(String)}.
 	 */
-	private static final int STATE_ERROR = -2;
+	private double numberDouble() {
+		final StringBuilder builder = this.builder;
+		final int length = builder.length();
+		final boolean negative = builder.charAt(0) == '-';
+		long mantissa = 0;
+		int exponent = 0;
+		boolean fraction = false;
+		int index = negative ? 1 : 0;
+		for (; index < length; index++) {
+			final char c = builder.charAt(index);
+			if (c == '.') {
+				fraction = true;
+			} else if (c == 'e' || c == 'E') {
+				break;
+			} else if (mantissa < 100_000_000_000_000L) {
+				mantissa = mantissa * 10 + c - '0';
+				if (fraction) exponent -= 1;
+			} else {
+				// too many significant digits
+				return Double.parseDouble(builder.toString());
+			}
+		}
+		if (index < length) {
+			// the exponent, which is at most 4 digits for the fast path
+			index += 1;
+			final char sign = builder.charAt(index);
+			if (sign == '+' || sign == '-') index += 1;
+			if (length - index > 4) return Double.parseDouble(builder.toString());
+			int value = 0;
+			for (; index < length; index++) value = value * 10 + builder.charAt(index) - '0';
+			exponent += sign == '-' ? -value : value;
+		}
+		if (exponent < -22 || exponent > 22) return Double.parseDouble(builder.toString());
+		final double value = exponent < 0
+				? mantissa / POWERS_OF_TEN[-exponent]
+				: mantissa * POWERS_OF_TEN[exponent];
+		return negative ? -value : value;
+	}
 
 	/**
-	 * This state indicates that the reader is closed.
+	 * Consume a String token and return the {@link String} value.
 	 */
-	private static final int STATE_CLOSED = -1;
+	private @NotNull String stringOrName() throws IOException {
+		string();
+		return builder.toString();
+	}
 
 	/**
-	 * This state indicates that the reader expects the next token is a Name.
+	 * Consume a String token, including the open quote, and only check it without saving the value.
 	 */
-	private static final int STATE_EXPECT_NAME = 0;
+	private void skipString() throws IOException {
+		if (read() != '"') throw new AssertionError(); // safeguard
+		skipStringCharacters(0);
+	}
 
 	/**
-	 * This state indicates that the reader expects the next token is a Name or an ObjectEnd.
+	 * Consume the rest of a String token, including the close quote, and only check it without saving the value. The
+	 * length is the number of characters already consumed, which is counted for the limit. In feeding mode, the
+	 * skipping is resumed from the last complete character, see {@link #interrupt(int, int)}.
 	 */
-	private static final int STATE_OBJECT_BEGIN_EXPECT_NAME_OR_OBJECT_END = 1;
+	private void skipStringCharacters(long length) throws IOException {
+		// the position after the last complete character, and the length up to it
+		int mark = position;
+		long markLength = length;
+		try {
+			while (true) {
+				if (undo < 0) {
+					// fast path: skip a run of plain characters directly in the input buffer
+					final char[] buffer = this.buffer;
+					final int limit = this.limit;
+					int index = position;
+					while (index < limit) {
+						final char c = buffer[index];
+						if (c < ' ' || c == '"' || c == '\\' || Character.isSurrogate(c)) break;
+						index += 1;
+					}
+					length += index - position;
+					this.position = index;
+				}
+				mark = position;
+				markLength = length;
+				final int c = stringCharacter();
+				if (length > maxStringLength) throw error(JsonError.LIMIT_EXCEEDED, "Maximum string length exceeded!");
+				if (c < 0) return;
+				length += Character.charCount(c);
+			}
+		} catch (IOException exception) {
+			if (exception == needMoreInput) {
+				this.skippedLength = markLength;
+				interrupt(PARTIAL_SKIPPED_STRING, mark);
+			}
+			throw exception;
+		}
+	}
 
 	/**
-	 * This state indicates that the reader expects the next token is a Value.
+	 * The values of the base64 digits, or -1 for the characters which are not base64 digits.
 	 */
-	private static final int STATE_EXPECT_VALUE = 2;
+	private static final byte @NotNull [] BASE64_DIGITS = new byte[128];
+
+	static {
+		Arrays.fill(BASE64_DIGITS, (byte) -1);
+		final String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+		for (int index = 0; index < alphabet.length(); index++) BASE64_DIGITS[alphabet.charAt(index)] = (byte) index;
+	}
+
+	private static final byte @NotNull [] EMPTY_BYTES = new byte[0];
 
 	/**
-	 * This state indicates that the reader expects the next token is a Value or an ArrayEnd.
+	 * The decoded bytes of the last binary value which is not decoded to a target buffer.
 	 */
-	private static final int STATE_ARRAY_BEGIN_EXPECT_VALUE_OR_ARRAY_END = 3;
+	private byte @NotNull [] bytes = EMPTY_BYTES;
 
 	/**
-	 * This state indicates that the reader is already pass over an ArrayEnd token and now waiting to receive a
-	 * endStructure call.
+	 * Consume a String token, including the open quote, and decode its content as base64 to the target buffer, or to
+	 * {@link #bytes} if the target is {@code null}. Return the number of decoded bytes, or -1 if the content is not
+	 * valid base64, in which case the rest of the token is skipped.
 	 */
-	private static final int STATE_ARRAY_END = 4;
+	private int binary(@Nullable ByteBuffer target) throws IOException {
+		if (read() != '"') throw new AssertionError(); // safeguard
+		final byte[] digits = BASE64_DIGITS;
+		long length = 0;
+		int count = 0;
+		// the digits of the current group after a sentinel bit, similar to the unicode escape decoding
+		int group = 1;
+		int padding = 0;
+		while (true) {
+			if (undo < 0 && padding == 0) {
+				// fast path: decode a run of base64 digits directly from the input buffer
+				final char[] buffer = this.buffer;
+				final int limit = this.limit;
+				final int start = position;
+				int index = start;
+				while (index < limit) {
+					final char c = buffer[index];
+					final int digit = c < 128 ? digits[c] : -1;
+					if (digit < 0) break;
+					group = (group << 6) | digit;
+					index += 1;
+					if (group >= 1 << 24) {
+						count = binaryBytes(target, count, group, 3);
+						group = 1;
+					}
+				}
+				length += index - start;
+				this.position = index;
+			}
+			final int c = stringCharacter();
+			if (length > maxStringLength) throw error(JsonError.LIMIT_EXCEEDED, "Maximum string length exceeded!");
+			length += 1;
+			final int size = (31 - Integer.numberOfLeadingZeros(group)) / 6;
+			if (c < 0) {
+				// the end of the data, the last group is either complete or has at least 2 digits
+				if (size == 0) return count;
+				if (size == 1 || (padding > 0 && size + padding != 4)) return -1;
+				return binaryBytes(target, count, group << (6 * (4 - size)), size - 1);
+			}
+			final int digit = c < 128 ? digits[c] : -1;
+			if (digit >= 0 && padding == 0) {
+				group = (group << 6) | digit;
+				if (group >= 1 << 24) {
+					count = binaryBytes(target, count, group, 3);
+					group = 1;
+				}
+			} else if (c != '=' || size < 2 || size + ++padding > 4) {
+				skipStringCharacters(length);
+				return -1;
+			}
+		}
+	}
 
 	/**
-	 * This state indicates that the reader is already pass over an ObjectEnd token and now waiting to receive a
-	 * endStructure call.
+	 * Write the first bytes of a group of 24 bits to the target buffer, or to {@link #bytes} if the target is
+	 * {@code null}. Return the new number of decoded bytes.
 	 */
-	private static final int STATE_OBJECT_END = 5;
+	private int binaryBytes(@Nullable ByteBuffer target, int count, int group, int size) {
+		if (target != null) {
+			target.put((byte) (group >> 16));
+			if (size > 1) target.put((byte) (group >> 8));
+			if (size > 2) target.put((byte) group);
+		} else {
+			byte[] bytes = this.bytes;
+			if (count + 3 > bytes.length) {
+				this.bytes = bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, 64));
+			}
+			bytes[count] = (byte) (group >> 16);
+			bytes[count + 1] = (byte) (group >> 8);
+			bytes[count + 2] = (byte) group;
+		}
+		return count + size;
+	}
 
 	/**
-	 * This state indicates that the reader expects the next token is an EOF.
+	 * The reader of the string value or name which is being streamed, or {@code null} if there is none.
 	 */
-	private static final int STATE_EXPECT_DOCUMENT_END = 6;
+	private @Nullable StringValueReader streaming;
 
 	/**
-	 * Current state of the reader's state machine.
+	 * The reader which decodes the rest of a String token incrementally. It is only valid while it is the
+	 * {@link #streaming} reader, after that it is at the end.
 	 */
-	private int state = STATE_EXPECT_VALUE;
+	private final class StringValueReader extends Reader {
+		private final boolean name;
+		private long length;
+		private int pending = -1;
 
-	//========================================
+		private StringValueReader(boolean name) {
+			this.name = name;
+		}
 
-	/**
-	 * Checks to make sure that the stream has not been closed and the reader is not in error state.
-	 */
-	private void ensureOpenAndValid() throws IOException {
-		if (state == STATE_CLOSED) throw new IOException("Already closed!");
-		if (state == STATE_ERROR) throw new JsonIOException("Reader is in error state!");
+		@Override
+		public int read(char @NotNull [] target, int offset, int count) throws IOException {
+			Objects.checkFromIndexSize(offset, count, target.length);
+			if (streaming != this) return -1;
+			if (count == 0) return 0;
+			try {
+				return readCharacters(target, offset, offset + count);
+			} catch (IOException exception) {
+				JsonReader.this.streaming = null;
+				JsonReader.this.state = STATE_ERROR;
+				throw exception;
+			}
+		}
+
+		private int readCharacters(char @NotNull [] target, int offset, int end) throws IOException {
+			int index = offset;
+			if (pending >= 0) {
+				// the low surrogate of the last codepoint which did not fit
+				target[index++] = (char) pending;
+				this.pending = -1;
+			}
+			while (index < end) {
+				if (undo < 0) {
+					// fast path: copy a run of plain characters directly from the input buffer
+					final char[] buffer = JsonReader.this.buffer;
+					final int start = position;
+					final int stop = Math.min(limit, start + end - index);
+					int next = start;
+					while (next < stop) {
+						final char c = buffer[next];
+						if (c < ' ' || c == '"' || c == '\\' || Character.isSurrogate(c)) break;
+						next += 1;
+					}
+					final int count = next - start;
+					System.arraycopy(buffer, start, target, index, count);
+					this.length += count;
+					JsonReader.this.position = next;
+					index += count;
+					if (index >= end) break;
+				}
+				final int c = stringCharacter();
+				if (length > maxStringLength) throw error(JsonError.LIMIT_EXCEEDED, "Maximum string length exceeded!");
+				if (c < 0) {
+					finish();
+					break;
+				}
+				if (c < Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+					target[index++] = (char) c;
+					this.length += 1;
+				} else {
+					target[index++] = Character.highSurrogate(c);
+					this.length += 2;
+					if (index < end) {
+						target[index++] = Character.lowSurrogate(c);
+					} else {
+						this.pending = Character.lowSurrogate(c);
+					}
+				}
+			}
+			return index > offset ? index - offset : -1;
+		}
+
+		/**
+		 * Skip the rest of the String token without saving it.
+		 */
+		private void skipRemaining() throws IOException {
+			try {
+				skipStringCharacters(length);
+				finish();
+			} catch (IOException exception) {
+				JsonReader.this.streaming = null;
+				JsonReader.this.state = STATE_ERROR;
+				throw exception;
+			}
+		}
+
+		private void finish() throws IOException {
+			JsonReader.this.streaming = null;
+			if (name) {
+				consumeNameSeparator();
+			} else {
+				consumeSeparator();
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (streaming == this) skipRemaining();
+		}
 	}
 
 	/**
-	 * Close the JSON reader, also close the underlying reader.
+	 * Consume a String token, including the open quote, and save the decoded value to {@link #builder}.
 	 */
-	@Override
-	public void close() throws IOException {
-		if (state != STATE_CLOSED) {
-			reader.close();
-			lastStructures.clear();
-			this.state = STATE_CLOSED;
-		}
+	private void string() throws IOException {
+		builder.setLength(0);
+		if (read() != '"') throw new AssertionError(); // safeguard
+		stringCharacters();
 	}
 
 	/**
-	 * Parse next token and return token. Throws JsonException if there is an error while parsing input JSON. Note: This
-	 * method will not skip the array end token and the object end token, instead it returns
-	 * {@link JsonTokens#ARRAY_END} or {@link JsonTokens#OBJECT_END} repeatedly.
+	 * Consume the rest of a String token, including the close quote, and append the decoded value to
+	 * {@link #builder}. In feeding mode, the decoded characters are kept when the fed characters end, and the scanning
+	 * is resumed from the last complete character, see {@link #interrupt(int, int)}.
 	 */
-	public @NotNull JsonToken nextToken() throws IOException {
-		ensureOpenAndValid();
+	private void stringCharacters() throws IOException {
+		final StringBuilder builder = this.builder;
+		final char[] buffer = this.buffer;
+		// the position after the last complete character
+		int mark = position;
 		try {
-			switch (state) {
-				case STATE_EXPECT_NAME, STATE_OBJECT_BEGIN_EXPECT_NAME_OR_OBJECT_END -> {
-					// parse a name
-					final int c = readNonWhitespace();
-					if (c == '\"') {
-						final String string = stringOrName();
-						if (readNonWhitespace() == ':') {
-							this.state = STATE_EXPECT_VALUE;
-							return new JsonName(string);
-						}
-					} else if (c == '}') {
-						if (state == STATE_OBJECT_BEGIN_EXPECT_NAME_OR_OBJECT_END) {
-							this.state = STATE_OBJECT_END;
-						} else {
-							throw new JsonIOException("Unexpected closing character!");
-						}
-						return JsonTokens.OBJECT_END;
-					}
-					throw new JsonIOException("Unexpected character when parsing input JSON!");
-				}
-				case STATE_EXPECT_VALUE, STATE_ARRAY_BEGIN_EXPECT_VALUE_OR_ARRAY_END -> {
-					final int c = readNonWhitespace();
-					if (c == '\"') {
-						final String string = stringOrName();
-						consumeSeparator();
-						return new JsonString(string);
-					} else if (c >= '0' && c <= '9' || c == '-') {
-						final JsonNumber number = number(c);
-						consumeSeparator();
-						return number;
-					} else if (c == 't') {
-						if (read() == 'r' && read() == 'u' && read() == 'e') {
-							consumeSeparator();
-							return JsonKeyword.TRUE;
-						}
-					} else if (c == 'f') {
-						if (read() == 'a' && read() == 'l' && read() == 's' && read() == 'e') {
-							consumeSeparator();
-							return JsonKeyword.FALSE;
-						}
-					} else if (c == 'n') {
-						if (read() == 'u' && read() == 'l' && read() == 'l') {
-							consumeSeparator();
-							return JsonKeyword.NULL;
-						}
-					} else if (c == '[') {
-						// push Array to the structure stack
-						// set next expected token to be a Value
-						this.state = STATE_ARRAY_BEGIN_EXPECT_VALUE_OR_ARRAY_END;
-						lastStructures.set(++this.lastStructureIndex);
-						return JsonTokens.ARRAY_BEGIN;
-					} else if (c == ']') {
-						// closing an empty Array, or catching a stray array closing character
-						if (state == STATE_ARRAY_BEGIN_EXPECT_VALUE_OR_ARRAY_END && lastStructureIndex >= 0) {
-							this.state = STATE_ARRAY_END;
-						} else {
-							throw new JsonIOException("Unexpected array closing character!");
-						}
-						return JsonTokens.ARRAY_END;
-					} else if (c == '{') {
-						// push Object to the structure stack
-						// set next expected token to be a Name
-						this.state = STATE_OBJECT_BEGIN_EXPECT_NAME_OR_OBJECT_END;
-						lastStructures.clear(++this.lastStructureIndex);
-						return JsonTokens.OBJECT_BEGIN;
-					} else if (c < 0) {
-						throw new JsonIOException("Empty JSON document is invalid!");
+			while (true) {
+				if (undo < 0) {
+					// fast path: copy a run of plain characters directly from the input buffer
+					final int start = position;
+					final int limit = this.limit;
+					int index = start;
+					while (index < limit) {
+						final char c = buffer[index];
+						if (c < ' ' || c == '"' || c == '\\' || Character.isSurrogate(c)) break;
+						index += 1;
 					}
-					throw new JsonIOException("Unexpected character when parsing input JSON!");
+					builder.append(buffer, start, index - start);
+					this.position = index;
 				}
-				case STATE_ARRAY_END -> {
-					return JsonTokens.ARRAY_END;
+				mark = position;
+				final int c = stringCharacter();
+				if (builder.length() > maxStringLength) {
+					throw error(JsonError.LIMIT_EXCEEDED, "Maximum string length exceeded!");
 				}
-				case STATE_OBJECT_END -> {
-					return JsonTokens.OBJECT_END;
-				}
-				case STATE_EXPECT_DOCUMENT_END -> {
-					final int c = readNonWhitespace();
-					if (c < 0) return JsonTokens.EOF;
-					throw new JsonIOException("Unexpected character at the end of the document!");
-				}
-				default -> throw new AssertionError();
+				if (c < 0) return;
+				builder.appendCodePoint(c);
 			}
 		} catch (IOException exception) {
-			this.state = STATE_ERROR;
+			if (exception == needMoreInput) interrupt(PARTIAL_STRING, mark);
 			throw exception;
 		}
 	}
 
 	/**
-	 * Consume structure separator after a value and set state accordingly. This includes comma, array close bracket and
-	 * object close bracket.
+	 * Consume a character or an escape sequence in a String token and return the decoded codepoint, or -1 if the close
+	 * quote is consumed. Note that an unicode escape sequence is decoded to a single UTF-16 character, which can be a
+	 * part of a surrogate pair.
 	 */
-	private void consumeSeparator() throws IOException {
-		if (lastStructureIndex >= 0) {
-			// the reader is inside an object or an array
-			final int c = readNonWhitespace();
-			switch (c) {
-				case ',' ->
-					// not end of object/array yet
-						this.state = lastStructures.get(lastStructureIndex)
-								? STATE_EXPECT_VALUE // array
-								: STATE_EXPECT_NAME; // object
-				case ']' -> {
-					// end of array. Checking the closing character...
-					if (lastStructures.get(lastStructureIndex)) {
-						this.state = STATE_ARRAY_END;
-					} else {
-						throw new JsonIOException("Invalid closing character for object!");
-					}
-				}
-				case '}' -> {
-					// end of object. Checking the closing character...
-					if (!lastStructures.get(lastStructureIndex)) {
-						this.state = STATE_OBJECT_END;
+	private int stringCharacter() throws IOException {
+		final int c = read();
+		if (c >= ' ' && c != '\\' && c != '"') {
+			// the specification do have an upper limit for codepoint in string
+			// currently it is the same as the upper limit of the Unicode table
+			// here I deliberately skip the specification codepoint limit for future-proof
+			return c;
+		} else if (c == '\\') {
+			final int d = read();
+			if (d == '"' || d == '\\' || d == '/') {
+				return d;
+			} else if (d == 't') {
+				return '\t';
+			} else if (d == 'b') {
+				return '\b';
+			} else if (d == 'n') {
+				return '\n';
+			} else if (d == 'r') {
+				return '\r';
+			} else if (d == 'f') {
+				return '\f';
+			} else if (d == 'u') {
+				int result = 1;
+				do {
+					int e = read();
+					if (e >= '0' && e <= '9') {
+						result = (result << 4) + e - '0';
+					} else if (e >= 'A' && e <= 'F') {
+						result = (result << 4) + e - 'A' + 10;
+					} else if (e >= 'a' && e <= 'f') {
+						result = (result << 4) + e - 'a' + 10;
 					} else {
-						throw new JsonIOException("Invalid closing character for array!");
+						throw error(JsonError.INVALID_STRING, "Invalid escape sequence in string!");
 					}
-				}
-				default -> throw new JsonIOException("Unexpected character after a value!");
-			}
-		} else {
-			// the reader is at the top level, expect an EOF
-			this.state = STATE_EXPECT_DOCUMENT_END;
-		}
-	}
-
-	/**
-	 * Consume a Number token and return the corresponding {@link JsonNumber}.
-	 */
-	private @NotNull JsonNumber number(int startCp) throws IOException {
-		final StringBuilder builder = new StringBuilder();
-		boolean integer = true;
-		// first part: the integer
-		int c = startCp;
-		if (c == '-') {
-			// minus sign
-			builder.append('-');
-			c = read();
-		}
-		if (c == '0') {
-			// zero suffix
-			builder.append('0');
-			c = read();
-		} else if (c >= '1' && c <= '9') {
-			// digits
-			do {
-				builder.append((char) c);
-				c = read();
-			} while (c >= '0' && c <= '9');
-		} else {
-			throw new JsonIOException("Invalid character in integer part of number!");
-		}
-		// second part: fraction
-		if (c == '.') {
-			integer = false;
-			// set decimal
-			builder.append('.');
-			c = read();
-			// at least one digit
-			if (c >= '0' && c <= '9') {
-				// digits
-				do {
-					builder.append((char) c);
-					c = read();
-				} while (c >= '0' && c <= '9');
-			} else {
-				throw new JsonIOException("Invalid character in fraction part of number!");
-			}
-		}
-		// third part: exponent
-		if (c == 'e' || c == 'E') {
-			integer = false;
-			// set decimal
-			builder.append((char) c);
-			c = read();
-			// sign
-			if (c == '+' || c == '-') {
-				builder.append((char) c);
-				c = read();
-			}
-			// at least one digit
-			if (c >= '0' && c <= '9') {
-				// digits
-				do {
-					builder.append((char) c);
-					c = read();
-				} while (c >= '0' && c <= '9');
+				} while (result < 0x10000);
+				return result - 0x10000;
 			} else {
-				throw new JsonIOException("Invalid character in exponent part of number!");
+				throw error(JsonError.INVALID_STRING, "Invalid escape sequence in string!");
 			}
+		} else if (c == '"') {
+			return -1;
+		} else {
+			throw c < 0
+					? error(JsonError.UNEXPECTED_END, "Unexpected end of input JSON!")
+					: error(JsonError.INVALID_STRING, "Invalid character in string!");
 		}
-		undo(c);
-		final String number = builder.toString();
-		return integer
-				? new JsonNumber(new BigInteger(number))
-				: new JsonNumber(new BigDecimal(number));
 	}
 
-	/**
-	 * Consume a String token and return the {@link String} value.
-	 */
-	private @NotNull String stringOrName() throws IOException {
-		// the open quote are already consumed
-		final StringBuilder builder = new StringBuilder();
-		while (true) {
-			final int c = read();
-			if (c >= ' ' && c != '\\' && c != '"') {
-				// the specification do have an upper limit for codepoint in string
-				// currently it is the same as the upper limit of the Unicode table
-				// here I deliberately skip the specification codepoint limit for future-proof
-				builder.appendCodePoint(c);
-			} else if (c == '\\') {
-				final int d = read();
-				if (d == '"' || d == '\\' || d == '/') {
-					builder.append((char) d);
-				} else if (d == 't') {
-					builder.append('\t');
-				} else if (d == 'b') {
-					builder.append('\b');
-				} else if (d == 'n') {
-					builder.append('\n');
-				} else if (d == 'r') {
-					builder.append('\r');
-				} else if (d == 'f') {
-					builder.append('\f');
-				} else if (d == 'u') {
-					int result = 1;
-					do {
-						int e = read();
-						if (e >= '0' && e <= '9') {
-							result = (result << 4) + e - '0';
-						} else if (e >= 'A' && e <= 'F') {
-							result = (result << 4) + e - 'A' + 10;
-						} else if (e >= 'a' && e <= 'f') {
-							result = (result << 4) + e - 'a' + 10;
-						} else {
-							throw new JsonIOException("Invalid escape sequence in string!");
-						}
-					} while (result < 0x10000);
-					builder.appendCodePoint(result - 0x10000);
-				} else {
-					throw new JsonIOException("Invalid escape sequence in string!");
-				}
-			} else if (c == '"') {
-				return builder.toString();
-			} else {
-				throw new JsonIOException("Invalid character in string!");
-			}
-		}
-	}
+	//========================================
 
 	/**
 	 * Skip over the end of an array or an object. This method will also skip over any unread tokens before
-	 * {@link JsonTokens#ARRAY_END} or {@link JsonTokens#OBJECT_END}.
+	 * {@link JsonTokens#ARRAY_END} or {@link JsonTokens#OBJECT_END}. The skipped tokens are only checked, not
+	 * converted to any object.
 	 *
 	 * @throws IllegalStateException Throws if the parser is not currently inside an array or an object.
 	 * @throws JsonIOException       Throws if there is any error while parsing input JSON.
@@ -484,6 +2250,7 @@ public class JsonReader implements JsonInput {
 			if (state == STATE_ARRAY_END || state == STATE_OBJECT_END) {
 				// at the end of a structure
 				// pop structure stack
+				this.peeked = null;
 				this.lastStructureIndex -= 1;
 				consumeSeparator();
 			} else if (lastStructureIndex >= 0) {
@@ -491,10 +2258,12 @@ public class JsonReader implements JsonInput {
 				final int currentStructureIndex = this.lastStructureIndex;
 				while (currentStructureIndex <= lastStructureIndex) {
 					while (true) {
-						final JsonToken token = nextToken();
-						if (token == JsonTokens.ARRAY_END || token == JsonTokens.OBJECT_END) break;
+						final JsonTokenType type = peek();
+						if (type == JsonTokenType.ARRAY_END || type == JsonTokenType.OBJECT_END) break;
+						skipToken(type);
 					}
 					// pop structure stack
+					this.peeked = null;
 					this.lastStructureIndex -= 1;
 					consumeSeparator();
 				}
@@ -507,6 +2276,202 @@ public class JsonReader implements JsonInput {
 		}
 	}
 
+	/**
+	 * The start of the raw value being captured in the input buffer, or -1 if not capturing.
+	 */
+	private int captureStart = -1;
+
+	/**
+	 * The characters of the raw value being captured, which are moved out of the input buffer.
+	 */
+	private @NotNull StringBuilder captureBuilder = new StringBuilder();
+
+	/**
+	 * Consume the next value and return its exact source text, without converting it to any object. The value is
+	 * checked by the same structural scan as {@link #skipValue()}, and the whitespaces around it are not included.
+	 * Throws {@link JsonValueException} if the next token is not the beginning of a value.
+	 */
+	public @NotNull String nextRawValue() throws IOException {
+		final JsonTokenType type = peek();
+		if (type == JsonTokenType.NAME || type == JsonTokenType.ARRAY_END || type == JsonTokenType.OBJECT_END
+				|| type == JsonTokenType.EOF) {
+			throw new JsonValueException("Not a Value!");
+		}
+		final StringBuilder captureBuilder = this.captureBuilder;
+		captureBuilder.setLength(0);
+		// the first character of the value, which is always a single char, is peeked from the input buffer
+		this.captureStart = position - 1;
+		try {
+			skipValue();
+			captureBuilder.append(buffer, captureStart, position - captureStart);
+		} finally {
+			this.captureStart = -1;
+		}
+		// remove the character peeked after a number, and the separator consumed after the value
+		int end = captureBuilder.length();
+		if (undo >= 0) end -= Character.charCount(undo);
+		while (isWhitespace(captureBuilder.charAt(end - 1))) end -= 1;
+		if (lastStructureIndex >= 0) {
+			end -= 1;
+			while (isWhitespace(captureBuilder.charAt(end - 1))) end -= 1;
+		}
+		return captureBuilder.substring(0, end);
+	}
+
+	private static boolean isWhitespace(char c) {
+		return c == ' ' || c == '\t' || c == '\n' || c == '\r';
+	}
+
+	/**
+	 * Skip the next value without converting it to any object. If the value is a structure, the whole structure is
+	 * skipped with a structural scan, in which strings are only checked without being decoded. Throws
+	 * {@link JsonValueException} if the next token is not the beginning of a value.
+	 */
+	public void skipValue() throws IOException {
+		final JsonTokenType type = peek();
+		switch (type) {
+			case ARRAY_BEGIN, OBJECT_BEGIN -> {
+				skipToken(type);
+				endStructure();
+			}
+			case STRING, NUMBER, BOOLEAN, NULL -> {
+				try {
+					skipToken(type);
+				} catch (IOException exception) {
+					this.state = STATE_ERROR;
+					throw exception;
+				}
+			}
+			default -> throw new JsonValueException("Not a Value!");
+		}
+	}
+
+	/**
+	 * Consume the next token, which is already peeked, without converting it to any object.
+	 */
+	void skipToken(@NotNull JsonTokenType type) throws IOException {
+		switch (type) {
+			case NAME -> {
+				this.peeked = null;
+				skipString();
+				consumeNameSeparator();
+			}
+			case STRING -> {
+				this.peeked = null;
+				skipString();
+				consumeSeparator();
+			}
+			case NUMBER -> {
+				this.peeked = null;
+				number();
+				consumeSeparator();
+			}
+			case BOOLEAN -> nextBoolean();
+			case NULL -> nextNull();
+			case ARRAY_BEGIN -> beginArray();
+			case OBJECT_BEGIN -> beginObject();
+			default -> throw new AssertionError();
+		}
+	}
+
+	/**
+	 * Consume the next value and push its content to the handler, in a single loop without creating any token object.
+	 * Names and strings are passed as views of the internal buffer, which are only valid during the call. Throws
+	 * {@link JsonValueException} if the next token is not the beginning of a value.
+	 */
+	public void parse(@NotNull JsonHandler handler) throws IOException {
+		final int depth = lastStructureIndex;
+		do {
+			switch (peek()) {
+				case OBJECT_BEGIN -> {
+					beginObject();
+					handler.startObject();
+				}
+				case ARRAY_BEGIN -> {
+					beginArray();
+					handler.startArray();
+				}
+				case OBJECT_END -> {
+					if (lastStructureIndex <= depth) throw new JsonValueException("Not a Value!");
+					endStructure();
+					handler.endObject();
+				}
+				case ARRAY_END -> {
+					if (lastStructureIndex <= depth) throw new JsonValueException("Not a Value!");
+					endStructure();
+					handler.endArray();
+				}
+				case NAME -> {
+					if (lastStructureIndex <= depth) throw new JsonValueException("Not a Value!");
+					handler.key(nextNameText());
+				}
+				case STRING -> handler.stringValue(nextStringText());
+				case NUMBER -> {
+					final int type = numberToken();
+					if (type == NUMBER_LONG) {
+						handler.longValue(numberLong);
+					} else if (type == NUMBER_BIG_INTEGER) {
+						handler.numberValue(builder);
+					} else {
+						final double value = numberDouble();
+						if (Double.isFinite(value)) {
+							handler.doubleValue(value);
+						} else {
+							handler.numberValue(builder);
+						}
+					}
+				}
+				case BOOLEAN -> handler.booleanValue(nextBoolean());
+				case NULL -> {
+					nextNull();
+					handler.nullValue();
+				}
+				default -> throw new JsonValueException("Not a Value!");
+			}
+		} while (lastStructureIndex > depth);
+	}
+
+	/**
+	 * Consume the next value and return the corresponding {@link JsonElement}. Throws {@link JsonValueException} if
+	 * the next token is not the beginning of a value.
+	 */
+	public @NotNull JsonElement nextElement() throws IOException {
+		return nextValue(JsonElementFactory.INSTANCE);
+	}
+
+	/**
+	 * Consume the next value and return the value built by the specified {@link JsonTreeFactory}. Structures are
+	 * parsed using {@link #parseStructure(JsonTreeFactory)}. Throws {@link JsonValueException} if the next token is not
+	 * the beginning of a value.
+	 */
+	public <V, A, O> V nextValue(@NotNull JsonTreeFactory<V, A, O> factory) throws IOException {
+		return switch (peek()) {
+			case STRING -> factory.valueString(nextString());
+			case NUMBER -> {
+				final int type = numberToken();
+				yield type == NUMBER_LONG
+						? factory.valueNumber(numberLong)
+						: type == NUMBER_BIG_INTEGER
+						? factory.valueNumber(new BigInteger(builder.toString()))
+						: factory.valueNumber(new BigDecimal(builder.toString()));
+			}
+			case BOOLEAN -> factory.valueBoolean(nextBoolean());
+			case NULL -> {
+				nextNull();
+				yield factory.valueNull();
+			}
+			case ARRAY_BEGIN -> {
+				beginArray();
+				yield parseStructure(factory);
+			}
+			case OBJECT_BEGIN -> {
+				beginObject();
+				yield parseStructure(factory);
+			}
+			default -> throw new JsonValueException("Not a Value!");
+		};
+	}
+
 	/**
 	 * Parse a structure based on the previous token and return the corresponding {@link JsonElement}, ot throws
 	 * {@link IllegalStateException} if the previous token is not the beginning of a structure. This implementation
@@ -525,46 +2490,82 @@ public class JsonReader implements JsonInput {
 	 */
 	@Override
 	public @NotNull JsonElement parseStructure() throws IOException {
+		return parseStructure(JsonElementFactory.INSTANCE);
+	}
+
+	/**
+	 * Parse a structure based on the previous token and build the result using the specified
+	 * {@link JsonTreeFactory} in a single pass. See {@link #parseStructure()}.
+	 *
+	 * @throws IllegalStateException Throws if the previous token is not the beginning of a structure..
+	 * @throws JsonIOException Throws if there is any error while parsing input JSON.
+	 * @throws IOException Throws if there is any error while reading input JSON.
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public <V, A, O> V parseStructure(@NotNull JsonTreeFactory<V, A, O> factory) throws IOException {
+		Object structure;
 		if (state == STATE_ARRAY_BEGIN_EXPECT_VALUE_OR_ARRAY_END) {
-			// parse array
-			final JsonArray array = new JsonArray();
-			while (true) {
-				final JsonToken token = nextToken();
-				if (token == JsonTokens.ARRAY_BEGIN || token == JsonTokens.OBJECT_BEGIN) {
-					array.add(parseStructure());
-				} else if (token == JsonTokens.ARRAY_END) {
-					endStructure();
-					return array;
-				} else if (token instanceof JsonElement) {
-					array.add((JsonElement) token);
-				} else {
-					throw new AssertionError();
-				}
-			}
+			structure = factory.beginArray();
 		} else if (state == STATE_OBJECT_BEGIN_EXPECT_NAME_OR_OBJECT_END) {
-			// parse object
-			final JsonObject object = new JsonObject();
-			while (true) {
-				final JsonToken name = nextToken();
-				if (name instanceof JsonName) {
-					final JsonToken value = nextToken();
-					if (value == JsonTokens.ARRAY_BEGIN || value == JsonTokens.OBJECT_BEGIN) {
-						object.put(name.toString(), parseStructure());
-					} else if (value instanceof JsonElement) {
-						object.put(name.toString(), (JsonElement) value);
+			structure = factory.beginObject();
+		} else {
+			throw new IllegalStateException();
+		}
+		// the nesting is tracked with an explicit stack instead of recursion, so that deeply nested structures do not
+		// overflow the thread stack: pairs of the parent structure and the name of the member being parsed
+		Object[] parents = null;
+		int size = 0;
+		String name = null;
+		while (true) {
+			final JsonTokenType type = peek();
+			final V value;
+			switch (type) {
+				case NAME -> {
+					name = nextName();
+					continue;
+				}
+				case ARRAY_BEGIN, OBJECT_BEGIN -> {
+					if (parents == null) {
+						parents = new Object[16];
+					} else if (size == parents.length) {
+						parents = Arrays.copyOf(parents, size * 2);
+					}
+					parents[size] = structure;
+					parents[size + 1] = name;
+					size += 2;
+					if (type == JsonTokenType.ARRAY_BEGIN) {
+						beginArray();
+						structure = factory.beginArray();
 					} else {
-						throw new AssertionError();
+						beginObject();
+						structure = factory.beginObject();
 					}
-				} else if (name == JsonTokens.OBJECT_END) {
+					continue;
+				}
+				case ARRAY_END -> {
 					endStructure();
-					return object;
-				} else {
-					throw new AssertionError();
+					value = factory.endArray((A) structure);
 				}
+				case OBJECT_END -> {
+					endStructure();
+					value = factory.endObject((O) structure);
+				}
+				default -> value = nextValue(factory);
+			}
+			if (type == JsonTokenType.ARRAY_END || type == JsonTokenType.OBJECT_END) {
+				if (size == 0) return value;
+				size -= 2;
+				structure = parents[size];
+				name = (String) parents[size + 1];
+				parents[size] = null;
+				parents[size + 1] = null;
+			}
+			if (lastStructures.get(lastStructureIndex)) {
+				factory.addValue((A) structure, value);
+			} else {
+				factory.putValue((O) structure, name, value);
 			}
-		} else {
-			throw new IllegalStateException();
 		}
 	}
 }
-
@@ -0,0 +1,98 @@
+/*
+ * This file is part of jsonify.
+ *
+ * jsonify is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * jsonify is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with jsonify. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.gitlab.multicia.jsonify;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.charset.CharacterCodingException;
+
+/**
+ * The result of reading or validating input JSON without throwing, which is either a success with the read element,
+ * or a failure with an error code and a message.
+ */
+public final class JsonResult {
+	/**
+	 * The result of a successful validation.
+	 */
+	static final @NotNull JsonResult VALID = new JsonResult(null, null, null);
+
+	private final @Nullable JsonElement element;
+	private final @Nullable JsonError error;
+	private final @Nullable String message;
+
+	private JsonResult(@Nullable JsonElement element, @Nullable JsonError error, @Nullable String message) {
+		this.element = element;
+		this.error = error;
+		this.message = message;
+	}
+
+	/**
+	 * Create a successful result with the read element.
+	 */
+	static @NotNull JsonResult success(@NotNull JsonElement element) {
+		return new JsonResult(element, null, null);
+	}
+
+	/**
+	 * Create a failed result from the exception.
+	 */
+	static @NotNull JsonResult failure(@NotNull IOException exception) {
+		final JsonError error = exception instanceof JsonIOException jsonException
+				? jsonException.getError()
+				: exception instanceof CharacterCodingException
+				? JsonError.INVALID_ENCODING
+				: JsonError.IO_ERROR;
+		final String message = exception.getMessage();
+		return new JsonResult(null, error, message != null ? message : exception.toString());
+	}
+
+	/**
+	 * Return whether the input JSON is read or validated successfully.
+	 */
+	public boolean isSuccess() {
+		return error == null;
+	}
+
+	/**
+	 * Return the read element, or {@code null} if the result is a failure or a validation.
+	 */
+	public @Nullable JsonElement getElement() {
+		return element;
+	}
+
+	/**
+	 * Return the error code, or {@code null} if the result is a success.
+	 */
+	public @Nullable JsonError getError() {
+		return error;
+	}
+
+	/**
+	 * Return the error message, or {@code null} if the result is a success.
+	 */
+	public @Nullable String getMessage() {
+		return message;
+	}
+
+	@Override
+	public @NotNull String toString() {
+		return error == null ? "JsonResult{success}" : "JsonResult{" + error + ": " + message + "}";
+	}
+}
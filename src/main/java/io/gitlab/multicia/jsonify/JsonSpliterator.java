@@ -0,0 +1,102 @@
+/*
+ * This file is part of jsonify.
+ *
+ * jsonify is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * jsonify is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with jsonify. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package io.gitlab.multicia.jsonify;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+/**
+ * A spliterator over JSON elements which are parsed lazily from a source, one element per advance. Splitting buffers a
+ * batch of elements, so that a parallel stream can process them in other threads while the memory is bounded by the
+ * batch size.
+ */
+final class JsonSpliterator implements Spliterator<JsonElement> {
+	/**
+	 * The default number of elements in a split batch.
+	 */
+	static final int DEFAULT_BATCH_SIZE = 1024;
+
+	/**
+	 * The source of elements.
+	 */
+	interface Source {
+		/**
+		 * Parse and return the next element, or {@code null} if there is no more element.
+		 */
+		@Nullable JsonElement next() throws IOException;
+	}
+
+	private final @NotNull Source source;
+	private final int batchSize;
+	private boolean done;
+
+	JsonSpliterator(@NotNull Source source, int batchSize) {
+		if (batchSize <= 0) throw new IllegalArgumentException("Invalid batch size!");
+		this.source = source;
+		this.batchSize = batchSize;
+	}
+
+	private @Nullable JsonElement next() {
+		if (done) return null;
+		try {
+			final JsonElement element = source.next();
+			if (element == null) this.done = true;
+			return element;
+		} catch (IOException exception) {
+			this.done = true;
+			throw new UncheckedIOException(exception);
+		}
+	}
+
+	@Override
+	public boolean tryAdvance(@NotNull Consumer<? super JsonElement> action) {
+		final JsonElement element = next();
+		if (element == null) return false;
+		action.accept(element);
+		return true;
+	}
+
+	@Override
+	public @Nullable Spliterator<JsonElement> trySplit() {
+		final JsonElement[] batch = new JsonElement[batchSize];
+		int count = 0;
+		while (count < batchSize) {
+			final JsonElement element = next();
+			if (element == null) break;
+			batch[count++] = element;
+		}
+		return count > 0 ? Spliterators.spliterator(batch, 0, count, ORDERED | NONNULL) : null;
+	}
+
+	@Override
+	public long estimateSize() {
+		return done ? 0 : Long.MAX_VALUE;
+	}
+
+	@Override
+	public int characteristics() {
+		return ORDERED | NONNULL;
+	}
+}
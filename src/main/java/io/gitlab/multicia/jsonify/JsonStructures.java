@@ -0,0 +1,151 @@
+/*
+ * This file is part of jsonify.
+ *
+ * jsonify is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * jsonify is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with jsonify. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package io.gitlab.multicia.jsonify;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Iterative {@code equals} and {@code hashCode} of {@link JsonArray} and {@link JsonObject}. The results follow the
+ * contracts of {@link List} and {@link Map}, but nested structures are walked with an explicit stack on the heap, so
+ * deeply nested structures do not overflow the thread stack.
+ */
+final class JsonStructures {
+	private JsonStructures() {
+	}
+
+	/**
+	 * Compare a structure with another object, following the contract of {@link List#equals(Object)} and
+	 * {@link Map#equals(Object)}.
+	 */
+	static boolean equals(@NotNull Object structure, @Nullable Object other) {
+		// pairs of the iterator of the left structure, and the iterator of the right list or the right map
+		final ArrayDeque<Object> stack = new ArrayDeque<>();
+		Object left = structure;
+		Object right = other;
+		while (true) {
+			if (left != right) {
+				if (left instanceof List<?> leftList) {
+					if (!(right instanceof List<?> rightList) || leftList.size() != rightList.size()) return false;
+					stack.push(leftList.iterator());
+					stack.push(rightList.iterator());
+				} else if (left instanceof Map<?, ?> leftMap) {
+					if (!(right instanceof Map<?, ?> rightMap) || leftMap.size() != rightMap.size()) return false;
+					stack.push(leftMap.entrySet().iterator());
+					stack.push(rightMap);
+				} else if (left == null || !left.equals(right)) {
+					return false;
+				}
+			}
+			// find the next pair to compare
+			while (true) {
+				if (stack.isEmpty()) return true;
+				final Object rightFrame = stack.pop();
+				final Iterator<?> leftIterator = (Iterator<?>) stack.peek();
+				if (!leftIterator.hasNext()) {
+					stack.pop();
+					continue;
+				}
+				stack.push(rightFrame);
+				final Object next = leftIterator.next();
+				if (rightFrame instanceof Iterator<?> rightIterator) {
+					left = next;
+					right = rightIterator.next();
+				} else {
+					final Map.Entry<?, ?> entry = (Map.Entry<?, ?>) next;
+					final Map<?, ?> rightMap = (Map<?, ?>) rightFrame;
+					left = entry.getValue();
+					right = rightMap.get(entry.getKey());
+					if (right == null && !rightMap.containsKey(entry.getKey())) return false;
+				}
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Return the hash code of a structure, following the contract of {@link List#hashCode()} and
+	 * {@link Map#hashCode()}.
+	 */
+	static int hashCode(@NotNull Object structure) {
+		final ArrayDeque<HashFrame> stack = new ArrayDeque<>();
+		Object value = structure;
+		while (true) {
+			if (value instanceof List<?> list) {
+				stack.push(new HashFrame(list.iterator(), false));
+			} else if (value instanceof Map<?, ?> map) {
+				stack.push(new HashFrame(map.entrySet().iterator(), true));
+			} else {
+				stack.element().add(Objects.hashCode(value));
+			}
+			// find the next value to hash, combining the completed structures
+			while (true) {
+				final HashFrame frame = stack.element();
+				if (frame.iterator.hasNext()) {
+					final Object next = frame.iterator.next();
+					if (frame.map) {
+						final Map.Entry<?, ?> entry = (Map.Entry<?, ?>) next;
+						frame.key = entry.getKey();
+						value = entry.getValue();
+					} else {
+						value = next;
+					}
+					break;
+				}
+				stack.pop();
+				final HashFrame parent = stack.peek();
+				if (parent == null) return frame.hash;
+				parent.add(frame.hash);
+			}
+		}
+	}
+
+	/**
+	 * A structure being hashed.
+	 */
+	private static final class HashFrame {
+		private final @NotNull Iterator<?> iterator;
+		private final boolean map;
+		private @Nullable Object key;
+		private int hash;
+
+		private HashFrame(@NotNull Iterator<?> iterator, boolean map) {
+			this.iterator = iterator;
+			this.map = map;
+			this.hash = map ? 0 : 1;
+		}
+
+		/**
+		 * Combine the hash code of the current element, or the current entry value of a map.
+		 */
+		private void add(int valueHash) {
+			if (map) {
+				this.hash += Objects.hashCode(key) ^ valueHash;
+			} else {
+				this.hash = 31 * hash + valueHash;
+			}
+		}
+	}
+}
@@ -0,0 +1,503 @@
+/*
+ * This file is part of jsonify.
+ *
+ * jsonify is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * jsonify is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with jsonify. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.gitlab.multicia.jsonify;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * A compact buffer of tokens, which records tokens as a {@link JsonOutput} and replays them as a {@link JsonInput}
+ * any number of times. The tokens are kept in primitive arrays, and the text of names, strings and big numbers is kept
+ * in a single character store, which is much cheaper than building {@link JsonElement}s. This can be used to look
+ * ahead in a subtree before deciding how to decode it, or to feed a parsed subtree to several consumers.
+ */
+public final class JsonTokenBuffer implements JsonOutput {
+	private static final byte TOKEN_ARRAY_BEGIN = 0;
+	private static final byte TOKEN_ARRAY_END = 1;
+	private static final byte TOKEN_OBJECT_BEGIN = 2;
+	private static final byte TOKEN_OBJECT_END = 3;
+	private static final byte TOKEN_NAME = 4;
+	private static final byte TOKEN_STRING = 5;
+	private static final byte TOKEN_LONG = 6;
+	private static final byte TOKEN_DOUBLE = 7;
+	private static final byte TOKEN_BIG_INTEGER = 8;
+	private static final byte TOKEN_BIG_DECIMAL = 9;
+	private static final byte TOKEN_TRUE = 10;
+	private static final byte TOKEN_FALSE = 11;
+	private static final byte TOKEN_NULL = 12;
+
+	/**
+	 * The type of each token.
+	 */
+	private byte @NotNull [] types = new byte[64];
+
+	/**
+	 * The value of each token: the value of a {@code long}, the bits of a {@code double}, the offset and the length of
+	 * a text in the character store, or the index of the matching end token of a structure begin token.
+	 */
+	private long @NotNull [] values = new long[64];
+
+	private int size;
+
+	/**
+	 * The character store.
+	 */
+	private char @NotNull [] chars = new char[256];
+
+	private int charsSize;
+
+	/**
+	 * The indexes of the begin tokens of the structures being recorded.
+	 */
+	private int @NotNull [] begins = new int[16];
+
+	private int depth;
+
+	/**
+	 * Whether a name is recorded and its value is expected.
+	 */
+	private boolean nameRecorded;
+
+	/**
+	 * The active element stack, use to detect recursive record of the same element.
+	 */
+	private final @NotNull Map<@NotNull Object, @NotNull Object> recursionStack = new IdentityHashMap<>();
+
+	/**
+	 * Creates an empty token buffer.
+	 */
+	public JsonTokenBuffer() {
+	}
+
+	/**
+	 * Remove all tokens, keeping the allocated memory.
+	 */
+	public void clear() {
+		this.size = 0;
+		this.charsSize = 0;
+		this.depth = 0;
+		this.nameRecorded = false;
+		recursionStack.clear();
+	}
+
+	/**
+	 * Return {@code true} if there is no token in the buffer.
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	//========================================
+
+	/**
+	 * Record the next value of the input. If the value is a structure, the whole structure is recorded. When recording
+	 * from a {@link JsonReader}, no intermediate token object is created. Throws {@link JsonValueException} if the next
+	 * token is not the beginning of a value.
+	 */
+	public void record(@NotNull JsonInput input) throws IOException {
+		if (!(input instanceof JsonReader reader)) {
+			JsonPipe.copy(input, this);
+			return;
+		}
+		final int startDepth = depth;
+		do {
+			switch (reader.peek()) {
+				case ARRAY_BEGIN -> {
+					reader.beginArray();
+					beginArray();
+				}
+				case OBJECT_BEGIN -> {
+					reader.beginObject();
+					beginObject();
+				}
+				case ARRAY_END, OBJECT_END -> {
+					if (depth <= startDepth) throw new JsonValueException("Not a Value!");
+					reader.endStructure();
+					end();
+				}
+				case NAME -> {
+					if (depth <= startDepth) throw new JsonValueException("Not a Value!");
+					expectName();
+					addText(TOKEN_NAME, reader.nextNameText());
+				}
+				case STRING -> {
+					final CharSequence text = reader.nextStringText();
+					expectValue();
+					addText(TOKEN_STRING, text);
+				}
+				case NUMBER -> {
+					final CharSequence text = reader.nextNumberText();
+					expectValue();
+					addNumberText(text);
+				}
+				case BOOLEAN -> valueBoolean(reader.nextBoolean());
+				case NULL -> {
+					reader.nextNull();
+					valueNull();
+				}
+				default -> throw new JsonValueException("Not a Value!");
+			}
+		} while (depth > startDepth);
+	}
+
+	/**
+	 * Return a new {@link JsonInput} which replays the recorded tokens from the beginning. The buffer can be replayed
+	 * any number of times, but should not be modified while being replayed.
+	 */
+	public @NotNull JsonInput replay() {
+		return new Replay();
+	}
+
+	//========================================
+
+	@Override
+	public void beginArray() throws IOException {
+		expectValue();
+		pushBegin(TOKEN_ARRAY_BEGIN);
+	}
+
+	@Override
+	public void beginObject() throws IOException {
+		expectValue();
+		pushBegin(TOKEN_OBJECT_BEGIN);
+	}
+
+	@Override
+	public void end() throws IOException {
+		if (depth == 0 || nameRecorded) throw new JsonIOException(JsonError.INVALID_STATE, "End not expected!");
+		final int begin = begins[--this.depth];
+		values[begin] = size;
+		add(types[begin] == TOKEN_ARRAY_BEGIN ? TOKEN_ARRAY_END : TOKEN_OBJECT_END, begin);
+	}
+
+	@Override
+	public void name(@NotNull String name) throws IOException {
+		expectName();
+		addText(TOKEN_NAME, name);
+	}
+
+	@Override
+	public void valueBoolean(boolean value) throws IOException {
+		expectValue();
+		add(value ? TOKEN_TRUE : TOKEN_FALSE, 0);
+	}
+
+	@Override
+	public void valueNumber(long value) throws IOException {
+		expectValue();
+		add(TOKEN_LONG, value);
+	}
+
+	@Override
+	public void valueNumber(double value) throws IOException {
+		if (!Double.isFinite(value)) throw new JsonIOException(JsonError.INVALID_NUMBER, "Invalid number!");
+		expectValue();
+		add(TOKEN_DOUBLE, Double.doubleToRawLongBits(value));
+	}
+
+	@Override
+	public void valueNumber(@NotNull BigInteger value) throws IOException {
+		expectValue();
+		addText(TOKEN_BIG_INTEGER, value.toString());
+	}
+
+	@Override
+	public void valueNumber(@NotNull BigDecimal value) throws IOException {
+		expectValue();
+		addText(TOKEN_BIG_DECIMAL, value.toString());
+	}
+
+	@Override
+	public void valueString(char value) throws IOException {
+		valueString(String.valueOf(value));
+	}
+
+	@Override
+	public void valueString(@NotNull String value) throws IOException {
+		expectValue();
+		addText(TOKEN_STRING, value);
+	}
+
+	@Override
+	public void valueNull() throws IOException {
+		expectValue();
+		add(TOKEN_NULL, 0);
+	}
+
+	@Override
+	public void value(@NotNull JsonElement element) throws IOException {
+		if (element instanceof JsonArray || element instanceof JsonObject) {
+			JsonWriter.valueAny(this, element, recursionStack);
+		} else if (element instanceof JsonString) {
+			valueString(element.toString());
+		} else if (element instanceof JsonNumber number) {
+			final Number value = number.getValue();
+			if (value instanceof Long) {
+				valueNumber((long) value);
+			} else if (value instanceof Double) {
+				valueNumber((double) value);
+			} else if (value instanceof BigInteger) {
+				valueNumber((BigInteger) value);
+			} else {
+				valueNumber((BigDecimal) value);
+			}
+		} else if (element == JsonKeyword.TRUE) {
+			valueBoolean(true);
+		} else if (element == JsonKeyword.FALSE) {
+			valueBoolean(false);
+		} else {
+			valueNull();
+		}
+	}
+
+	@Override
+	public void valueAny(@Nullable Object value) throws IOException {
+		JsonWriter.valueAny(this, value, recursionStack);
+	}
+
+	/**
+	 * Does nothing. The recorded tokens can still be replayed.
+	 */
+	@Override
+	public void close() {
+	}
+
+	//========================================
+
+	/**
+	 * Check that a value is expected here.
+	 */
+	private void expectValue() throws JsonIOException {
+		if (depth > 0 && types[begins[depth - 1]] == TOKEN_OBJECT_BEGIN) {
+			if (!nameRecorded) throw new JsonIOException(JsonError.INVALID_STATE, "Value not expected!");
+			this.nameRecorded = false;
+		}
+	}
+
+	/**
+	 * Check that a name is expected here.
+	 */
+	private void expectName() throws JsonIOException {
+		if (depth == 0 || types[begins[depth - 1]] != TOKEN_OBJECT_BEGIN || nameRecorded) {
+			throw new JsonIOException(JsonError.INVALID_STATE, "Name not expected!");
+		}
+		this.nameRecorded = true;
+	}
+
+	private void pushBegin(byte type) {
+		if (depth == begins.length) this.begins = Arrays.copyOf(begins, depth * 2);
+		begins[depth++] = size;
+		add(type, 0);
+	}
+
+	private void add(byte type, long value) {
+		if (size == types.length) {
+			this.types = Arrays.copyOf(types, size * 2);
+			this.values = Arrays.copyOf(values, size * 2);
+		}
+		types[size] = type;
+		values[size] = value;
+		this.size += 1;
+	}
+
+	private void addText(byte type, @NotNull CharSequence text) {
+		final int length = text.length();
+		if (charsSize + length > chars.length) {
+			this.chars = Arrays.copyOf(chars, Math.max(chars.length * 2, charsSize + length));
+		}
+		if (text instanceof String string) {
+			string.getChars(0, length, chars, charsSize);
+		} else if (text instanceof StringBuilder builder) {
+			builder.getChars(0, length, chars, charsSize);
+		} else {
+			for (int index = 0; index < length; index++) chars[charsSize + index] = text.charAt(index);
+		}
+		add(type, (long) charsSize << 32 | length);
+		this.charsSize += length;
+	}
+
+	/**
+	 * Add a number from its text, which is a valid JSON number, with the same types as {@link JsonReader#nextNumber()}.
+	 */
+	private void addNumberText(@NotNull CharSequence text) {
+		final int length = text.length();
+		final boolean negative = text.charAt(0) == '-';
+		// the value is accumulated negatively, since the negative range is larger
+		long value = 0;
+		for (int index = negative ? 1 : 0; index < length; index++) {
+			final char c = text.charAt(index);
+			if (c < '0' || c > '9') {
+				addText(TOKEN_BIG_DECIMAL, text);
+				return;
+			}
+			final int digit = c - '0';
+			if (value < Long.MIN_VALUE / 10 || (value *= 10) < Long.MIN_VALUE + digit) {
+				// check the rest for a decimal
+				for (int rest = index; rest < length; rest++) {
+					final char d = text.charAt(rest);
+					if (d < '0' || d > '9') {
+						addText(TOKEN_BIG_DECIMAL, text);
+						return;
+					}
+				}
+				addText(TOKEN_BIG_INTEGER, text);
+				return;
+			}
+			value -= digit;
+		}
+		if (!negative && value == Long.MIN_VALUE) {
+			addText(TOKEN_BIG_INTEGER, text);
+		} else {
+			add(TOKEN_LONG, negative ? value : -value);
+		}
+	}
+
+	private @NotNull String text(int index) {
+		final long value = values[index];
+		return new String(chars, (int) (value >>> 32), (int) value);
+	}
+
+	//========================================
+
+	/**
+	 * A replay of the recorded tokens.
+	 */
+	private final class Replay implements JsonInput {
+		private int position;
+		private int @NotNull [] openBegins = new int[16];
+		private int openDepth;
+
+		@Override
+		public @NotNull JsonToken nextToken() {
+			if (position >= size) return JsonTokens.EOF;
+			final int index = position;
+			switch (types[index]) {
+				case TOKEN_ARRAY_END:
+					return JsonTokens.ARRAY_END;
+				case TOKEN_OBJECT_END:
+					return JsonTokens.OBJECT_END;
+				case TOKEN_ARRAY_BEGIN:
+				case TOKEN_OBJECT_BEGIN:
+					if (openDepth == openBegins.length) this.openBegins = Arrays.copyOf(openBegins, openDepth * 2);
+					openBegins[openDepth++] = index;
+					this.position += 1;
+					return types[index] == TOKEN_ARRAY_BEGIN ? JsonTokens.ARRAY_BEGIN : JsonTokens.OBJECT_BEGIN;
+				default:
+					this.position += 1;
+					return switch (types[index]) {
+						case TOKEN_NAME -> new JsonName(text(index));
+						case TOKEN_STRING -> new JsonString(text(index));
+						case TOKEN_LONG -> new JsonNumber(values[index]);
+						case TOKEN_DOUBLE -> new JsonNumber(Double.longBitsToDouble(values[index]));
+						case TOKEN_BIG_INTEGER -> new JsonNumber(new BigInteger(text(index)));
+						case TOKEN_BIG_DECIMAL -> new JsonNumber(new BigDecimal(text(index)));
+						case TOKEN_TRUE -> JsonKeyword.TRUE;
+						case TOKEN_FALSE -> JsonKeyword.FALSE;
+						case TOKEN_NULL -> JsonKeyword.NULL;
+						default -> throw new AssertionError();
+					};
+			}
+		}
+
+		@Override
+		public void endStructure() {
+			if (openDepth == 0) throw new IllegalStateException("Not in a structure!");
+			// jump directly to the matching end token
+			this.position = (int) values[openBegins[--this.openDepth]] + 1;
+		}
+
+		@Override
+		public @NotNull JsonElement parseStructure() {
+			return parseStructure(JsonElementFactory.INSTANCE);
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public <V, A, O> V parseStructure(@NotNull JsonTreeFactory<V, A, O> factory) {
+			if (openDepth == 0 || openBegins[openDepth - 1] != position - 1) throw new IllegalStateException();
+			// the nesting is tracked with explicit stacks instead of recursion, the structure at each level is
+			// opened at openBegins[base + level], and names keeps the member name of each structure in its parent
+			final int base = openDepth - 1;
+			Object[] structures = new Object[16];
+			Object[] names = new Object[16];
+			String name = null;
+			int level = 0;
+			structures[0] = types[position - 1] == TOKEN_ARRAY_BEGIN ? factory.beginArray() : factory.beginObject();
+			while (true) {
+				final int index = position;
+				final byte type = types[index];
+				final V value;
+				if (type == TOKEN_NAME) {
+					name = text(index);
+					this.position += 1;
+					continue;
+				} else if (type == TOKEN_ARRAY_BEGIN || type == TOKEN_OBJECT_BEGIN) {
+					nextToken();
+					if (++level == structures.length) {
+						structures = Arrays.copyOf(structures, level * 2);
+						names = Arrays.copyOf(names, level * 2);
+					}
+					names[level] = name;
+					structures[level] = type == TOKEN_ARRAY_BEGIN ? factory.beginArray() : factory.beginObject();
+					continue;
+				} else if (type == TOKEN_ARRAY_END || type == TOKEN_OBJECT_END) {
+					endStructure();
+					value = type == TOKEN_ARRAY_END
+							? factory.endArray((A) structures[level])
+							: factory.endObject((O) structures[level]);
+					structures[level] = null;
+					if (level == 0) return value;
+					name = (String) names[level];
+					level -= 1;
+				} else {
+					this.position += 1;
+					value = switch (type) {
+						case TOKEN_STRING -> factory.valueString(text(index));
+						case TOKEN_LONG -> factory.valueNumber(values[index]);
+						case TOKEN_DOUBLE -> {
+							final double number = Double.longBitsToDouble(values[index]);
+							yield factory.valueNumber(BigDecimal.valueOf(number));
+						}
+						case TOKEN_BIG_INTEGER -> factory.valueNumber(new BigInteger(text(index)));
+						case TOKEN_BIG_DECIMAL -> factory.valueNumber(new BigDecimal(text(index)));
+						case TOKEN_TRUE -> factory.valueBoolean(true);
+						case TOKEN_FALSE -> factory.valueBoolean(false);
+						case TOKEN_NULL -> factory.valueNull();
+						default -> throw new AssertionError();
+					};
+				}
+				if (types[openBegins[base + level]] == TOKEN_ARRAY_BEGIN) {
+					factory.addValue((A) structures[level], value);
+				} else {
+					factory.putValue((O) structures[level], name, value);
+				}
+			}
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+}
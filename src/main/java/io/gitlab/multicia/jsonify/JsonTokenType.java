@@ -0,0 +1,35 @@
+/*
+ * This file is part of jsonify.
+ *
+ * jsonify is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * jsonify is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with jsonify. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package io.gitlab.multicia.jsonify;
+
+/**
+ * The type of the next token of a {@link JsonReader}, as returned by {@link JsonReader#peek()}.
+ */
+public enum JsonTokenType {
+	EOF,
+	ARRAY_BEGIN,
+	ARRAY_END,
+	OBJECT_BEGIN,
+	OBJECT_END,
+	NAME,
+	STRING,
+	NUMBER,
+	BOOLEAN,
+	NULL
+}
@@ -22,5 +22,9 @@ public enum JsonTokens implements JsonToken {
 	ARRAY_BEGIN,
 	ARRAY_END,
 	OBJECT_BEGIN,
-	OBJECT_END
+	OBJECT_END,
+	/**
+	 * Returned by {@link JsonFeeder#nextToken()} when the fed input ends in the middle of the next token.
+	 */
+	NEED_MORE_INPUT
 }
@@ -0,0 +1,96 @@
+/*
+ * This file is part of jsonify.
+ *
+ * jsonify is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * jsonify is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with jsonify. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package io.gitlab.multicia.jsonify;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * A factory that builds an in-memory tree from the values read by a {@link JsonInput}. This allows
+ * {@link JsonInput#parseStructure(JsonTreeFactory)} and {@link JsonReader#read(java.io.Reader, JsonTreeFactory)} to
+ * build any data structure in a single pass, instead of building {@link JsonElement}s first and converting them later.
+ * {@link JsonElementFactory} is the default implementation, which builds {@link JsonElement}s.
+ *
+ * @param <V> The type of values.
+ * @param <A> The type of arrays while being built.
+ * @param <O> The type of objects while being built.
+ */
+public interface JsonTreeFactory<V, A, O> {
+	/**
+	 * Create an empty array.
+	 */
+	@NotNull A beginArray();
+
+	/**
+	 * Add a value to the end of an array.
+	 */
+	void addValue(@NotNull A array, V value);
+
+	/**
+	 * Return the value of a completed array.
+	 */
+	V endArray(@NotNull A array);
+
+	/**
+	 * Create an empty object.
+	 */
+	@NotNull O beginObject();
+
+	/**
+	 * Put a name-value pair to an object.
+	 */
+	void putValue(@NotNull O object, @NotNull String name, V value);
+
+	/**
+	 * Return the value of a completed object.
+	 */
+	V endObject(@NotNull O object);
+
+	/**
+	 * Return the value of a boolean.
+	 */
+	V valueBoolean(boolean value);
+
+	/**
+	 * Return the value of an integer number that fits in a {@code long}.
+	 */
+	V valueNumber(long value);
+
+	/**
+	 * Return the value of an integer number that does not fit in a {@code long}.
+	 */
+	V valueNumber(@NotNull BigInteger value);
+
+	/**
+	 * Return the value of a decimal number.
+	 */
+	V valueNumber(@NotNull BigDecimal value);
+
+	/**
+	 * Return the value of a string.
+	 */
+	V valueString(@NotNull String value);
+
+	/**
+	 * Return the value of a null.
+	 */
+	V valueNull();
+}
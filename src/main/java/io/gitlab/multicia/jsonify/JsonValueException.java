@@ -20,14 +20,29 @@ package io.gitlab.multicia.jsonify;
 import org.jetbrains.annotations.NotNull;
 
 /**
- * Signals that an exception occurred while converting a JSON value to a Java type.
+ * Signals that an exception occurred while converting a JSON value to a Java type. Similar to
+ * {@link JsonIOException}, the stack trace can be disabled to make creating the exception cheap.
  */
 public class JsonValueException extends IllegalArgumentException {
 	public JsonValueException(@NotNull String message) {
-		super(message);
+		this(message, JsonIOException.STACK_TRACE);
 	}
 
 	public JsonValueException(@NotNull String message, @NotNull Throwable cause) {
 		super(message, cause);
+		if (JsonIOException.STACK_TRACE) super.fillInStackTrace();
+	}
+
+	public JsonValueException(@NotNull String message, boolean stackTrace) {
+		super(message);
+		if (stackTrace) super.fillInStackTrace();
+	}
+
+	/**
+	 * The stack trace is only filled by the constructors, if it is enabled.
+	 */
+	@Override
+	public @NotNull Throwable fillInStackTrace() {
+		return this;
 	}
 }
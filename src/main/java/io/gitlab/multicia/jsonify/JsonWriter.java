@@ -18,14 +18,24 @@
 package io.gitlab.multicia.jsonify;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
 import java.io.Writer;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.BitSet;
+import java.util.Collection;
 import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.Objects;
 
 /**
  * JSON writer.
@@ -34,7 +44,7 @@ public class JsonWriter implements JsonOutput {
 	/**
 	 * The output writer.
 	 */
-	private final @NotNull Writer writer;
+	private @NotNull Writer writer;
 
 	/**
 	 * Creates a json writer.
@@ -49,11 +59,67 @@ public class JsonWriter implements JsonOutput {
 	 * Save JSON element to output json.
 	 */
 	public static void write(@NotNull Writer outputWriter, @NotNull JsonElement element) throws IOException {
-		try (final JsonWriter writer = new JsonWriter(outputWriter)) {
+		final JsonWriter writer = acquire(outputWriter);
+		try (outputWriter) {
 			writer.value(element);
+		} finally {
+			release(writer);
 		}
 	}
 
+	/**
+	 * Save a plain Java value to output json, without converting it to a {@link JsonElement}. See
+	 * {@link JsonOutput#valueAny(Object)}.
+	 */
+	public static void writeAny(@NotNull Writer outputWriter, @Nullable Object value) throws IOException {
+		final JsonWriter writer = acquire(outputWriter);
+		try (outputWriter) {
+			writer.valueAny(value);
+		} finally {
+			release(writer);
+		}
+	}
+
+	/**
+	 * The pool of writers used by the static helpers.
+	 */
+	private static final @NotNull JsonPool<JsonWriter> POOL = new JsonPool<>();
+
+	/**
+	 * The writer which is set to the pooled writers.
+	 */
+	private static final @NotNull Writer EMPTY_WRITER = Writer.nullWriter();
+
+	/**
+	 * Take a writer from the pool, or create a new one, to write to the output writer.
+	 */
+	static @NotNull JsonWriter acquire(@NotNull Writer outputWriter) {
+		final JsonWriter pooled = POOL.acquire();
+		if (pooled == null) return new JsonWriter(outputWriter);
+		pooled.reset(outputWriter);
+		return pooled;
+	}
+
+	/**
+	 * Return a writer to the pool.
+	 */
+	static void release(@NotNull JsonWriter writer) {
+		// do not keep a reference to the output writer in the pool
+		writer.reset(EMPTY_WRITER);
+		POOL.release(writer);
+	}
+
+	/**
+	 * Reset the JSON writer to write to another writer, without closing the previous writer. All states of the writer
+	 * are reset. The writer can be reset even if it is closed.
+	 */
+	public void reset(@NotNull Writer writer) {
+		this.writer = writer;
+		this.lastStructureIndex = -1;
+		this.state = STATE_EXPECT_VALUE_NO_SEPARATOR;
+		recursionStack.clear();
+	}
+
 	//========================================
 
 	/**
@@ -151,7 +217,7 @@ public class JsonWriter implements JsonOutput {
 			case STATE_EXPECT_VALUE_WITH_COLON -> writer.write(":[");
 			case STATE_EXPECT_VALUE_WITH_COMMA -> writer.write(",[");
 			case STATE_EXPECT_VALUE_NO_SEPARATOR -> writer.write('[');
-			default -> throw new JsonIOException("Array begin not expected!");
+			default -> throw new JsonIOException(JsonError.INVALID_STATE, "Array begin not expected!");
 		}
 		lastStructures.set(++this.lastStructureIndex);
 		this.state = STATE_EXPECT_VALUE_NO_SEPARATOR;
@@ -166,7 +232,7 @@ public class JsonWriter implements JsonOutput {
 			case STATE_EXPECT_VALUE_WITH_COLON -> writer.write(":{");
 			case STATE_EXPECT_VALUE_WITH_COMMA -> writer.write(",{");
 			case STATE_EXPECT_VALUE_NO_SEPARATOR -> writer.write('{');
-			default -> throw new JsonIOException("Object begin not expected!");
+			default -> throw new JsonIOException(JsonError.INVALID_STATE, "Object begin not expected!");
 		}
 		lastStructures.clear(++this.lastStructureIndex);
 		this.state = STATE_EXPECT_NAME_NO_SEPARATOR;
@@ -204,7 +270,7 @@ public class JsonWriter implements JsonOutput {
 					return;
 				}
 			default:
-				throw new JsonIOException("Array end not expected!");
+				throw new JsonIOException(JsonError.INVALID_STATE, "Array end not expected!");
 		}
 	}
 
@@ -212,18 +278,27 @@ public class JsonWriter implements JsonOutput {
 	 * Write a name. Throws {@link JsonIOException} if this is unexpected.
 	 */
 	public void name(@NotNull String name) throws IOException {
-		switch (state) {
-			case STATE_CLOSED:
-				throw new IllegalStateException("Already closed!");
-			case STATE_EXPECT_NAME_WITH_COMMA:
-				writer.append(',');
-			case STATE_EXPECT_NAME_NO_SEPARATOR:
-				writeStringUnchecked(name);
-				this.state = STATE_EXPECT_VALUE_WITH_COLON;
-				return;
-			default:
-				throw new JsonIOException("Name not expected!");
-		}
+		nameText(name);
+	}
+
+	/**
+	 * Write a name from its text, without creating a {@link String}. Throws {@link JsonIOException} if this is
+	 * unexpected.
+	 */
+	void nameText(@NotNull CharSequence name) throws IOException {
+		writeNameSeparator();
+		writeStringUnchecked(name);
+		this.state = STATE_EXPECT_VALUE_WITH_COLON;
+	}
+
+	/**
+	 * Write a name which is read from the source until its end, so that a huge name is never held in memory as a
+	 * whole. The source is not closed. Throws {@link JsonIOException} if this is unexpected.
+	 */
+	public void name(@NotNull Reader name) throws IOException {
+		writeNameSeparator();
+		writeStringUnchecked(name);
+		this.state = STATE_EXPECT_VALUE_WITH_COLON;
 	}
 
 	/**
@@ -279,6 +354,170 @@ public class JsonWriter implements JsonOutput {
 		writeValueString(value);
 	}
 
+	/**
+	 * Write a string value which is read from the source until its end, so that a huge string is never held in memory
+	 * as a whole. The source is not closed. Throws {@link JsonIOException} if this is unexpected.
+	 */
+	public void valueString(@NotNull Reader value) throws IOException {
+		writeValueSeparator();
+		writeStringUnchecked(value);
+	}
+
+	/**
+	 * Write an array of integer numbers. The writer state is checked once for the whole array. Throws
+	 * {@link JsonIOException} if this is unexpected.
+	 */
+	public void valueArray(long @NotNull [] values) throws IOException {
+		valueArray(values, 0, values.length);
+	}
+
+	/**
+	 * Write a part of an array of integer numbers as an array. See {@link #valueArray(long[])}.
+	 */
+	public void valueArray(long @NotNull [] values, int offset, int length) throws IOException {
+		Objects.checkFromIndexSize(offset, length, values.length);
+		beginArray();
+		for (int index = 0; index < length; index++) {
+			if (index > 0) writer.write(',');
+			writer.write(Long.toString(values[offset + index]));
+		}
+		endArray(length);
+	}
+
+	/**
+	 * Write an array of integer numbers. See {@link #valueArray(long[])}.
+	 */
+	public void valueArray(int @NotNull [] values) throws IOException {
+		valueArray(values, 0, values.length);
+	}
+
+	/**
+	 * Write a part of an array of integer numbers as an array. See {@link #valueArray(long[])}.
+	 */
+	public void valueArray(int @NotNull [] values, int offset, int length) throws IOException {
+		Objects.checkFromIndexSize(offset, length, values.length);
+		beginArray();
+		for (int index = 0; index < length; index++) {
+			if (index > 0) writer.write(',');
+			writer.write(Integer.toString(values[offset + index]));
+		}
+		endArray(length);
+	}
+
+	/**
+	 * Write an array of decimal numbers. The numbers are checked before anything is written. See
+	 * {@link #valueArray(long[])}.
+	 */
+	public void valueArray(double @NotNull [] values) throws IOException {
+		valueArray(values, 0, values.length);
+	}
+
+	/**
+	 * Write a part of an array of decimal numbers as an array. See {@link #valueArray(double[])}.
+	 */
+	public void valueArray(double @NotNull [] values, int offset, int length) throws IOException {
+		Objects.checkFromIndexSize(offset, length, values.length);
+		for (int index = 0; index < length; index++) {
+			if (!Double.isFinite(values[offset + index])) {
+				throw new NumberFormatException("JSON number cannot be NaN or Infinity.");
+			}
+		}
+		beginArray();
+		for (int index = 0; index < length; index++) {
+			if (index > 0) writer.write(',');
+			writer.write(Double.toString(values[offset + index]));
+		}
+		endArray(length);
+	}
+
+	/**
+	 * End an array after its elements are written directly, without going through the state machine.
+	 */
+	private void endArray(int length) throws IOException {
+		if (length > 0) this.state = STATE_EXPECT_VALUE_WITH_COMMA;
+		end();
+	}
+
+	/**
+	 * Write binary data as a base64 encoded string value (RFC 4648, with padding). The data is encoded directly to the
+	 * output without creating a {@link String}. Throws {@link JsonIOException} if this is unexpected.
+	 */
+	public void valueBinary(byte @NotNull [] value) throws IOException {
+		valueBinary(ByteBuffer.wrap(value));
+	}
+
+	/**
+	 * Write a part of the binary data as a base64 encoded string value. See {@link #valueBinary(byte[])}.
+	 */
+	public void valueBinary(byte @NotNull [] value, int offset, int length) throws IOException {
+		valueBinary(ByteBuffer.wrap(value, offset, length));
+	}
+
+	/**
+	 * Write the content between the position and the limit of the buffer as a base64 encoded string value, the buffer
+	 * itself is not modified. See {@link #valueBinary(byte[])}.
+	 */
+	public void valueBinary(@NotNull ByteBuffer value) throws IOException {
+		writeValueSeparator();
+		writer.write('"');
+		char[] chars = this.chars;
+		if (chars == null) this.chars = chars = new char[1024];
+		final char[] alphabet = BASE64_ALPHABET;
+		final int limit = value.limit();
+		int index = value.position();
+		int count = 0;
+		// base64 digits never need to be escaped
+		while (limit - index >= 3) {
+			final int group = (value.get(index) & 0xFF) << 16 | (value.get(index + 1) & 0xFF) << 8
+					| value.get(index + 2) & 0xFF;
+			index += 3;
+			chars[count] = alphabet[group >>> 18];
+			chars[count + 1] = alphabet[group >>> 12 & 0x3F];
+			chars[count + 2] = alphabet[group >>> 6 & 0x3F];
+			chars[count + 3] = alphabet[group & 0x3F];
+			count += 4;
+			if (count == chars.length) {
+				writer.write(chars, 0, count);
+				count = 0;
+			}
+		}
+		if (index < limit) {
+			// the last group, padded to 4 digits
+			final int group = (value.get(index) & 0xFF) << 16 | (index + 1 < limit ? (value.get(index + 1) & 0xFF) << 8 : 0);
+			chars[count] = alphabet[group >>> 18];
+			chars[count + 1] = alphabet[group >>> 12 & 0x3F];
+			chars[count + 2] = index + 1 < limit ? alphabet[group >>> 6 & 0x3F] : '=';
+			chars[count + 3] = '=';
+			count += 4;
+		}
+		if (count > 0) writer.write(chars, 0, count);
+		writer.write('"');
+	}
+
+	/**
+	 * The base64 digits.
+	 */
+	private static final char @NotNull [] BASE64_ALPHABET =
+			"ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+
+	/**
+	 * Write a number value from its text, which must be a valid JSON number, without converting it. Throws
+	 * {@link JsonIOException} if this is unexpected.
+	 */
+	void valueNumberText(@NotNull CharSequence text) throws IOException {
+		writeValueSeparator();
+		writeChars(text, 0, text.length());
+	}
+
+	/**
+	 * Write a string value from its text, without creating a {@link String}. Throws {@link JsonIOException} if this is
+	 * unexpected.
+	 */
+	void valueStringText(@NotNull CharSequence text) throws IOException {
+		writeValueSeparator();
+		writeStringUnchecked(text);
+	}
+
 	/**
 	 * Write a null value. Throws {@link JsonIOException} if this is unexpected.
 	 */
@@ -286,12 +525,30 @@ public class JsonWriter implements JsonOutput {
 		writeValueRaw("null");
 	}
 
+	/**
+	 * Write a pre-serialized JSON value as is, after checking that it is exactly one valid JSON value. Throws
+	 * {@link JsonIOException} if this is unexpected or if the value is not valid.
+	 */
+	public void valueRaw(@NotNull String json) throws IOException {
+		valueRaw(json, false);
+	}
+
+	/**
+	 * Write a pre-serialized JSON value as is. A trusted value is spliced into the output verbatim without being
+	 * checked, and the caller is responsible for it being exactly one valid JSON value. Throws {@link JsonIOException}
+	 * if this is unexpected or if the value is not trusted and not valid.
+	 */
+	public void valueRaw(@NotNull String json, boolean trusted) throws IOException {
+		if (!trusted) JsonReader.validate(new StringReader(json));
+		writeValueRaw(json);
+	}
+
 	//========================================
 
 	/**
 	 * The active element stack, use to detect recursive write of the same element.
 	 */
-	private final @NotNull Map<@NotNull JsonElement, @NotNull JsonElement> recursionStack = new IdentityHashMap<>();
+	private final @NotNull Map<@NotNull Object, @NotNull Object> recursionStack = new IdentityHashMap<>();
 
 	/**
 	 * Write a {@link JsonElement} value. Throws {@link JsonIOException} if this is unexpected.
@@ -312,15 +569,22 @@ public class JsonWriter implements JsonOutput {
 			} else {
 				throw new AssertionError(); // safeguard
 			}
-		} else if (element instanceof JsonArray) {
-			valueArray((JsonArray) element);
-		} else if (element instanceof JsonObject) {
-			valueObject((JsonObject) element);
+		} else if (element instanceof JsonArray || element instanceof JsonObject) {
+			valueAny(this, element, recursionStack);
 		} else {
-			throw new JsonIOException("Unknown element!");
+			throw new JsonIOException(JsonError.INVALID_STRUCTURE, "Unknown element!");
 		}
 	}
 
+	/**
+	 * Write a plain Java value directly, without converting it to a {@link JsonElement}. See
+	 * {@link JsonOutput#valueAny(Object)}.
+	 */
+	@Override
+	public void valueAny(@Nullable Object value) throws IOException {
+		valueAny(this, value, recursionStack);
+	}
+
 	/**
 	 * Write a {@link JsonNumber} value. Throws {@link JsonIOException} if this is unexpected.
 	 */
@@ -340,36 +604,137 @@ public class JsonWriter implements JsonOutput {
 	}
 
 	/**
-	 * Write a {@link JsonArray}. Throws {@link JsonIOException} if this is unexpected.
+	 * Write a plain Java value or a {@link JsonElement} to an output, using the recursion stack to detect recursive
+	 * structures. Throws {@link JsonIOException} if this is unexpected. The nesting is tracked with an explicit stack
+	 * of iterators instead of recursion, so that deeply nested structures do not overflow the thread stack.
 	 */
-	private void valueArray(@NotNull JsonArray array) throws IOException {
-		// check recursion
-		if (recursionStack.put(array, array) != null) throw new JsonIOException("Recursive structure detected!");
-		// write array
-		beginArray();
-		for (final JsonElement arrayElement : array) {
-			value(arrayElement);
+	static void valueAny(@NotNull JsonOutput output, @Nullable Object value,
+			@NotNull Map<@NotNull Object, @NotNull Object> recursionStack) throws IOException {
+		if (!isStructure(value)) {
+			valueLeaf(output, value);
+			return;
 		}
-		end();
-		// remove from recursion stack
-		if (recursionStack.remove(array) != array) throw new AssertionError(); // safeguard
+		final ArrayDeque<Object> structures = new ArrayDeque<>();
+		final ArrayDeque<Iterator<?>> iterators = new ArrayDeque<>();
+		try {
+			beginStructure(output, value, recursionStack, structures, iterators);
+			while (!iterators.isEmpty()) {
+				final Iterator<?> iterator = iterators.element();
+				if (!iterator.hasNext()) {
+					output.end();
+					iterators.pop();
+					// remove from recursion stack
+					final Object structure = structures.pop();
+					if (recursionStack.remove(structure) != structure) throw new AssertionError(); // safeguard
+					continue;
+				}
+				final Object child;
+				if (structures.element() instanceof Map) {
+					final Map.Entry<?, ?> entry = (Map.Entry<?, ?>) iterator.next();
+					if (!(entry.getKey() instanceof CharSequence name)) {
+						throw new JsonIOException(JsonError.INVALID_STRUCTURE, "Unsupported name!");
+					}
+					output.name(name.toString());
+					child = entry.getValue();
+				} else {
+					child = iterator.next();
+				}
+				if (isStructure(child)) {
+					beginStructure(output, child, recursionStack, structures, iterators);
+				} else {
+					valueLeaf(output, child);
+				}
+			}
+		} finally {
+			// clean up the recursion stack on error
+			for (final Object structure : structures) recursionStack.remove(structure);
+		}
+	}
+
+	/**
+	 * Check if the value is written as a structure which can contain itself. Note that {@link JsonArray} and
+	 * {@link JsonObject} are a {@link Collection} and a {@link Map}.
+	 */
+	private static boolean isStructure(@Nullable Object value) {
+		return value instanceof Map || value instanceof Collection || value instanceof Object[];
 	}
 
 	/**
-	 * Write a {@link JsonObject}. Throws {@link JsonIOException} if this is unexpected.
+	 * Begin writing a {@link Map}, a {@link Collection} or an object array, and push it to the stacks.
 	 */
-	private void valueObject(@NotNull JsonObject object) throws IOException {
+	private static void beginStructure(@NotNull JsonOutput output, @NotNull Object structure,
+			@NotNull Map<@NotNull Object, @NotNull Object> recursionStack,
+			@NotNull ArrayDeque<Object> structures, @NotNull ArrayDeque<Iterator<?>> iterators)
+			throws IOException {
 		// check recursion
-		if (recursionStack.put(object, object) != null) throw new JsonIOException("Recursive structure detected!");
-		// write object
-		beginObject();
-		for (final Map.Entry<String, JsonElement> entry : object.entrySet()) {
-			name(entry.getKey());
-			value(entry.getValue());
+		if (recursionStack.put(structure, structure) != null) {
+			throw new JsonIOException(JsonError.INVALID_STRUCTURE, "Recursive structure detected!");
+		}
+		structures.push(structure);
+		if (structure instanceof Map<?, ?> map) {
+			output.beginObject();
+			iterators.push(map.entrySet().iterator());
+		} else if (structure instanceof Collection<?> collection) {
+			output.beginArray();
+			iterators.push(collection.iterator());
+		} else {
+			output.beginArray();
+			iterators.push(Arrays.asList((Object[]) structure).iterator());
+		}
+	}
+
+	/**
+	 * Write a value which cannot contain itself: {@code null}, a non-structure {@link JsonElement}, a
+	 * {@link CharSequence}, a {@link Character}, a {@link Boolean}, a standard {@link Number} or a primitive array.
+	 * Throws {@link JsonIOException} if the type of the value is not supported.
+	 */
+	private static void valueLeaf(@NotNull JsonOutput output, @Nullable Object value) throws IOException {
+		if (value == null) {
+			output.valueNull();
+		} else if (value instanceof JsonElement element) {
+			output.value(element);
+		} else if (value instanceof CharSequence) {
+			output.valueString(value.toString());
+		} else if (value instanceof Boolean bool) {
+			output.valueBoolean(bool);
+		} else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+			output.valueNumber(((Number) value).longValue());
+		} else if (value instanceof Double number) {
+			output.valueNumber(number);
+		} else if (value instanceof Float number) {
+			// the shortest decimal which rounds to this float, not the exact value of the widened double
+			if (Float.isFinite(number)) {
+				output.valueNumber(new BigDecimal(number.toString()));
+			} else {
+				output.valueNumber(number.doubleValue());
+			}
+		} else if (value instanceof BigInteger number) {
+			output.valueNumber(number);
+		} else if (value instanceof BigDecimal number) {
+			output.valueNumber(number);
+		} else if (value instanceof Character character) {
+			output.valueString(character);
+		} else if (value.getClass().isArray()) {
+			// a primitive array, the other arrays are structures
+			if (output instanceof JsonWriter writer) {
+				if (value instanceof long[] values) {
+					writer.valueArray(values);
+					return;
+				} else if (value instanceof int[] values) {
+					writer.valueArray(values);
+					return;
+				} else if (value instanceof double[] values) {
+					writer.valueArray(values);
+					return;
+				}
+			}
+			output.beginArray();
+			final int length = Array.getLength(value);
+			for (int index = 0; index < length; index++) valueLeaf(output, Array.get(value, index));
+			output.end();
+		} else {
+			throw new JsonIOException(JsonError.INVALID_STRUCTURE, "Unsupported value!");
 		}
-		end();
-		// remove from recursion stack
-		if (recursionStack.remove(object) != object) throw new AssertionError(); // safeguard
 	}
 
 	//========================================
@@ -390,6 +755,19 @@ public class JsonWriter implements JsonOutput {
 		writeStringUnchecked(string);
 	}
 
+	/**
+	 * Write the separator before a name (COMMA for name-value pair separator).
+	 */
+	private void writeNameSeparator() throws IOException {
+		switch (state) {
+			case STATE_CLOSED -> throw new IllegalStateException("Already closed!");
+			case STATE_EXPECT_NAME_WITH_COMMA -> writer.write(',');
+			case STATE_EXPECT_NAME_NO_SEPARATOR -> {
+			}
+			default -> throw new JsonIOException(JsonError.INVALID_STATE, "Name not expected!");
+		}
+	}
+
 	/**
 	 * Write the separator (COLON for the name value separator, COMMA for the value separator or for name-value pair
 	 * separator)
@@ -409,14 +787,14 @@ public class JsonWriter implements JsonOutput {
 					this.state = STATE_EXPECT_DOCUMENT_END;
 				}
 			}
-			default -> throw new JsonIOException("Value not expected!");
+			default -> throw new JsonIOException(JsonError.INVALID_STATE, "Value not expected!");
 		}
 	}
 
 	/**
 	 * Escape string and write out the escaped string.
 	 */
-	private void writeStringUnchecked(@NotNull String string) throws IOException {
+	private void writeStringUnchecked(@NotNull CharSequence string) throws IOException {
 		writer.write('"');
 		final int length = string.length();
 		int count = 0;
@@ -426,26 +804,90 @@ public class JsonWriter implements JsonOutput {
 				count += 1;
 			} else {
 				if (count > 0) {
-					writer.write(string, index - count, count);
+					writeChars(string, index - count, count);
 					count = 0;
 				}
-				switch (c) {
-					case '"' -> writer.write("\\\"");
-					case '\\' -> writer.write("\\\\");
-					case '\r' -> writer.write("\\r");
-					case '\n' -> writer.write("\\n");
-					case '\t' -> writer.write("\\t");
-					case '\b' -> writer.write("\\b");
-					case '\f' -> writer.write("\\f");
-					default -> {
-						writer.write("\\u00");
-						writer.write(c >= 0x10 ? '1' : '0');
-						writer.write(c + (c >= 10 ? 'A' - 10 : '0'));
+				writeEscape(c);
+			}
+		}
+		if (count > 0) writeChars(string, length - count, count);
+		writer.write('"');
+	}
+
+	/**
+	 * Escape string which is read from the source until its end and write out the escaped string.
+	 */
+	private void writeStringUnchecked(@NotNull Reader source) throws IOException {
+		writer.write('"');
+		char[] chars = this.chars;
+		if (chars == null) this.chars = chars = new char[1024];
+		while (true) {
+			final int length = source.read(chars, 0, chars.length);
+			if (length < 0) break;
+			int count = 0;
+			for (int index = 0; index < length; index++) {
+				final int c = chars[index];
+				if (c >= ' ' && c != '"' && c != '\\') {
+					count += 1;
+				} else {
+					if (count > 0) {
+						writer.write(chars, index - count, count);
+						count = 0;
 					}
+					writeEscape(c);
 				}
 			}
+			if (count > 0) writer.write(chars, length - count, count);
 		}
-		if (count > 0) writer.write(string, length - count, count);
 		writer.write('"');
 	}
+
+	/**
+	 * Write out the escape sequence of a character which cannot be written as is in a string.
+	 */
+	private void writeEscape(int c) throws IOException {
+		switch (c) {
+			case '"' -> writer.write("\\\"");
+			case '\\' -> writer.write("\\\\");
+			case '\r' -> writer.write("\\r");
+			case '\n' -> writer.write("\\n");
+			case '\t' -> writer.write("\\t");
+			case '\b' -> writer.write("\\b");
+			case '\f' -> writer.write("\\f");
+			default -> {
+				writer.write("\\u00");
+				writer.write(c >= 0x10 ? '1' : '0');
+				final int digit = c & 0xF;
+				writer.write(digit + (digit >= 10 ? 'A' - 10 : '0'));
+			}
+		}
+	}
+
+	/**
+	 * The buffer used to write the characters of a {@link StringBuilder} or of a streamed string, or {@code null} if
+	 * not used yet.
+	 */
+	private char @Nullable [] chars;
+
+	/**
+	 * Write a part of the text. Unlike {@link Writer#append(CharSequence, int, int)}, no intermediate {@link String}
+	 * is created.
+	 */
+	private void writeChars(@NotNull CharSequence text, int start, int count) throws IOException {
+		if (text instanceof String string) {
+			writer.write(string, start, count);
+		} else if (text instanceof StringBuilder builder) {
+			char[] chars = this.chars;
+			if (chars == null) this.chars = chars = new char[1024];
+			while (count > 0) {
+				final int length = Math.min(count, chars.length);
+				builder.getChars(start, start + length, chars, 0);
+				writer.write(chars, 0, length);
+				start += length;
+				count -= length;
+			}
+		} else {
+			writer.append(text, start, start + count);
+		}
+	}
 }
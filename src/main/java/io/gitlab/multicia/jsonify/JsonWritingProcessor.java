@@ -0,0 +1,190 @@
+/*
+ * This file is part of jsonify.
+ *
+ * jsonify is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * jsonify is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with jsonify. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.gitlab.multicia.jsonify;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A {@link Flow.Processor} which subscribes to {@link JsonElement}s and publishes them serialized by
+ * {@link JsonWriter} as newline-delimited JSON, one UTF-8 encoded {@link ByteBuffer} per element. Since each element
+ * produces exactly one buffer, the demand of the subscriber is forwarded to upstream as is.
+ * <p>
+ * The processor supports a single subscriber.
+ */
+public final class JsonWritingProcessor implements Flow.Processor<JsonElement, ByteBuffer> {
+	private final @NotNull ChunkOutput output = new ChunkOutput();
+	private final @NotNull Writer writer = new OutputStreamWriter(output, StandardCharsets.UTF_8);
+
+	/**
+	 * The JSON writer, which is reset for each element.
+	 */
+	private final @NotNull JsonWriter jsonWriter = new JsonWriter(writer);
+
+	private final @NotNull AtomicReference<Flow.Subscription> upstream = new AtomicReference<>();
+	private final @NotNull AtomicReference<Flow.Subscriber<? super ByteBuffer>> downstream = new AtomicReference<>();
+	private final @NotNull AtomicLong pendingDemand = new AtomicLong();
+	private final @NotNull AtomicReference<Throwable> error = new AtomicReference<>();
+	private final @NotNull AtomicBoolean terminated = new AtomicBoolean();
+	private volatile boolean completed;
+
+	/**
+	 * Creates a writing processor.
+	 */
+	public JsonWritingProcessor() {
+	}
+
+	//========================================
+
+	@Override
+	public void subscribe(@NotNull Flow.Subscriber<? super ByteBuffer> subscriber) {
+		if (!downstream.compareAndSet(null, subscriber)) {
+			subscriber.onSubscribe(new Flow.Subscription() {
+				@Override
+				public void request(long n) {
+				}
+
+				@Override
+				public void cancel() {
+				}
+			});
+			subscriber.onError(new IllegalStateException("Already subscribed!"));
+			return;
+		}
+		subscriber.onSubscribe(new Flow.Subscription() {
+			@Override
+			public void request(long n) {
+				if (n <= 0) {
+					cancelUpstream();
+					terminate(new IllegalArgumentException("Invalid request!"));
+					return;
+				}
+				pendingDemand.getAndAccumulate(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+				forwardDemand();
+			}
+
+			@Override
+			public void cancel() {
+				terminated.set(true);
+				cancelUpstream();
+			}
+		});
+		// deliver the termination of upstream which happened before subscribing
+		if (completed) terminate(error.get());
+	}
+
+	@Override
+	public void onSubscribe(@NotNull Flow.Subscription subscription) {
+		if (!upstream.compareAndSet(null, subscription)) {
+			subscription.cancel();
+			return;
+		}
+		forwardDemand();
+	}
+
+	@Override
+	public void onNext(@NotNull JsonElement element) {
+		final Flow.Subscriber<? super ByteBuffer> subscriber = downstream.get();
+		if (subscriber == null || terminated.get()) return;
+		final ByteBuffer buffer;
+		try {
+			// the writer is not closed, since closing it also closes the underlying writer
+			jsonWriter.reset(writer);
+			jsonWriter.value(element);
+			writer.write('\n');
+			writer.flush();
+			buffer = output.take();
+		} catch (IOException | RuntimeException exception) {
+			output.reset();
+			cancelUpstream();
+			terminate(exception);
+			return;
+		}
+		subscriber.onNext(buffer);
+	}
+
+	@Override
+	public void onError(@NotNull Throwable throwable) {
+		error.compareAndSet(null, throwable);
+		this.completed = true;
+		terminate(throwable);
+	}
+
+	@Override
+	public void onComplete() {
+		this.completed = true;
+		terminate(null);
+	}
+
+	//========================================
+
+	/**
+	 * Forward the pending demand to upstream, if upstream is already subscribed.
+	 */
+	private void forwardDemand() {
+		final Flow.Subscription subscription = upstream.get();
+		if (subscription == null) return;
+		final long demand = pendingDemand.getAndSet(0);
+		if (demand > 0) subscription.request(demand);
+	}
+
+	private void cancelUpstream() {
+		final Flow.Subscription subscription = upstream.get();
+		if (subscription != null) subscription.cancel();
+	}
+
+	/**
+	 * A byte array output stream which hands over its buffer to the subscriber instead of copying it.
+	 */
+	private static final class ChunkOutput extends ByteArrayOutputStream {
+		/**
+		 * Return the written bytes and start a new buffer, which is as large as the last one is filled.
+		 */
+		@NotNull ByteBuffer take() {
+			final ByteBuffer buffer = ByteBuffer.wrap(buf, 0, count);
+			this.buf = new byte[Math.max(32, count)];
+			this.count = 0;
+			return buffer;
+		}
+	}
+
+	/**
+	 * Deliver the termination to the subscriber, at most once. The termination is an error if the throwable is not
+	 * {@code null}, otherwise it is the completion.
+	 */
+	private void terminate(@Nullable Throwable throwable) {
+		final Flow.Subscriber<? super ByteBuffer> subscriber = downstream.get();
+		if (subscriber == null || !terminated.compareAndSet(false, true)) return;
+		if (throwable != null) {
+			subscriber.onError(throwable);
+		} else {
+			subscriber.onComplete();
+		}
+	}
+}
@@ -123,4 +123,83 @@ public final class Jsonify {
 		}
 		throw new JsonValueException("Not a BigDecimal!");
 	}
+
+
+	// The following methods never throw: they return the default value if the element is missing, is null, or cannot
+	// be converted to the requested type.
+
+	public static @Nullable JsonKeyword toJsonKeyword(@Nullable JsonElement element, @Nullable JsonKeyword defaultValue) {
+		return element instanceof JsonKeyword keyword ? keyword : defaultValue;
+	}
+
+	public static @Nullable JsonString toJsonString(@Nullable JsonElement element, @Nullable JsonString defaultValue) {
+		return element instanceof JsonString string ? string : defaultValue;
+	}
+
+	public static @Nullable JsonNumber toJsonNumber(@Nullable JsonElement element, @Nullable JsonNumber defaultValue) {
+		return element instanceof JsonNumber number ? number : defaultValue;
+	}
+
+	public static @Nullable JsonArray toJsonArray(@Nullable JsonElement element, @Nullable JsonArray defaultValue) {
+		return element instanceof JsonArray array ? array : defaultValue;
+	}
+
+	public static @Nullable JsonObject toJsonObject(@Nullable JsonElement element, @Nullable JsonObject defaultValue) {
+		return element instanceof JsonObject object ? object : defaultValue;
+	}
+
+
+	public static @Nullable Boolean toBoolean(@Nullable JsonElement element, @Nullable Boolean defaultValue) {
+		if (element == JsonKeyword.TRUE) return Boolean.TRUE;
+		if (element == JsonKeyword.FALSE) return Boolean.FALSE;
+		return defaultValue;
+	}
+
+	public static @Nullable String toString(@Nullable JsonElement element, @Nullable String defaultValue) {
+		return element instanceof JsonString ? element.toString() : defaultValue;
+	}
+
+	public static @Nullable Character toCharacter(@Nullable JsonElement element, @Nullable Character defaultValue) {
+		if (element instanceof JsonString string) {
+			final Character character = string.toCharacter();
+			if (character != null) return character;
+		}
+		return defaultValue;
+	}
+
+	public static @Nullable Number toNumber(@Nullable JsonElement element, @Nullable Number defaultValue) {
+		return element instanceof JsonNumber number ? number.getValue() : defaultValue;
+	}
+
+	public static @Nullable Long toLong(@Nullable JsonElement element, @Nullable Long defaultValue) {
+		if (element instanceof JsonNumber number) {
+			final Long value = number.getAsLong();
+			if (value != null) return value;
+		}
+		return defaultValue;
+	}
+
+	public static @Nullable Double toDouble(@Nullable JsonElement element, @Nullable Double defaultValue) {
+		if (element instanceof JsonNumber number) {
+			final Double value = number.getAsDouble();
+			if (value != null) return value;
+		}
+		return defaultValue;
+	}
+
+	public static @Nullable BigInteger toBigInteger(@Nullable JsonElement element, @Nullable BigInteger defaultValue) {
+		if (element instanceof JsonNumber number) {
+			final BigInteger value = number.getAsBigInteger();
+			if (value != null) return value;
+		}
+		return defaultValue;
+	}
+
+	public static @Nullable BigDecimal toBigDecimal(@Nullable JsonElement element, @Nullable BigDecimal defaultValue) {
+		if (element instanceof JsonNumber number) {
+			final BigDecimal value = number.getAsBigDecimal();
+			if (value != null) return value;
+		}
+		return defaultValue;
+	}
 }
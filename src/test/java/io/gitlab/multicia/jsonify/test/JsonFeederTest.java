@@ -0,0 +1,180 @@
+/*
+ * This file is part of jsonify.
+ *
+ * jsonify is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * jsonify is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with jsonify. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.gitlab.multicia.jsonify.test;
+
+import io.gitlab.multicia.jsonify.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Test non-blocking feeding.
+ */
+public class JsonFeederTest {
+	private static final String INPUT = "{\"name\":\"café 😀 \\u00e9\\n\",\"numbers\":[0,-12,3.5e-3,123456789012345678901234],"
+			+ "\"nested\":{\"empty\":[],\"keywords\":[true,false,null]}}";
+
+	private static List<JsonToken> readTokens(JsonReader reader) throws IOException {
+		final List<JsonToken> tokens = new ArrayList<>();
+		while (true) {
+			final JsonToken token = reader.nextToken();
+			tokens.add(token);
+			if (token == JsonTokens.EOF) return tokens;
+			if (token == JsonTokens.ARRAY_END || token == JsonTokens.OBJECT_END) reader.endStructure();
+		}
+	}
+
+	@Test
+	public void feedTokens() throws IOException {
+		final byte[] bytes = INPUT.getBytes(StandardCharsets.UTF_8);
+		try (final JsonFeeder feeder = new JsonFeeder()) {
+			final List<JsonToken> tokens = new ArrayList<>();
+			int offset = 0;
+			while (true) {
+				final JsonToken token = feeder.nextToken();
+				if (token == JsonTokens.NEED_MORE_INPUT) {
+					if (offset < bytes.length) {
+						feeder.feed(ByteBuffer.wrap(bytes, offset++, 1));
+					} else {
+						feeder.endOfInput();
+					}
+					continue;
+				}
+				tokens.add(token);
+				if (token == JsonTokens.EOF) break;
+				if (token == JsonTokens.ARRAY_END || token == JsonTokens.OBJECT_END) feeder.endStructure();
+			}
+			Assertions.assertEquals(readTokens(new JsonReader(new StringReader(INPUT))), tokens);
+		} catch (final JsonIOException e) {
+			Assertions.fail(e);
+		}
+	}
+
+	@Test
+	public void feedStructures() throws IOException {
+		final byte[] bytes = (INPUT + "\n[1,[2,3],4]\n" + INPUT).getBytes(StandardCharsets.UTF_8);
+		try (final JsonFeeder feeder = new JsonFeeder(true)) {
+			final List<JsonElement> elements = new ArrayList<>();
+			int offset = 0;
+			boolean parsing = false;
+			while (true) {
+				if (parsing) {
+					final JsonElement element = feeder.parseStructure();
+					if (element != null) {
+						elements.add(element);
+						parsing = false;
+						continue;
+					}
+				} else {
+					final JsonToken token = feeder.nextToken();
+					if (token == JsonTokens.EOF) break;
+					if (token == JsonTokens.ARRAY_BEGIN) {
+						// skip over the second document lazily
+						feeder.endStructure();
+						continue;
+					}
+					if (token == JsonTokens.OBJECT_BEGIN) {
+						parsing = true;
+						continue;
+					}
+					Assertions.assertEquals(JsonTokens.NEED_MORE_INPUT, token);
+				}
+				if (offset < bytes.length) {
+					final int length = Math.min(7, bytes.length - offset);
+					feeder.feed(ByteBuffer.wrap(bytes, offset, length));
+					offset += length;
+				} else {
+					feeder.endOfInput();
+				}
+			}
+			final JsonElement expected = JsonReader.read(new StringReader(INPUT));
+			Assertions.assertEquals(List.of(expected, expected), elements);
+		} catch (final JsonIOException e) {
+			Assertions.fail(e);
+		}
+	}
+
+	@Test
+	public void feedLargeTokens() throws IOException {
+		// each chunk resumes the incomplete string or number, which would be quadratic if it is read again
+		final String input = "[{\"skipped\":\"" + "x\\n".repeat(100000) + "\",\"n\":" + "7".repeat(100000) + "},\""
+				+ "é😀\\u00e9\\\"".repeat(50000) + "\",-" + "1".repeat(100000) + ".5e+10,123]";
+		final byte[] bytes = input.getBytes(StandardCharsets.UTF_8);
+		try (final JsonFeeder feeder = new JsonFeeder()) {
+			final List<JsonToken> tokens = new ArrayList<>();
+			int offset = 0;
+			while (true) {
+				final JsonToken token = feeder.nextToken();
+				if (token == JsonTokens.NEED_MORE_INPUT) {
+					if (offset < bytes.length) {
+						final int length = Math.min(3, bytes.length - offset);
+						feeder.feed(ByteBuffer.wrap(bytes, offset, length));
+						offset += length;
+					} else {
+						feeder.endOfInput();
+					}
+					continue;
+				}
+				tokens.add(token);
+				if (token == JsonTokens.EOF) break;
+				// skip over the object lazily
+				if (token == JsonTokens.OBJECT_BEGIN || token == JsonTokens.ARRAY_END) feeder.endStructure();
+			}
+			final JsonReader reader = new JsonReader(new StringReader(input));
+			final List<JsonToken> expected = new ArrayList<>();
+			expected.add(reader.nextToken());
+			expected.add(reader.nextToken());
+			reader.endStructure();
+			expected.addAll(readTokens(reader));
+			Assertions.assertEquals(expected, tokens);
+		} catch (final JsonIOException e) {
+			Assertions.fail(e);
+		}
+	}
+
+	@Test
+	public void throwFeedInvalid() throws IOException {
+		try (final JsonFeeder feeder = new JsonFeeder()) {
+			feeder.feed(ByteBuffer.wrap("[1,".getBytes(StandardCharsets.UTF_8)));
+			Assertions.assertEquals(JsonTokens.ARRAY_BEGIN, feeder.nextToken());
+			Assertions.assertEquals(new JsonNumber(1), feeder.nextToken());
+			Assertions.assertEquals(JsonTokens.NEED_MORE_INPUT, feeder.nextToken());
+			feeder.endOfInput();
+			Assertions.assertThrows(JsonIOException.class, feeder::nextToken);
+		}
+		try (final JsonFeeder feeder = new JsonFeeder()) {
+			feeder.feed(ByteBuffer.wrap(new byte[]{'"', (byte) 0xC3}));
+			Assertions.assertThrows(IOException.class, feeder::endOfInput);
+		}
+		try (final JsonFeeder feeder = new JsonFeeder()) {
+			feeder.feed(ByteBuffer.wrap(new byte[]{'"', (byte) 0xC3}));
+			// feeding characters in the middle of an UTF-8 sequence is rejected without breaking the feeder
+			Assertions.assertThrows(IllegalStateException.class, () -> feeder.feed("\""));
+			feeder.feed(ByteBuffer.wrap(new byte[]{(byte) 0xA9, '"'}));
+			feeder.endOfInput();
+			Assertions.assertEquals(new JsonString("é"), feeder.nextToken());
+			Assertions.assertEquals(JsonTokens.EOF, feeder.nextToken());
+		}
+	}
+}
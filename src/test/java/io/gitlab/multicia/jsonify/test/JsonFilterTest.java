@@ -0,0 +1,89 @@
+/*
+ * This file is part of jsonify.
+ *
+ * jsonify is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * jsonify is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with jsonify. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package io.gitlab.multicia.jsonify.test;
+
+import io.gitlab.multicia.jsonify.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+/**
+ * Test streaming projection.
+ */
+public class JsonFilterTest {
+	private static final String INPUT = "{\"id\":1,\"user\":{\"name\":\"a\",\"password\":\"secret\",\"a/b\":2},"
+			+ "\"items\":[{\"id\":2,\"price\":3.5,\"tags\":[\"x\"]},{\"id\":3,\"price\":4}],\"meta\":null}";
+
+	private static String filter(JsonFilter filter, String input) throws IOException {
+		final StringWriter writer = new StringWriter();
+		filter.copy(new StringReader(input), writer);
+		return writer.toString();
+	}
+
+	@Test
+	public void filterInclude() {
+		try {
+			Assertions.assertEquals("{\"id\":1,\"user\":{\"name\":\"a\"},\"items\":[{\"id\":2},{\"id\":3}]}",
+					filter(JsonFilter.include("/id", "/user/name", "/items/*/id"), INPUT));
+			Assertions.assertEquals("{\"user\":{\"a/b\":2},\"items\":[{\"id\":3,\"price\":4}]}",
+					filter(JsonFilter.include("/user/a~1b", "/items/1"), INPUT));
+			// a structure is only written if something in it is kept
+			Assertions.assertEquals("{\"items\":[{\"tags\":[\"x\"]}]}",
+					filter(JsonFilter.include("/items/*/tags", "/items/*/tags/0/deeper"), INPUT));
+			Assertions.assertEquals("{}", filter(JsonFilter.include("/a/b"), "{\"a\":{\"c\":1},\"d\":2}"));
+			Assertions.assertEquals("{\"a\":{\"b\":{\"c\":1}}}",
+					filter(JsonFilter.include("/a/b/c"), "{\"a\":{\"x\":[],\"b\":{\"d\":2,\"c\":1}},\"e\":[]}"));
+			Assertions.assertEquals("[[{\"x\":3}]]",
+					filter(JsonFilter.include("/*/1/x"), "[[{\"x\":1},{\"y\":2,\"x\":3}],[{\"y\":4}]]"));
+			Assertions.assertEquals(INPUT, filter(JsonFilter.include(""), INPUT));
+			Assertions.assertEquals("{}", filter(JsonFilter.include("/missing"), INPUT));
+			Assertions.assertEquals("\"text\"", filter(JsonFilter.include("/missing"), "\"text\""));
+		} catch (IOException exception) {
+			Assertions.fail(exception);
+		}
+	}
+
+	@Test
+	public void filterExclude() {
+		try {
+			Assertions.assertEquals("{\"id\":1,\"user\":{\"name\":\"a\",\"a/b\":2},"
+							+ "\"items\":[{\"id\":2,\"tags\":[\"x\"]},{\"id\":3}],\"meta\":null}",
+					filter(JsonFilter.exclude("/user/password", "/items/*/price"), INPUT));
+			Assertions.assertEquals("{\"id\":1,\"items\":[{\"id\":3,\"price\":4}],\"meta\":null}",
+					filter(JsonFilter.exclude("/user", "/items/0"), INPUT));
+			Assertions.assertEquals("[]", filter(JsonFilter.exclude("/*"), "[1,[2,{\"a\":3}],\"4\"]"));
+		} catch (IOException exception) {
+			Assertions.fail(exception);
+		}
+	}
+
+	@Test
+	public void throwFilterInvalid() {
+		Assertions.assertThrows(IllegalArgumentException.class, () -> JsonFilter.include("a/b"));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> JsonFilter.include("/a~2"));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> JsonFilter.exclude(""));
+		Assertions.assertThrows(JsonIOException.class,
+				() -> filter(JsonFilter.exclude("/a"), "{\"a\":[1,}"));
+		Assertions.assertThrows(JsonIOException.class,
+				() -> filter(JsonFilter.include("/a"), "{\"b\":1} 2"));
+	}
+}
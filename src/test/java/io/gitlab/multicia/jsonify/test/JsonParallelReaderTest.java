@@ -0,0 +1,125 @@
+/*
+ * This file is part of jsonify.
+ *
+ * jsonify is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * jsonify is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with jsonify. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package io.gitlab.multicia.jsonify.test;
+
+import io.gitlab.multicia.jsonify.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+/**
+ * Test parallel reading.
+ */
+public class JsonParallelReaderTest {
+	private static String createDocuments(int count) {
+		final StringBuilder builder = new StringBuilder();
+		for (int index = 0; index < count; index++) {
+			builder.append("{\"id\":").append(index).append(",\"name\":\"élément ").append(index)
+					.append("\",\"tags\":[").append(index % 7).append(",null,true]}\n");
+		}
+		return builder.toString();
+	}
+
+	private static List<JsonElement> readSequentially(String input) {
+		try (final Stream<JsonElement> stream = JsonReader.readDocuments(new StringReader(input))) {
+			return stream.toList();
+		}
+	}
+
+	@Test
+	public void readDocumentsOrdered() throws IOException {
+		final String input = createDocuments(5000);
+		final ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			final List<JsonElement> elements = new ArrayList<>();
+			new JsonParallelReader(executor, 1000, 3, true).readDocuments(
+					ByteBuffer.wrap(input.getBytes(StandardCharsets.UTF_8)), elements::add);
+			Assertions.assertEquals(readSequentially(input), elements);
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void readDocumentsUnorderedFile() throws IOException {
+		final String input = createDocuments(5000);
+		final Path path = Files.createTempFile("jsonify", ".ndjson");
+		try {
+			Files.writeString(path, input, StandardCharsets.UTF_8);
+			final List<JsonElement> elements = Collections.synchronizedList(new ArrayList<>());
+			new JsonParallelReader(ForkJoinPool.commonPool(), 4096, 4, false)
+					.readDocuments(path, elements::add);
+			final List<JsonElement> expected = readSequentially(input);
+			Assertions.assertEquals(expected.size(), elements.size());
+			Assertions.assertEquals(new HashSet<>(expected), new HashSet<>(elements));
+		} finally {
+			Files.delete(path);
+		}
+	}
+
+	@Test
+	public void readArray() throws IOException {
+		final String input = " [" + createDocuments(3000).replace("\n", ",").replace("\"name\"", "\"n,[{\\\"\"") + "\"end\"] \n";
+		final JsonElement expected = JsonReader.read(new StringReader(input));
+		final Path path = Files.createTempFile("jsonify", ".json");
+		try {
+			Files.writeString(path, input, StandardCharsets.UTF_8);
+			Assertions.assertEquals(expected, new JsonParallelReader(ForkJoinPool.commonPool(), 1000, 4, true).read(path));
+		} finally {
+			Files.delete(path);
+		}
+		final JsonParallelReader reader = new JsonParallelReader(ForkJoinPool.commonPool(), 100, 4, true);
+		Assertions.assertEquals(expected, reader.read(ByteBuffer.wrap(input.getBytes(StandardCharsets.UTF_8))));
+		Assertions.assertEquals(new JsonArray(), reader.read(ByteBuffer.wrap(" [ ] ".getBytes(StandardCharsets.UTF_8))));
+		Assertions.assertEquals(JsonReader.read(new StringReader("{\"a\":1}")),
+				reader.read(ByteBuffer.wrap("{\"a\":1}".getBytes(StandardCharsets.UTF_8))));
+	}
+
+	@Test
+	public void throwArrayInvalid() {
+		final JsonParallelReader reader = new JsonParallelReader(ForkJoinPool.commonPool(), 1, 4, true);
+		for (final String input : List.of("[1,2", "[1,,2]", "[1,2]]", "[1,2,]", "[,1]", "[1,2] 3",
+				"[1}", "[1,2}")) {
+			Assertions.assertThrows(JsonIOException.class,
+					() -> reader.read(ByteBuffer.wrap(input.getBytes(StandardCharsets.UTF_8))), input);
+		}
+	}
+
+	@Test
+	public void throwDocumentsInvalid() {
+		final String input = createDocuments(1000) + "{\"id\":}\n" + createDocuments(1000);
+		Assertions.assertThrows(JsonIOException.class, () -> new JsonParallelReader().readDocuments(
+				ByteBuffer.wrap(input.getBytes(StandardCharsets.UTF_8)), element -> {
+				}));
+	}
+}
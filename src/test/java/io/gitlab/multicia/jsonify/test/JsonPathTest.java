@@ -0,0 +1,101 @@
+/*
+ * This file is part of jsonify.
+ *
+ * jsonify is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * jsonify is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with jsonify. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package io.gitlab.multicia.jsonify.test;
+
+import io.gitlab.multicia.jsonify.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Test JSONPath queries.
+ */
+public class JsonPathTest {
+	private static final String INPUT = "{\"id\":1,\"items\":[{\"id\":2,\"price\":8.5,\"name\":\"a\"},"
+			+ "{\"id\":3,\"price\":12,\"name\":\"b\",\"tags\":[\"x\",\"y\"]},{\"id\":4,\"price\":20,\"name\":\"c\"}],"
+			+ "\"meta\":{\"id\":{\"id\":5},\"total\":3,\"a.b\":true}}";
+
+	private static final Map<String, String> EXPECTED = Map.ofEntries(
+			Map.entry("$", "[" + INPUT + "]"),
+			Map.entry("$.id", "[1]"),
+			Map.entry("$.items[*].price", "[8.5,12,20]"),
+			Map.entry("$['items'][1].tags[0]", "[\"x\"]"),
+			Map.entry("$.items[1:].id", "[3,4]"),
+			Map.entry("$.items[0:3:2].name", "[\"a\",\"c\"]"),
+			Map.entry("$..id", "[1,2,3,4,{\"id\":5},5]"),
+			Map.entry("$..tags.*", "[\"x\",\"y\"]"),
+			Map.entry("$..[0]", "[{\"id\":2,\"price\":8.5,\"name\":\"a\"},\"x\"]"),
+			Map.entry("$.meta[\"a.b\"]", "[true]"),
+			Map.entry("$.meta.*", "[{\"id\":5},3,true]"),
+			Map.entry("$.items[?(@.price > 10)].name", "[\"b\",\"c\"]"),
+			Map.entry("$.items[?(@.price <= 12)].id", "[2,3]"),
+			Map.entry("$.items[?(@.name == 'b')].tags[1]", "[\"y\"]"),
+			Map.entry("$.items[?(@.tags)].id", "[3]"),
+			Map.entry("$.items[?(@.tags[1] != \"y\")].id", "[]"),
+			Map.entry("$..[?(@.id == 5)]", "[{\"id\":5}]"),
+			Map.entry("$.missing..id", "[]"));
+
+	@Test
+	public void evaluateElement() {
+		try {
+			final JsonElement element = JsonReader.read(new StringReader(INPUT));
+			for (final Map.Entry<String, String> entry : EXPECTED.entrySet()) {
+				Assertions.assertEquals(JsonReader.read(new StringReader(entry.getValue())),
+						JsonPath.compile(entry.getKey()).evaluate(element), entry.getKey());
+			}
+		} catch (IOException exception) {
+			Assertions.fail(exception);
+		}
+	}
+
+	@Test
+	public void evaluateReader() {
+		try {
+			for (final Map.Entry<String, String> entry : EXPECTED.entrySet()) {
+				final List<JsonElement> matches = new ArrayList<>();
+				JsonPath.compile(entry.getKey()).evaluate(new StringReader(INPUT), matches::add);
+				Assertions.assertEquals(JsonReader.read(new StringReader(entry.getValue())), matches, entry.getKey());
+			}
+			try (final JsonReader reader = new JsonReader(new StringReader("[" + INPUT + ",9]"))) {
+				reader.beginArray();
+				final List<JsonElement> matches = new ArrayList<>();
+				JsonPath.compile("$.items[*].id").evaluate(reader, matches::add);
+				Assertions.assertEquals(List.of(new JsonNumber(2), new JsonNumber(3), new JsonNumber(4)), matches);
+				Assertions.assertEquals(9L, reader.nextLong());
+			}
+		} catch (IOException exception) {
+			Assertions.fail(exception);
+		}
+	}
+
+	@Test
+	public void throwPathInvalid() {
+		for (final String path : new String[]{"", "a.b", "$.", "$[", "$[-1]", "$[1:2:0]", "$['a", "$[?(@.a >)]", "$a"}) {
+			Assertions.assertThrows(IllegalArgumentException.class, () -> JsonPath.compile(path), path);
+		}
+		Assertions.assertThrows(JsonIOException.class,
+				() -> JsonPath.compile("$..x").evaluate(new StringReader("{\"a\":[1,}"), element -> {
+				}));
+	}
+}
@@ -0,0 +1,82 @@
+/*
+ * This file is part of jsonify.
+ *
+ * jsonify is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * jsonify is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with jsonify. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package io.gitlab.multicia.jsonify.test;
+
+import io.gitlab.multicia.jsonify.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+
+/**
+ * Test streaming copy.
+ */
+public class JsonPipeTest {
+	@Test
+	public void copyDocument() {
+		final String input = " { \"a\" : [ 1 , -2.50E+3 , 123456789012345678901234567890 ] , \"b\\u0041\\n\\u001a\" :"
+				+ " { \"c\" : true , \"d\" : null , \"e\" : [ ] , \"f\" : { } } , \"\uD83D\uDE00\" : \"\\/\" } ";
+		final String expected = "{\"a\":[1,-2.50E+3,123456789012345678901234567890],\"bA\\n\\u001A\":"
+				+ "{\"c\":true,\"d\":null,\"e\":[],\"f\":{}},\"\uD83D\uDE00\":\"/\"}";
+		try {
+			final StringWriter writer = new StringWriter();
+			JsonPipe.copy(new StringReader(input), writer);
+			Assertions.assertEquals(expected, writer.toString());
+			Assertions.assertEquals(JsonReader.read(new StringReader(input)), JsonReader.read(new StringReader(expected)));
+
+			final StringWriter longWriter = new StringWriter();
+			final String longString = "\"" + "abc\\\"".repeat(1000) + "\"";
+			JsonPipe.copy(new StringReader(longString), longWriter);
+			Assertions.assertEquals(longString, longWriter.toString());
+		} catch (IOException exception) {
+			Assertions.fail(exception);
+		}
+	}
+
+	@Test
+	public void copyValue() {
+		try (final JsonReader reader = new JsonReader(new StringReader("[{\"a\":[1,2]},3,\"x\"]"))) {
+			final StringWriter writer = new StringWriter();
+			try (final JsonWriter output = new JsonWriter(writer)) {
+				reader.beginArray();
+				output.beginArray();
+				JsonPipe.copy(reader, output);
+				Assertions.assertEquals(3L, reader.nextLong());
+				JsonPipe.copy(reader, output);
+				Assertions.assertThrows(JsonValueException.class, () -> JsonPipe.copy(reader, output));
+				reader.endStructure();
+				output.end();
+			}
+			Assertions.assertEquals("[{\"a\":[1,2]},\"x\"]", writer.toString());
+		} catch (IOException exception) {
+			Assertions.fail(exception);
+		}
+	}
+
+	@Test
+	public void throwCopyInvalid() {
+		for (final String input : List.of("", "[1,", "{\"a\":}", "[1] 2", "[01]", "\"\\q\"")) {
+			Assertions.assertThrows(JsonIOException.class,
+					() -> JsonPipe.copy(new StringReader(input), new StringWriter()), input);
+		}
+	}
+}
@@ -0,0 +1,111 @@
+/*
+ * This file is part of jsonify.
+ *
+ * jsonify is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * jsonify is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with jsonify. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package io.gitlab.multicia.jsonify.test;
+
+import io.gitlab.multicia.jsonify.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Map;
+
+/**
+ * Test JSON Pointer.
+ */
+public class JsonPointerTest {
+	// the example of RFC 6901
+	private static final String INPUT = "{\"foo\":[\"bar\",\"baz\"],\"\":0,\"a/b\":1,\"c%d\":2,\"e^f\":3,\"g|h\":4,"
+			+ "\"i\\\\j\":5,\"k\\\"l\":6,\" \":7,\"m~n\":8,\"x\":{\"y\":[{\"z\":[true,null]}]}}";
+
+	private static final Map<String, String> EXPECTED = Map.ofEntries(
+			Map.entry("", INPUT),
+			Map.entry("/foo", "[\"bar\",\"baz\"]"),
+			Map.entry("/foo/0", "\"bar\""),
+			Map.entry("/", "0"),
+			Map.entry("/a~1b", "1"),
+			Map.entry("/c%d", "2"),
+			Map.entry("/e^f", "3"),
+			Map.entry("/g|h", "4"),
+			Map.entry("/i\\j", "5"),
+			Map.entry("/k\"l", "6"),
+			Map.entry("/ ", "7"),
+			Map.entry("/m~0n", "8"),
+			Map.entry("/x/y/0/z/1", "null"));
+
+	@Test
+	public void evaluateElement() {
+		try {
+			final JsonElement element = JsonReader.read(new StringReader(INPUT));
+			for (final Map.Entry<String, String> entry : EXPECTED.entrySet()) {
+				Assertions.assertEquals(JsonReader.read(new StringReader(entry.getValue())),
+						JsonPointer.compile(entry.getKey()).evaluate(element), entry.getKey());
+			}
+			for (final String pointer : new String[]{"/foo/2", "/foo/-", "/foo/01", "/foo/bar", "/x/y/0/z/0/a", "/q"}) {
+				Assertions.assertNull(JsonPointer.compile(pointer).evaluate(element), pointer);
+			}
+		} catch (IOException exception) {
+			Assertions.fail(exception);
+		}
+	}
+
+	@Test
+	public void evaluateReader() {
+		try {
+			for (final Map.Entry<String, String> entry : EXPECTED.entrySet()) {
+				try (final JsonReader reader = new JsonReader(new StringReader("[" + INPUT + ",9]"))) {
+					reader.beginArray();
+					Assertions.assertEquals(JsonReader.read(new StringReader(entry.getValue())),
+							JsonPointer.compile(entry.getKey()).evaluate(reader), entry.getKey());
+					Assertions.assertEquals(9L, reader.nextLong());
+				}
+			}
+			for (final String pointer : new String[]{"/foo/2", "/foo/-", "/foo/bar", "/x/y/0/z/0/a", "/q", "/x/q/r"}) {
+				try (final JsonReader reader = new JsonReader(new StringReader("[" + INPUT + ",9]"))) {
+					reader.beginArray();
+					Assertions.assertNull(JsonPointer.compile(pointer).evaluate(reader), pointer);
+					Assertions.assertEquals(9L, reader.nextLong());
+				}
+			}
+
+			final JsonPointer pointer = JsonPointer.compile("/x/y/0/z");
+			try (final JsonReader reader = new JsonReader(new StringReader(INPUT))) {
+				Assertions.assertTrue(pointer.seek(reader));
+				reader.beginArray();
+				Assertions.assertTrue(reader.nextBoolean());
+				reader.endStructure();
+				for (int index = 0; index < pointer.size(); index++) reader.endStructure();
+				Assertions.assertEquals(JsonTokenType.EOF, reader.peek());
+			}
+		} catch (IOException exception) {
+			Assertions.fail(exception);
+		}
+	}
+
+	@Test
+	public void throwPointerInvalid() {
+		Assertions.assertThrows(IllegalArgumentException.class, () -> JsonPointer.compile("foo"));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> JsonPointer.compile("/foo~"));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> JsonPointer.compile("/foo~2"));
+		Assertions.assertEquals(JsonPointer.compile("/a~1b"), JsonPointer.compile("/a~1b"));
+		Assertions.assertEquals("/a~1b", JsonPointer.compile("/a~1b").toString());
+		Assertions.assertThrows(JsonIOException.class,
+				() -> JsonPointer.compile("/b").evaluate(new JsonReader(new StringReader("{\"a\":[1,}"))));
+	}
+}
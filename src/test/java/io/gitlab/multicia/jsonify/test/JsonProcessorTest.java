@@ -0,0 +1,208 @@
+/*
+ * This file is part of jsonify.
+ *
+ * jsonify is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * jsonify is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with jsonify. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.gitlab.multicia.jsonify.test;
+
+import io.gitlab.multicia.jsonify.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.stream.Stream;
+
+/**
+ * Test the {@link Flow} processors.
+ */
+public class JsonProcessorTest {
+	/**
+	 * A synchronous publisher of the items of a list, which counts the requested items.
+	 */
+	private static final class ListPublisher<T> implements Flow.Publisher<T> {
+		private final List<T> items;
+		private long requested;
+
+		ListPublisher(List<T> items) {
+			this.items = items;
+		}
+
+		@Override
+		public void subscribe(Flow.Subscriber<? super T> subscriber) {
+			final Iterator<T> iterator = items.iterator();
+			subscriber.onSubscribe(new Flow.Subscription() {
+				private boolean done;
+
+				@Override
+				public void request(long n) {
+					requested += n;
+					while (n-- > 0 && !done) {
+						if (iterator.hasNext()) {
+							subscriber.onNext(iterator.next());
+						}
+						if (!iterator.hasNext()) {
+							this.done = true;
+							subscriber.onComplete();
+						}
+					}
+				}
+
+				@Override
+				public void cancel() {
+					this.done = true;
+				}
+			});
+		}
+	}
+
+	/**
+	 * A subscriber which requests one item at a time, and collects all items.
+	 */
+	private static final class ListSubscriber<T> implements Flow.Subscriber<T> {
+		private final List<T> items = new ArrayList<>();
+		private Flow.Subscription subscription;
+		private boolean completed;
+		private Throwable error;
+
+		@Override
+		public void onSubscribe(Flow.Subscription subscription) {
+			this.subscription = subscription;
+			subscription.request(1);
+		}
+
+		@Override
+		public void onNext(T item) {
+			items.add(item);
+			subscription.request(1);
+		}
+
+		@Override
+		public void onError(Throwable throwable) {
+			this.error = throwable;
+		}
+
+		@Override
+		public void onComplete() {
+			this.completed = true;
+		}
+	}
+
+	private static List<String> split(String input, int size) {
+		final List<String> chunks = new ArrayList<>();
+		for (int index = 0; index < input.length(); index += size) {
+			chunks.add(input.substring(index, Math.min(index + size, input.length())));
+		}
+		return chunks;
+	}
+
+	private static String createDocuments(int count) {
+		final StringBuilder builder = new StringBuilder();
+		for (int index = 0; index < count; index++) {
+			builder.append("{\"id\":").append(index).append(",\"name\":\"élément ").append(index)
+					.append("\",\"tags\":[").append(index % 7).append(",null,true]} \"text\"\n");
+		}
+		return builder.toString();
+	}
+
+	@Test
+	public void parseDocuments() throws IOException {
+		final String input = createDocuments(200);
+		final ListPublisher<ByteBuffer> publisher = new ListPublisher<>(split(input, 13).stream()
+				.map(chunk -> ByteBuffer.wrap(chunk.getBytes(StandardCharsets.UTF_8))).toList());
+		final JsonParsingProcessor<ByteBuffer> processor = JsonParsingProcessor.ofBytes(false);
+		final ListSubscriber<JsonElement> subscriber = new ListSubscriber<>();
+		publisher.subscribe(processor);
+		processor.subscribe(subscriber);
+		Assertions.assertNull(subscriber.error);
+		Assertions.assertTrue(subscriber.completed);
+		try (final Stream<JsonElement> stream = JsonReader.readDocuments(new StringReader(input))) {
+			Assertions.assertEquals(stream.toList(), subscriber.items);
+		}
+	}
+
+	@Test
+	public void parseArrayBackpressure() throws IOException {
+		final String input = "[" + createDocuments(100).replace("} \"text\"\n", "},\"text\",") + "1]";
+		final ListPublisher<CharSequence> publisher = new ListPublisher<>(List.copyOf(split(input, 100)));
+		final JsonParsingProcessor<CharSequence> processor = JsonParsingProcessor.ofChars(true);
+		final List<JsonElement> items = new ArrayList<>();
+		final Flow.Subscription[] subscription = new Flow.Subscription[1];
+		publisher.subscribe(processor);
+		processor.subscribe(new Flow.Subscriber<>() {
+			@Override
+			public void onSubscribe(Flow.Subscription s) {
+				subscription[0] = s;
+			}
+
+			@Override
+			public void onNext(JsonElement item) {
+				items.add(item);
+			}
+
+			@Override
+			public void onError(Throwable throwable) {
+				Assertions.fail(throwable);
+			}
+
+			@Override
+			public void onComplete() {
+			}
+		});
+		Assertions.assertEquals(0, publisher.requested);
+		subscription[0].request(3);
+		Assertions.assertEquals(3, items.size());
+		// only the chunks containing the first three elements are requested
+		Assertions.assertTrue(publisher.requested < 3);
+		subscription[0].request(Long.MAX_VALUE);
+		Assertions.assertEquals(JsonReader.read(new StringReader(input)), items);
+	}
+
+	@Test
+	public void writeDocuments() throws IOException {
+		final String input = createDocuments(100);
+		final List<JsonElement> elements;
+		try (final Stream<JsonElement> stream = JsonReader.readDocuments(new StringReader(input))) {
+			elements = stream.toList();
+		}
+		final ListPublisher<JsonElement> publisher = new ListPublisher<>(elements);
+		final JsonWritingProcessor writing = new JsonWritingProcessor();
+		final JsonParsingProcessor<ByteBuffer> parsing = JsonParsingProcessor.ofBytes(false);
+		final ListSubscriber<JsonElement> subscriber = new ListSubscriber<>();
+		publisher.subscribe(writing);
+		writing.subscribe(parsing);
+		parsing.subscribe(subscriber);
+		Assertions.assertNull(subscriber.error);
+		Assertions.assertTrue(subscriber.completed);
+		Assertions.assertEquals(elements, subscriber.items);
+	}
+
+	@Test
+	public void throwParseInvalid() {
+		final ListPublisher<CharSequence> publisher = new ListPublisher<>(List.of("[1,", "2,,3]"));
+		final JsonParsingProcessor<CharSequence> processor = JsonParsingProcessor.ofChars(true);
+		final ListSubscriber<JsonElement> subscriber = new ListSubscriber<>();
+		publisher.subscribe(processor);
+		processor.subscribe(subscriber);
+		Assertions.assertEquals(List.of(new JsonNumber(1), new JsonNumber(2)), subscriber.items);
+		Assertions.assertInstanceOf(JsonIOException.class, subscriber.error);
+	}
+}
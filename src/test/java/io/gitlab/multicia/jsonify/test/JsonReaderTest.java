@@ -0,0 +1,794 @@
+/*
+ * This file is part of jsonify.
+ *
+ * jsonify is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * jsonify is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with jsonify. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package io.gitlab.multicia.jsonify.test;
+
+import io.gitlab.multicia.jsonify.*;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+/**
+ * Test the low level API of {@link JsonReader}.
+ */
+public class JsonReaderTest {
+	@Test
+	public void readTypedObject() throws IOException {
+		try (final JsonReader reader = new JsonReader(new StringReader(
+				"{\"a\": 1, \"b\": -2.5e1, \"c\": \"x\\ty\", \"d\": true, \"e\": null, \"f\": [false]}"))) {
+			reader.beginObject();
+			Assertions.assertEquals(JsonTokenType.NAME, reader.peek());
+			Assertions.assertEquals("a", reader.nextName());
+			Assertions.assertEquals(1L, reader.nextLong());
+			Assertions.assertEquals("b", reader.nextName());
+			Assertions.assertEquals(-25.0, reader.nextDouble());
+			Assertions.assertEquals("c", reader.nextName());
+			Assertions.assertEquals("x\ty", reader.nextString());
+			Assertions.assertEquals("d", reader.nextName());
+			Assertions.assertTrue(reader.nextBoolean());
+			Assertions.assertEquals("e", reader.nextName());
+			Assertions.assertEquals(JsonTokenType.NULL, reader.peek());
+			reader.nextNull();
+			Assertions.assertEquals("f", reader.nextName());
+			reader.beginArray();
+			Assertions.assertFalse(reader.nextBoolean());
+			Assertions.assertEquals(JsonTokenType.ARRAY_END, reader.peek());
+			reader.endStructure();
+			Assertions.assertEquals(JsonTokenType.OBJECT_END, reader.peek());
+			reader.endStructure();
+			Assertions.assertEquals(JsonTokenType.EOF, reader.peek());
+		} catch (final JsonIOException e) {
+			Assertions.fail(e);
+		}
+	}
+
+	@Test
+	public void readTypedMismatch() throws IOException {
+		try (final JsonReader reader = new JsonReader(new StringReader("[\"1\", 1]"))) {
+			reader.beginArray();
+			Assertions.assertThrows(JsonValueException.class, reader::nextLong);
+			Assertions.assertEquals("1", reader.nextString());
+			Assertions.assertThrows(JsonValueException.class, reader::nextString);
+			Assertions.assertEquals(1L, reader.nextLong());
+			reader.endStructure();
+		} catch (final JsonIOException e) {
+			Assertions.fail(e);
+		}
+	}
+
+	@Test
+	public void readLongLimits() throws IOException {
+		try (final JsonReader reader = new JsonReader(new StringReader(
+				"[9223372036854775807, -9223372036854775808, 9223372036854775808, 1.0]"))) {
+			reader.beginArray();
+			Assertions.assertEquals(Long.MAX_VALUE, reader.nextLong());
+			Assertions.assertEquals(Long.MIN_VALUE, reader.nextLong());
+			Assertions.assertThrows(JsonValueException.class, reader::nextLong);
+			Assertions.assertThrows(JsonValueException.class, reader::nextLong);
+			Assertions.assertEquals(JsonTokenType.ARRAY_END, reader.peek());
+			reader.endStructure();
+		} catch (final JsonIOException e) {
+			Assertions.fail(e);
+		}
+	}
+
+	@Test
+	public void readDoubles() throws IOException {
+		final String[] inputs = {
+				"0", "-0.0", "0.1", "1e22", "1e23", "123456789012345678", "1.7976931348623157e308", "4.9e-324",
+				"0.000001234", "3.141592653589793", "-12.5E-3", "1E+2"
+		};
+		for (final String input : inputs) {
+			try (final JsonReader reader = new JsonReader(new StringReader(input))) {
+				Assertions.assertEquals(Double.parseDouble(input), reader.nextDouble(), input);
+			} catch (final JsonIOException e) {
+				Assertions.fail(e);
+			}
+		}
+		Assertions.assertThrows(JsonValueException.class,
+				() -> new JsonReader(new StringReader("1e400")).nextDouble());
+	}
+
+	@Test
+	public void readNumberToken() throws IOException {
+		try (final JsonReader reader = new JsonReader(new StringReader("[12, 123456789012345678901234567890]"))) {
+			reader.beginArray();
+			Assertions.assertEquals(new JsonNumber(12), reader.nextNumber());
+			Assertions.assertTrue(reader.nextNumber().isBig());
+			reader.endStructure();
+		} catch (final JsonIOException e) {
+			Assertions.fail(e);
+		}
+	}
+
+	@Test
+	public void skipStructure() throws IOException {
+		try (final JsonReader reader = new JsonReader(new StringReader(
+				"[{\"a\": [1, {\"b\": \"\\u0041\"}], \"c\": 2}, 3]"))) {
+			reader.beginArray();
+			reader.beginObject();
+			Assertions.assertEquals("a", reader.nextName());
+			reader.endStructure();
+			Assertions.assertEquals(3L, reader.nextLong());
+			reader.endStructure();
+			Assertions.assertEquals(JsonTokenType.EOF, reader.peek());
+		} catch (final JsonIOException e) {
+			Assertions.fail(e);
+		}
+	}
+
+
+	@Test
+	public void readNameTable() throws IOException {
+		final JsonNameTable table = new JsonNameTable("id", "name", "names", "\uD83D\uDE00");
+		try (final JsonReader reader = new JsonReader(new StringReader(
+				"{\"name\": 1, \"id\": 2, \"nam\": 3, \"n\\u0061mes\": 4, \"\\uD83D\\uDE00\": 5, \"\uD83D\uDE00\": 6}"))) {
+			reader.beginObject();
+			Assertions.assertEquals(1, reader.nextName(table));
+			Assertions.assertEquals(1L, reader.nextLong());
+			Assertions.assertEquals(0, reader.nextName(table));
+			Assertions.assertEquals(2L, reader.nextLong());
+			Assertions.assertEquals(-1, reader.nextName(table));
+			Assertions.assertEquals(3L, reader.nextLong());
+			Assertions.assertEquals(2, reader.nextName(table));
+			Assertions.assertEquals(4L, reader.nextLong());
+			Assertions.assertEquals(3, reader.nextName(table));
+			Assertions.assertEquals(5L, reader.nextLong());
+			Assertions.assertEquals(3, reader.nextName(table));
+			Assertions.assertEquals(6L, reader.nextLong());
+			reader.endStructure();
+		} catch (final JsonIOException e) {
+			Assertions.fail(e);
+		}
+		Assertions.assertEquals(2, table.indexOf("names"));
+		Assertions.assertEquals(-1, table.indexOf("nam"));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> new JsonNameTable("a", "a"));
+	}
+
+
+	/**
+	 * A factory that builds plain Java collections.
+	 */
+	private static final class PlainFactory implements JsonTreeFactory<Object, List<Object>, Map<String, Object>> {
+		@Override
+		public @NotNull List<Object> beginArray() {
+			return new ArrayList<>();
+		}
+
+		@Override
+		public void addValue(@NotNull List<Object> array, Object value) {
+			array.add(value);
+		}
+
+		@Override
+		public Object endArray(@NotNull List<Object> array) {
+			return array;
+		}
+
+		@Override
+		public @NotNull Map<String, Object> beginObject() {
+			return new HashMap<>();
+		}
+
+		@Override
+		public void putValue(@NotNull Map<String, Object> object, @NotNull String name, Object value) {
+			object.put(name, value);
+		}
+
+		@Override
+		public Object endObject(@NotNull Map<String, Object> object) {
+			return object;
+		}
+
+		@Override
+		public Object valueBoolean(boolean value) {
+			return value;
+		}
+
+		@Override
+		public Object valueNumber(long value) {
+			return value;
+		}
+
+		@Override
+		public Object valueNumber(@NotNull BigInteger value) {
+			return value;
+		}
+
+		@Override
+		public Object valueNumber(@NotNull BigDecimal value) {
+			return value.doubleValue();
+		}
+
+		@Override
+		public Object valueString(@NotNull String value) {
+			return value;
+		}
+
+		@Override
+		public Object valueNull() {
+			return null;
+		}
+	}
+
+	@Test
+	public void readTreeFactory() throws IOException {
+		try {
+			final Object value = JsonReader.read(new StringReader(
+					"{\"a\": [1, 2.5, \"x\", true, null], \"b\": {}}"), new PlainFactory());
+			final Map<String, Object> expected = new HashMap<>();
+			expected.put("a", Arrays.asList(1L, 2.5, "x", true, null));
+			expected.put("b", Map.of());
+			Assertions.assertEquals(expected, value);
+			Assertions.assertEquals("x", JsonReader.read(new StringReader("\"x\""), new PlainFactory()));
+		} catch (final JsonIOException e) {
+			Assertions.fail(e);
+		}
+	}
+
+
+	@Test
+	public void readDocuments() throws IOException {
+		try (final Stream<JsonElement> stream = JsonReader.readDocuments(new StringReader(
+				"{\"a\":1}\n[2]\r\n3 \"x\"{}true\n"))) {
+			final JsonObject object = new JsonObject();
+			object.putValue("a", 1L);
+			final JsonArray array = new JsonArray();
+			array.addValue(2L);
+			Assertions.assertEquals(List.of(object, array, new JsonNumber(3), new JsonString("x"), new JsonObject(),
+					JsonKeyword.TRUE), stream.toList());
+		}
+		try (final Stream<JsonElement> stream = JsonReader.readDocuments(new StringReader(" \n "))) {
+			Assertions.assertEquals(0, stream.count());
+		}
+		try (final Stream<JsonElement> stream = JsonReader.readDocuments(new StringReader("[1]\n[2,]\n"))) {
+			Assertions.assertThrows(UncheckedIOException.class, stream::toList);
+		}
+	}
+
+	@Test
+	public void readDocumentsTokens() throws IOException {
+		try (final JsonReader reader = new JsonReader(new StringReader("[1] [2]"), true)) {
+			Assertions.assertEquals(JsonTokens.ARRAY_BEGIN, reader.nextToken());
+			Assertions.assertEquals(1L, reader.nextLong());
+			reader.endStructure();
+			Assertions.assertEquals(JsonTokens.ARRAY_BEGIN, reader.nextToken());
+			reader.endStructure();
+			Assertions.assertEquals(JsonTokens.EOF, reader.nextToken());
+		} catch (final JsonIOException e) {
+			Assertions.fail(e);
+		}
+	}
+
+	@Test
+	public void readElements() throws IOException {
+		final StringBuilder builder = new StringBuilder("[");
+		for (int index = 0; index < 5000; index++) {
+			builder.append(index > 0 ? "," : "").append("{\"id\":").append(index).append(",\"tags\":[").append(index)
+					.append("]}");
+		}
+		final String input = builder.append("]").toString();
+		final JsonArray expected = (JsonArray) JsonReader.read(new StringReader(input));
+		try (final Stream<JsonElement> stream = JsonReader.readElements(new StringReader(input))) {
+			Assertions.assertEquals(expected, stream.toList());
+		}
+		try (final Stream<JsonElement> stream = JsonReader.readElements(new StringReader(input))) {
+			Assertions.assertEquals(expected.stream().mapToLong(element -> ((JsonObject) element).getAsLong("id")).sum(),
+					stream.parallel().mapToLong(element -> ((JsonObject) element).getAsLong("id")).sum());
+		}
+		try (final JsonReader reader = new JsonReader(new StringReader("{\"a\":[1,[2],3],\"b\":4}"))) {
+			reader.beginObject();
+			Assertions.assertEquals("a", reader.nextName());
+			Assertions.assertEquals(3, reader.elements(1).count());
+			Assertions.assertEquals("b", reader.nextName());
+			Assertions.assertEquals(4L, reader.nextLong());
+			reader.endStructure();
+			Assertions.assertEquals(JsonTokenType.EOF, reader.peek());
+		} catch (final JsonIOException e) {
+			Assertions.fail(e);
+		}
+		Assertions.assertThrows(JsonValueException.class, () -> JsonReader.readElements(new StringReader("{}")));
+		Assertions.assertThrows(UncheckedIOException.class, () -> JsonReader.readElements(new StringReader("[1] 2")).count());
+	}
+
+	@Test
+	public void readReset() throws IOException {
+		try (final JsonReader reader = new JsonReader(new StringReader("[1,{\"a\":"))) {
+			reader.beginArray();
+			Assertions.assertEquals(1L, reader.nextLong());
+			reader.beginObject();
+			Assertions.assertThrows(JsonIOException.class, reader::endStructure);
+			reader.reset(new StringReader("{\"b\":[true]}"));
+			Assertions.assertEquals(JsonReader.read(new StringReader("{\"b\":[true]}")), reader.nextElement());
+			Assertions.assertEquals(JsonTokenType.EOF, reader.peek());
+			reader.close();
+			reader.reset(new StringReader("\"c\""));
+			Assertions.assertEquals("c", reader.nextString());
+		} catch (final JsonIOException e) {
+			Assertions.fail(e);
+		}
+	}
+
+	@Test
+	public void validate() throws IOException {
+		try {
+			JsonReader.validate(new StringReader(" {\"a\":[1,-0.5e+10,\"\\u00e9\\n😀\",true,false,null,{}],\"b\":[[]]} "));
+			JsonReader.validate(ByteBuffer.wrap("[\"élément\",1e3]".getBytes(StandardCharsets.UTF_8)));
+		} catch (final JsonIOException e) {
+			Assertions.fail(e);
+		}
+	}
+
+	@Test
+	public void throwValidateInvalid() {
+		for (final String input : List.of("", "[1,]", "{\"a\" 1}", "[01]", "[1.]", "[\"\\x\"]", "[\"\t\"]",
+				"[[1]", "[1]]", "{\"a\":1]", "[\"\uDC00\"]", "[\"\uD800\"]", "nul", "[1] 2")) {
+			Assertions.assertThrows(IOException.class, () -> JsonReader.validate(new StringReader(input)), input);
+		}
+		Assertions.assertThrows(IOException.class,
+				() -> JsonReader.validate(ByteBuffer.wrap(new byte[]{'"', (byte) 0xC3, '"'})));
+	}
+
+	@Test
+	public void tryReadResult() {
+		final JsonResult success = JsonReader.tryRead(new StringReader("{\"a\":[1,2]}"));
+		Assertions.assertTrue(success.isSuccess());
+		Assertions.assertNull(success.getError());
+		Assertions.assertEquals(List.of(new JsonNumber(1), new JsonNumber(2)),
+				Jsonify.toJsonArray(((JsonObject) success.getElement()).get("a")));
+		Assertions.assertTrue(JsonReader.tryValidate(new StringReader("[]")).isSuccess());
+
+		final Map<String, JsonError> inputs = Map.of(
+				"[1,", JsonError.UNEXPECTED_END,
+				"", JsonError.UNEXPECTED_END,
+				"[1}", JsonError.UNEXPECTED_CHARACTER,
+				"[1] 2", JsonError.UNEXPECTED_CHARACTER,
+				"[-]", JsonError.INVALID_NUMBER,
+				"[\"\\q\"]", JsonError.INVALID_STRING,
+				"[\"a", JsonError.UNEXPECTED_END,
+				"[\"\uDC00\"]", JsonError.INVALID_ENCODING);
+		for (final Map.Entry<String, JsonError> entry : inputs.entrySet()) {
+			final JsonResult result = JsonReader.tryRead(new StringReader(entry.getKey()));
+			Assertions.assertFalse(result.isSuccess(), entry.getKey());
+			Assertions.assertEquals(entry.getValue(), result.getError(), entry.getKey());
+			Assertions.assertNotNull(result.getMessage());
+			Assertions.assertEquals(entry.getValue(), JsonReader.tryValidate(new StringReader(entry.getKey())).getError());
+		}
+		Assertions.assertEquals(JsonError.INVALID_ENCODING,
+				JsonReader.tryValidate(ByteBuffer.wrap(new byte[]{'"', (byte) 0xFF, '"'})).getError());
+
+		final JsonIOException exception = Assertions.assertThrows(JsonIOException.class,
+				() -> JsonReader.read(new StringReader("[1,")));
+		Assertions.assertEquals(JsonError.UNEXPECTED_END, exception.getError());
+		Assertions.assertEquals(0, new JsonIOException(JsonError.UNKNOWN, "test", false).getStackTrace().length);
+		Assertions.assertEquals(0, new JsonValueException("test", false).getStackTrace().length);
+	}
+
+	@Test
+	public void convertDefault() {
+		Assertions.assertEquals(1L, Jsonify.toLong(new JsonNumber(1), 2L));
+		Assertions.assertEquals(2L, Jsonify.toLong(new JsonString("1"), 2L));
+		Assertions.assertEquals(2L, Jsonify.toLong(null, 2L));
+		Assertions.assertEquals(2L, Jsonify.toLong(new JsonNumber(1.5), 2L));
+		Assertions.assertEquals(true, Jsonify.toBoolean(JsonKeyword.NULL, true));
+		Assertions.assertEquals("a", Jsonify.toString(new JsonString("a"), "b"));
+		Assertions.assertEquals("b", Jsonify.toString(new JsonArray(), "b"));
+		Assertions.assertNull(Jsonify.toJsonObject(new JsonArray(), null));
+	}
+
+	@Test
+	public void readLimits() {
+		final JsonLimits limits = JsonLimits.NONE.withMaxDepth(3).withMaxStringLength(4).withMaxNumberLength(5)
+				.withMaxContainerSize(3).withMaxTotalChars(20);
+		Assertions.assertTrue(JsonReader.tryRead(new StringReader("[[{\"ab\":123}],1,2]"), limits).isSuccess());
+		final Map<String, JsonError> inputs = Map.of(
+				"[[[[]]]]", JsonError.LIMIT_EXCEEDED,
+				"[\"abcde\"]", JsonError.LIMIT_EXCEEDED,
+				"{\"ab\\u0063de\":1}", JsonError.LIMIT_EXCEEDED,
+				"[123456]", JsonError.LIMIT_EXCEEDED,
+				"[1,2,3,4]", JsonError.LIMIT_EXCEEDED,
+				"[1,                    2]", JsonError.LIMIT_EXCEEDED,
+				"[1,2,3", JsonError.UNEXPECTED_END);
+		for (final Map.Entry<String, JsonError> entry : inputs.entrySet()) {
+			Assertions.assertEquals(entry.getValue(),
+					JsonReader.tryRead(new StringReader(entry.getKey()), limits).getError(), entry.getKey());
+			Assertions.assertEquals(entry.getValue(),
+					JsonReader.tryValidate(new StringReader(entry.getKey()), limits).getError(), entry.getKey());
+		}
+		Assertions.assertThrows(IllegalArgumentException.class, () -> JsonLimits.NONE.withMaxDepth(0));
+
+		final JsonLimits timeout = JsonLimits.NONE.withTimeout(Duration.ofNanos(1)).withCheckInterval(1);
+		Assertions.assertEquals(JsonError.CANCELLED,
+				JsonReader.tryRead(new StringReader("[1,2,3,4,5,6,7,8,9]"), timeout).getError());
+		Thread.currentThread().interrupt();
+		try {
+			Assertions.assertEquals(JsonError.CANCELLED, JsonReader.tryRead(new StringReader("[1,2]"),
+					JsonLimits.NONE.withInterruptible(true)).getError());
+		} finally {
+			Assertions.assertTrue(Thread.interrupted());
+		}
+
+		try (final JsonReader reader = new JsonReader(new StringReader("[\"abcde\"]"), limits)) {
+			reader.beginArray();
+			final JsonIOException exception = Assertions.assertThrows(JsonIOException.class, reader::nextString);
+			Assertions.assertEquals(JsonError.LIMIT_EXCEEDED, exception.getError());
+		} catch (IOException exception) {
+			Assertions.fail(exception);
+		}
+
+		// a huge number is rejected while scanning, long before the end of the input
+		for (final String number : List.of("1", "0.1", "1e1")) {
+			final StringReader input = new StringReader("[" + number + "1".repeat(1000000) + "]");
+			final long[] read = new long[1];
+			final Reader counting = new Reader() {
+				@Override
+				public int read(char @NotNull [] buffer, int offset, int length) throws IOException {
+					final int count = input.read(buffer, offset, length);
+					if (count > 0) read[0] += count;
+					return count;
+				}
+
+				@Override
+				public void close() {
+				}
+			};
+			Assertions.assertEquals(JsonError.LIMIT_EXCEEDED,
+					JsonReader.tryValidate(counting, JsonLimits.NONE.withMaxNumberLength(100)).getError(), number);
+			Assertions.assertTrue(read[0] <= 8192, number);
+		}
+	}
+
+	@Test
+	public void readDeepNesting() throws InterruptedException {
+		final int depth = 50000;
+		final String input = "[{\"a\":".repeat(depth) + "1" + "}]".repeat(depth);
+		final AtomicReference<Throwable> failure = new AtomicReference<>();
+		// a small stack, which overflows if parsing, writing or comparing is recursive
+		final Thread thread = new Thread(null, () -> {
+			try {
+				final JsonElement element = JsonReader.read(new StringReader(input));
+				final StringWriter writer = new StringWriter();
+				JsonWriter.write(writer, element);
+				Assertions.assertEquals(input, writer.toString());
+				final JsonElement other = JsonReader.read(new StringReader(input));
+				Assertions.assertTrue(element.equals(other));
+				Assertions.assertEquals(element.hashCode(), other.hashCode());
+				Assertions.assertFalse(element.equals(JsonReader.read(new StringReader(input.replace("1}", "2}")))));
+			} catch (Throwable throwable) {
+				failure.set(throwable);
+			}
+		}, "deep", 256 * 1024);
+		thread.start();
+		thread.join();
+		if (failure.get() != null) Assertions.fail(failure.get());
+
+		final JsonArray array = new JsonArray();
+		array.addValue(1);
+		final JsonObject object = new JsonObject();
+		object.put("a", array);
+		object.putValue("b", "c");
+		Assertions.assertEquals(List.of(new JsonNumber(1)), array);
+		Assertions.assertEquals(array, List.of(new JsonNumber(1)));
+		Assertions.assertEquals(List.of(new JsonNumber(1)).hashCode(), array.hashCode());
+		Assertions.assertEquals(Map.of("b", new JsonString("c"), "a", List.of(new JsonNumber(1))), object);
+		Assertions.assertEquals(Map.of("b", new JsonString("c"), "a", List.of(new JsonNumber(1))).hashCode(),
+				object.hashCode());
+		Assertions.assertNotEquals(Map.of("a", array, "c", new JsonString("c")), object);
+	}
+
+	@Test
+	public void readRawValue() {
+		try {
+			final JsonReader reader = new JsonReader(new StringReader(
+					"{ \"a\" : [1, 2.5e3 ,\"x\\\"y\"] , \"b\":{\"c\":null}\n, \"d\" : -12 }"));
+			reader.beginObject();
+			Assertions.assertEquals("a", reader.nextName());
+			Assertions.assertEquals("[1, 2.5e3 ,\"x\\\"y\"]", reader.nextRawValue());
+			Assertions.assertEquals("b", reader.nextName());
+			Assertions.assertEquals("{\"c\":null}", reader.nextRawValue());
+			Assertions.assertEquals("d", reader.nextName());
+			Assertions.assertEquals("-12", reader.nextRawValue());
+			reader.endStructure();
+			Assertions.assertEquals(JsonTokenType.EOF, reader.peek());
+
+			final JsonReader array = new JsonReader(new StringReader("[true,[],\"\"]"));
+			array.beginArray();
+			Assertions.assertEquals("true", array.nextRawValue());
+			Assertions.assertEquals("[]", array.nextRawValue());
+			Assertions.assertEquals("\"\"", array.nextRawValue());
+			Assertions.assertThrows(JsonValueException.class, array::nextRawValue);
+			array.endStructure();
+
+			Assertions.assertEquals("1e5", new JsonReader(new StringReader(" 1e5 ")).nextRawValue());
+
+			// a raw value larger than the input buffer
+			final StringBuilder builder = new StringBuilder("[");
+			for (int i = 0; i < 10000; i++) builder.append(i).append(", \"\u00e9\uD83D\uDE00\", ");
+			builder.append("{}]");
+			final String large = builder.toString();
+			final JsonReader reader2 = new JsonReader(new StringReader("{\"large\":" + large + " }"));
+			reader2.beginObject();
+			reader2.nextName();
+			Assertions.assertEquals(large, reader2.nextRawValue());
+			reader2.endStructure();
+		} catch (final IOException e) {
+			Assertions.fail(e);
+		}
+	}
+
+	@Test
+	public void readStringReader() {
+		try {
+			final StringBuilder builder = new StringBuilder();
+			for (int i = 0; i < 20000; i++) builder.append(i).append("\u00e9\uD83D\uDE00\"\\\n");
+			final String large = builder.toString();
+			final StringWriter output = new StringWriter();
+			final JsonWriter writer = new JsonWriter(output);
+			writer.beginArray();
+			writer.valueString(large);
+			writer.valueString("next");
+			writer.end();
+
+			final JsonReader reader = new JsonReader(new StringReader("{\"name\" : " + output + "}"));
+			reader.beginObject();
+			final StringBuilder name = new StringBuilder();
+			try (final Reader nameReader = reader.nextNameReader()) {
+				final char[] chunk = new char[3];
+				for (int count; (count = nameReader.read(chunk)) >= 0; ) name.append(chunk, 0, count);
+			}
+			Assertions.assertEquals("name", name.toString());
+			reader.beginArray();
+			final StringBuilder value = new StringBuilder();
+			final Reader valueReader = reader.nextStringReader();
+			// an odd chunk size splits some surrogate pairs
+			final char[] chunk = new char[7];
+			for (int count; (count = valueReader.read(chunk)) >= 0; ) value.append(chunk, 0, count);
+			Assertions.assertEquals(large, value.toString());
+			// an unfinished string is skipped at the next call
+			final Reader nextReader = reader.nextStringReader();
+			Assertions.assertEquals('n', nextReader.read());
+			reader.endStructure();
+			Assertions.assertEquals(-1, nextReader.read());
+			reader.endStructure();
+			Assertions.assertEquals(JsonTokenType.EOF, reader.peek());
+
+			final JsonReader invalid = new JsonReader(new StringReader("[\"abc\\x\"]"));
+			invalid.beginArray();
+			final Reader invalidReader = invalid.nextStringReader();
+			Assertions.assertThrows(JsonIOException.class, () -> invalidReader.read(new char[16]));
+			Assertions.assertThrows(JsonIOException.class, invalid::peek);
+		} catch (final IOException e) {
+			Assertions.fail(e);
+		}
+	}
+
+	@Test
+	public void readBinary() {
+		try {
+			final Random random = new Random(42);
+			final StringWriter output = new StringWriter();
+			final JsonWriter writer = new JsonWriter(output);
+			final List<byte[]> values = new ArrayList<>();
+			writer.beginArray();
+			for (int length = 0; length < 40; length++) values.add(new byte[length]);
+			values.add(new byte[100000]);
+			for (final byte[] value : values) {
+				random.nextBytes(value);
+				writer.valueString(Base64.getEncoder().encodeToString(value));
+			}
+			writer.end();
+
+			final JsonReader reader = new JsonReader(new StringReader(output.toString()));
+			reader.beginArray();
+			final ByteBuffer target = ByteBuffer.allocate(100000);
+			for (int index = 0; index < values.size(); index++) {
+				if (index % 2 == 0) {
+					Assertions.assertArrayEquals(values.get(index), reader.nextBinary());
+				} else {
+					target.clear();
+					Assertions.assertEquals(values.get(index).length, reader.nextBinary(target));
+					Assertions.assertArrayEquals(values.get(index), Arrays.copyOf(target.array(), target.position()));
+				}
+			}
+			reader.endStructure();
+
+			final JsonReader padding = new JsonReader(new StringReader("[\"YQ\", \"YWI\", \"YQ==\", \"P\\/8=\", \"\"]"));
+			padding.beginArray();
+			Assertions.assertArrayEquals(new byte[]{'a'}, padding.nextBinary());
+			Assertions.assertArrayEquals(new byte[]{'a', 'b'}, padding.nextBinary());
+			Assertions.assertArrayEquals(new byte[]{'a'}, padding.nextBinary());
+			Assertions.assertArrayEquals(new byte[]{0x3F, (byte) 0xFF}, padding.nextBinary());
+			Assertions.assertArrayEquals(new byte[0], padding.nextBinary());
+			padding.endStructure();
+
+			final JsonReader invalid = new JsonReader(new StringReader("[\"Y\", \"YQ=a\", \"YQ===\", \"Y!Q=\", 1, \"YWJj\"]"));
+			invalid.beginArray();
+			for (int index = 0; index < 4; index++) Assertions.assertThrows(JsonValueException.class, invalid::nextBinary);
+			Assertions.assertThrows(JsonValueException.class, invalid::nextBinary);
+			Assertions.assertEquals(1, invalid.nextLong());
+			Assertions.assertThrows(BufferOverflowException.class, () -> invalid.nextBinary(ByteBuffer.allocate(2)));
+		} catch (final IOException e) {
+			Assertions.fail(e);
+		}
+	}
+
+	@Test
+	public void readPrimitiveArrays() {
+		try {
+			final long[] longs = new long[1000];
+			for (int index = 0; index < longs.length; index++) longs[index] = (long) index * index * index * 1000003 - 7;
+			final StringWriter output = new StringWriter();
+			final JsonWriter writer = new JsonWriter(output);
+			writer.beginObject();
+			writer.name("longs");
+			writer.valueArray(longs);
+			writer.name("ints");
+			writer.valueArray(new int[]{1, -2, Integer.MAX_VALUE});
+			writer.name("doubles");
+			writer.valueArray(new double[]{1.5, -2, 3e100});
+			writer.name("empty");
+			writer.valueArray(new long[0]);
+			writer.end();
+
+			final JsonReader reader = new JsonReader(new StringReader(output.toString()));
+			reader.beginObject();
+			reader.nextName();
+			Assertions.assertArrayEquals(longs, reader.nextLongArray());
+			reader.nextName();
+			Assertions.assertArrayEquals(new int[]{1, -2, Integer.MAX_VALUE}, reader.nextIntArray());
+			reader.nextName();
+			Assertions.assertArrayEquals(new double[]{1.5, -2, 3e100}, reader.nextDoubleArray());
+			reader.nextName();
+			Assertions.assertArrayEquals(new double[0], reader.nextDoubleArray());
+			reader.endStructure();
+
+			// caller supplied buffer, in chunks
+			final JsonReader chunked = new JsonReader(new StringReader("[ 1, 2 ,3,4,5 ]"));
+			chunked.beginArray();
+			final long[] target = new long[4];
+			Assertions.assertEquals(3, chunked.nextLongs(target, 1, 3));
+			Assertions.assertArrayEquals(new long[]{0, 1, 2, 3}, target);
+			Assertions.assertEquals(2, chunked.nextLongs(target, 0, 4));
+			Assertions.assertArrayEquals(new long[]{4, 5, 2, 3}, target);
+			Assertions.assertEquals(0, chunked.nextLongs(target, 0, 4));
+			chunked.endStructure();
+			Assertions.assertThrows(IllegalStateException.class, () -> chunked.nextLongs(target, 0, 4));
+
+			final JsonReader invalid = new JsonReader(new StringReader("[1, \"a\", 2.5, 3000000000]"));
+			invalid.beginArray();
+			final int[] ints = new int[4];
+			Assertions.assertThrows(JsonValueException.class, () -> invalid.nextInts(ints, 0, 4));
+			Assertions.assertEquals(1, ints[0]);
+			Assertions.assertEquals("a", invalid.nextString());
+			Assertions.assertThrows(JsonValueException.class, () -> invalid.nextInts(ints, 0, 4));
+			Assertions.assertThrows(JsonValueException.class, () -> invalid.nextInts(ints, 0, 4));
+			Assertions.assertEquals(JsonTokenType.ARRAY_END, invalid.peek());
+		} catch (final IOException e) {
+			Assertions.fail(e);
+		}
+	}
+
+	@Test
+	public void parseHandler() {
+		final String input = " { \"a\" : [ 1 , -2.5 , 123456789012345678901234567890 , 1e400 ] , \"b\\n\" :"
+				+ " { \"c\" : true , \"d\" : null , \"e\" : [ ] , \"f\" : { } } , \"g\" : \"\\u0041\" } ";
+		final List<String> expected = List.of("{", "key:a", "[", "long:1", "double:-2.5",
+				"number:123456789012345678901234567890", "number:1e400", "]", "key:b\n", "{", "key:c", "boolean:true",
+				"key:d", "null", "key:e", "[", "]", "key:f", "{", "}", "}", "key:g", "string:A", "}");
+		try {
+			final RecordingHandler handler = new RecordingHandler();
+			JsonReader.parse(new StringReader(input), handler);
+			Assertions.assertEquals(expected, handler.events);
+		} catch (IOException exception) {
+			Assertions.fail(exception);
+		}
+
+		try (final JsonReader reader = new JsonReader(new StringReader("[{\"a\":[1]},2]"))) {
+			reader.beginArray();
+			final RecordingHandler handler = new RecordingHandler();
+			reader.parse(handler);
+			Assertions.assertEquals(List.of("{", "key:a", "[", "long:1", "]", "}"), handler.events);
+			Assertions.assertEquals(2L, reader.nextLong());
+			Assertions.assertThrows(JsonValueException.class, () -> reader.parse(handler));
+		} catch (IOException exception) {
+			Assertions.fail(exception);
+		}
+		Assertions.assertThrows(JsonIOException.class,
+				() -> JsonReader.parse(new StringReader("{\"a\":[1,}"), new RecordingHandler()));
+	}
+
+	private static final class RecordingHandler implements JsonHandler {
+		private final List<String> events = new ArrayList<>();
+
+		@Override
+		public void startObject() {
+			events.add("{");
+		}
+
+		@Override
+		public void endObject() {
+			events.add("}");
+		}
+
+		@Override
+		public void startArray() {
+			events.add("[");
+		}
+
+		@Override
+		public void endArray() {
+			events.add("]");
+		}
+
+		@Override
+		public void key(@NotNull CharSequence name) {
+			events.add("key:" + name);
+		}
+
+		@Override
+		public void stringValue(@NotNull CharSequence value) {
+			events.add("string:" + value);
+		}
+
+		@Override
+		public void longValue(long value) {
+			events.add("long:" + value);
+		}
+
+		@Override
+		public void doubleValue(double value) {
+			events.add("double:" + value);
+		}
+
+		@Override
+		public void numberValue(@NotNull CharSequence text) {
+			events.add("number:" + text);
+		}
+
+		@Override
+		public void booleanValue(boolean value) {
+			events.add("boolean:" + value);
+		}
+
+		@Override
+		public void nullValue() {
+			events.add("null");
+		}
+	}
+
+	@Test
+	public void throwKeywordInvalid() {
+		Assertions.assertThrows(JsonIOException.class,
+				() -> new JsonReader(new StringReader("tru")).nextBoolean());
+	}
+}
@@ -0,0 +1,106 @@
+/*
+ * This file is part of jsonify.
+ *
+ * jsonify is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * jsonify is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with jsonify. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package io.gitlab.multicia.jsonify.test;
+
+import io.gitlab.multicia.jsonify.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.math.BigInteger;
+
+/**
+ * Test recording and replaying tokens.
+ */
+public class JsonTokenBufferTest {
+	private static final String INPUT = "{\"a\":[1,-2.5,123456789012345678901234567890,-9223372036854775808,"
+			+ "9223372036854775808],\"b\":{\"c\":true,\"d\":null,\"e\":[],\"f\":{}},\"type\":\"\\u00e9x\"}";
+
+	@Test
+	public void recordReplay() {
+		try (final JsonReader reader = new JsonReader(new StringReader("[" + INPUT + ",2]"))) {
+			final JsonElement expected = JsonReader.read(new StringReader(INPUT));
+			final JsonTokenBuffer buffer = new JsonTokenBuffer();
+			reader.beginArray();
+			buffer.record(reader);
+			Assertions.assertEquals(2L, reader.nextLong());
+
+			for (int count = 0; count < 2; count++) {
+				final StringWriter writer = new StringWriter();
+				JsonPipe.copy(buffer.replay(), new JsonWriter(writer));
+				Assertions.assertEquals(expected, JsonReader.read(new StringReader(writer.toString())));
+			}
+
+			// look ahead for the discriminator, then decode
+			final JsonInput lookahead = buffer.replay();
+			Assertions.assertEquals(JsonTokens.OBJECT_BEGIN, lookahead.nextToken());
+			Assertions.assertEquals(new JsonName("a"), lookahead.nextToken());
+			Assertions.assertEquals(JsonTokens.ARRAY_BEGIN, lookahead.nextToken());
+			Assertions.assertEquals(new JsonNumber(1), lookahead.nextToken());
+			lookahead.endStructure();
+			Assertions.assertEquals(new JsonName("b"), lookahead.nextToken());
+			Assertions.assertEquals(JsonTokens.OBJECT_BEGIN, lookahead.nextToken());
+			lookahead.endStructure();
+			Assertions.assertEquals(new JsonName("type"), lookahead.nextToken());
+			Assertions.assertEquals(new JsonString("\u00e9x"), lookahead.nextToken());
+			Assertions.assertEquals(JsonTokens.OBJECT_END, lookahead.nextToken());
+			lookahead.endStructure();
+			Assertions.assertEquals(JsonTokens.EOF, lookahead.nextToken());
+
+			final JsonInput input = buffer.replay();
+			Assertions.assertEquals(JsonTokens.OBJECT_BEGIN, input.nextToken());
+			Assertions.assertEquals(expected, input.parseStructure());
+			Assertions.assertEquals(JsonTokens.EOF, input.nextToken());
+		} catch (IOException exception) {
+			Assertions.fail(exception);
+		}
+	}
+
+	@Test
+	public void recordOutput() {
+		try {
+			final JsonTokenBuffer buffer = new JsonTokenBuffer();
+			Assertions.assertTrue(buffer.isEmpty());
+			buffer.beginArray();
+			buffer.valueNumber(BigInteger.TEN);
+			buffer.valueString('x');
+			buffer.value(JsonReader.read(new StringReader(INPUT)));
+			buffer.end();
+			final JsonInput input = buffer.replay();
+			Assertions.assertEquals(JsonTokens.ARRAY_BEGIN, input.nextToken());
+			Assertions.assertEquals(JsonReader.read(new StringReader("[10,\"x\"," + INPUT + "]")), input.parseStructure());
+
+			buffer.clear();
+			Assertions.assertTrue(buffer.isEmpty());
+			Assertions.assertThrows(JsonIOException.class, buffer::end);
+			buffer.beginObject();
+			Assertions.assertThrows(JsonIOException.class, () -> buffer.valueNumber(1));
+			buffer.name("a");
+			Assertions.assertThrows(JsonIOException.class, () -> buffer.name("b"));
+			Assertions.assertThrows(JsonIOException.class, buffer::end);
+			final JsonArray recursive = new JsonArray();
+			recursive.add(recursive);
+			Assertions.assertThrows(JsonIOException.class, () -> buffer.value(recursive));
+		} catch (IOException exception) {
+			Assertions.fail(exception);
+		}
+	}
+}
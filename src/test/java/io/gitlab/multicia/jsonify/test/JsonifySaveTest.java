@@ -22,9 +22,12 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.io.StringReader;
 import java.io.StringWriter;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.*;
 
 public class JsonifySaveTest {
 	@Test
@@ -502,4 +505,169 @@ public class JsonifySaveTest {
 			Assertions.fail(e);
 		}
 	}
+
+	@Test
+	public void saveReset() throws IOException {
+		try {
+			final StringWriter first = new StringWriter();
+			final JsonWriter writer = new JsonWriter(first);
+			writer.beginArray();
+			writer.valueNumber(1);
+			writer.reset(first);
+			writer.valueString("a");
+			Assertions.assertEquals("[1\"a\"", first.toString());
+			final StringWriter second = new StringWriter();
+			writer.close();
+			writer.reset(second);
+			writer.beginObject();
+			writer.name("b");
+			writer.valueNull();
+			writer.end();
+			Assertions.assertTrue(writer.isDone());
+			Assertions.assertEquals("{\"b\":null}", second.toString());
+		} catch (final JsonIOException e) {
+			Assertions.fail(e);
+		}
+	}
+
+	@Test
+	public void saveRaw() throws IOException {
+		try {
+			final StringWriter output = new StringWriter();
+			final JsonWriter writer = new JsonWriter(output);
+			writer.beginObject();
+			writer.name("a");
+			writer.valueRaw("[1, {\"b\" : 2}]");
+			writer.name("c");
+			writer.valueRaw("{\"trusted\":true}", true);
+			writer.end();
+			Assertions.assertEquals("{\"a\":[1, {\"b\" : 2}],\"c\":{\"trusted\":true}}", output.toString());
+			final JsonWriter invalid = new JsonWriter(new StringWriter());
+			invalid.beginArray();
+			Assertions.assertThrows(JsonIOException.class, () -> invalid.valueRaw("[1,"));
+			Assertions.assertThrows(JsonIOException.class, () -> invalid.valueRaw("1 2"));
+			Assertions.assertThrows(JsonIOException.class, () -> invalid.valueRaw(""));
+		} catch (final JsonIOException e) {
+			Assertions.fail(e);
+		}
+	}
+
+	@Test
+	public void saveStringReader() throws IOException {
+		try {
+			final StringWriter output = new StringWriter();
+			final JsonWriter writer = new JsonWriter(output);
+			writer.beginObject();
+			writer.name(new StringReader("a\"b"));
+			writer.valueString(new StringReader("x".repeat(3000) + "\n\u0001\uD83D\uDE00"));
+			writer.end();
+			Assertions.assertEquals("{\"a\\\"b\":\"" + "x".repeat(3000) + "\\n\\u0001\uD83D\uDE00\"}",
+					output.toString());
+			final JsonWriter invalid = new JsonWriter(new StringWriter());
+			Assertions.assertThrows(JsonIOException.class, () -> invalid.name(new StringReader("a")));
+		} catch (final JsonIOException e) {
+			Assertions.fail(e);
+		}
+	}
+
+	@Test
+	public void saveBinary() throws IOException {
+		try {
+			final Random random = new Random(42);
+			for (int length = 0; length < 2000; length += length < 10 ? 1 : 97) {
+				final byte[] value = new byte[length];
+				random.nextBytes(value);
+				final StringWriter output = new StringWriter();
+				final JsonWriter writer = new JsonWriter(output);
+				writer.valueBinary(value);
+				Assertions.assertEquals('"' + Base64.getEncoder().encodeToString(value) + '"', output.toString());
+			}
+			final StringWriter output = new StringWriter();
+			final JsonWriter writer = new JsonWriter(output);
+			final ByteBuffer buffer = ByteBuffer.wrap(new byte[]{0, 'a', 'b', 'c', 0}, 1, 3);
+			writer.beginArray();
+			writer.valueBinary(buffer);
+			writer.valueBinary(new byte[]{0, 'a', 'b', 0}, 1, 2);
+			writer.end();
+			Assertions.assertEquals("[\"YWJj\",\"YWI=\"]", output.toString());
+			Assertions.assertEquals(1, buffer.position());
+		} catch (final JsonIOException e) {
+			Assertions.fail(e);
+		}
+	}
+
+	@Test
+	public void savePrimitiveArrays() throws IOException {
+		try {
+			final StringWriter output = new StringWriter();
+			final JsonWriter writer = new JsonWriter(output);
+			writer.beginArray();
+			writer.valueArray(new long[]{1, -2, Long.MAX_VALUE});
+			writer.valueArray(new int[]{0, 5, 6, 0}, 1, 2);
+			writer.valueArray(new double[]{0.5, 1e9}, 0, 2);
+			writer.valueArray(new int[0]);
+			writer.valueNull();
+			writer.end();
+			Assertions.assertEquals("[[1,-2,9223372036854775807],[5,6],[0.5,1.0E9],[],null]", output.toString());
+			final StringWriter invalidOutput = new StringWriter();
+			final JsonWriter invalid = new JsonWriter(invalidOutput);
+			Assertions.assertThrows(NumberFormatException.class, () -> invalid.valueArray(new double[]{1, Double.NaN}));
+			Assertions.assertEquals("", invalidOutput.toString());
+		} catch (final JsonIOException e) {
+			Assertions.fail(e);
+		}
+	}
+
+	@Test
+	public void saveAny() throws IOException {
+		try {
+			final Map<String, Object> response = new LinkedHashMap<>();
+			response.put("id", 42);
+			response.put("name", new StringBuilder("a\"b"));
+			response.put("ok", true);
+			response.put("none", null);
+			response.put("ratio", 0.5);
+			response.put("single", 0.1f);
+			response.put("big", new BigInteger("123456789012345678901234567890"));
+			response.put("tags", List.of("x", 'y'));
+			response.put("matrix", new Object[]{new long[]{1, 2}, new int[]{3}, new double[]{4.5}, new boolean[]{true}});
+			response.put("element", JsonReader.read(new StringReader("{\"a\":[1,null]}")));
+			final StringWriter output = new StringWriter();
+			JsonWriter.writeAny(output, response);
+			Assertions.assertEquals("{\"id\":42,\"name\":\"a\\\"b\",\"ok\":true,\"none\":null,\"ratio\":0.5,\"single\":0.1,"
+					+ "\"big\":123456789012345678901234567890,\"tags\":[\"x\",\"y\"],\"matrix\":[[1,2],[3],[4.5],[true]],"
+					+ "\"element\":{\"a\":[1,null]}}", output.toString());
+
+			// the same values through another output
+			final JsonTokenBuffer buffer = new JsonTokenBuffer();
+			buffer.valueAny(response);
+			final StringWriter replayed = new StringWriter();
+			JsonPipe.copy(buffer.replay(), new JsonWriter(replayed));
+			Assertions.assertEquals(output.toString(), replayed.toString());
+
+			// deep nesting is written without recursion
+			List<Object> nested = new ArrayList<>();
+			for (int depth = 0; depth < 100000; depth++) nested = new ArrayList<>(List.of(nested));
+			final StringWriter deep = new StringWriter();
+			JsonWriter.writeAny(deep, nested);
+			Assertions.assertEquals(200002, deep.toString().length());
+
+			final List<Object> recursive = new ArrayList<>();
+			recursive.add(Map.of("self", recursive));
+			Assertions.assertThrows(JsonIOException.class, () -> new JsonWriter(new StringWriter()).valueAny(recursive));
+			Assertions.assertThrows(JsonIOException.class,
+					() -> new JsonWriter(new StringWriter()).valueAny(List.of(new Object())));
+			Assertions.assertThrows(JsonIOException.class,
+					() -> new JsonWriter(new StringWriter()).valueAny(Map.of(1, 2)));
+			Assertions.assertThrows(NumberFormatException.class,
+					() -> new JsonWriter(new StringWriter()).valueAny(List.of(Float.NaN)));
+			// a shared value is not a recursive one
+			final List<Object> shared = List.of(1);
+			final StringWriter sharedOutput = new StringWriter();
+			JsonWriter.writeAny(sharedOutput, List.of(shared, shared));
+			Assertions.assertEquals("[[1],[1]]", sharedOutput.toString());
+		} catch (final JsonIOException e) {
+			Assertions.fail(e);
+		}
+	}
 }